@@ -2,6 +2,7 @@
 plugins {
     id("java")
     id("com.github.johnrengelman.shadow") version "8.1.1"
+    id("me.champeau.jmh") version "0.7.2"
 
 }
 
@@ -20,12 +21,34 @@ dependencies {
     // https://mvnrepository.com/artifact/org.mongodb/mongo-java-driver
     implementation ("org.mongodb:mongo-java-driver:3.12.12")
 
+    // https://mvnrepository.com/artifact/org.hdrhistogram/HdrHistogram
+    implementation ("org.hdrhistogram:HdrHistogram:2.1.12")
+
     // https://mvnrepository.com/artifact/com.google.code.gson/gson
     compileOnly ("com.google.code.gson:gson:2.9.0")
 
+    // the benchmarks run HazelServer, which needs Gson at runtime
+    jmh ("com.google.code.gson:gson:2.9.0")
+
+    testImplementation (platform("org.junit:junit-bom:5.10.2"))
+    testImplementation ("org.junit.jupiter:junit-jupiter")
+    testImplementation ("org.mockito:mockito-core:5.11.0")
+    testImplementation ("com.google.code.gson:gson:2.9.0")
 
 }
 
+// ./gradlew jmh -Pbenchmark.mongo.address=127.0.0.1 -Pbenchmark.mongo.username=... -Pbenchmark.mongo.password=...
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+    jvmArgsAppend.set(listOf("address", "port", "username", "password", "database")
+        .mapNotNull { key -> findProperty("benchmark.mongo.$key")?.let { "-Dbenchmark.mongo.$key=$it" } })
+}
+
 /*
 tasks.withType<Jar> {
     manifest {
@@ -44,6 +67,9 @@ tasks {
         mergeServiceFiles()
     }
 
+    test {
+        useJUnitPlatform()
+    }
     build {
         dependsOn(shadowJar)
     }
@@ -0,0 +1,73 @@
+package de.rubymc.benchmark;
+
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Builds the documents the benchmarks run against. The {@code small} shape holds only the fields the hot paths
+ * touch; the {@code player} shape adds the inventory and statistics sub-documents of a real player document.
+ */
+final class BenchmarkDocuments {
+
+    static final String UNIQUE_ID = "uniqueId";
+    static final String COINS = "coins";
+    static final String KILLS = "kills";
+    static final String LAST_SEEN = "lastSeen";
+
+    private BenchmarkDocuments() {
+    }
+
+    /**
+     * Creates the unique ids of the benchmark documents.
+     *
+     * @param size the number of documents
+     * @return the unique ids, in a fixed order for every run
+     */
+    static UUID[] uniqueIds(int size) {
+        SplittableRandom random = new SplittableRandom(size);
+        UUID[] uniqueIds = new UUID[size];
+        for (int index = 0; index < size; index++) {
+            uniqueIds[index] = new UUID(random.nextLong(), random.nextLong());
+        }
+        return uniqueIds;
+    }
+
+    /**
+     * Creates a benchmark document.
+     *
+     * @param shape    the shape of the document, either {@code small} or {@code player}
+     * @param uniqueId the unique id of the document
+     * @param random   the source of the field values
+     * @return the created document
+     */
+    static Document create(String shape, UUID uniqueId, SplittableRandom random) {
+        Document document = new Document(UNIQUE_ID, uniqueId)
+                .append("name", "player-" + Long.toHexString(uniqueId.getMostSignificantBits()))
+                .append(COINS, random.nextInt(1_000_000))
+                .append(KILLS, random.nextInt(10_000))
+                .append(LAST_SEEN, System.currentTimeMillis());
+        switch (shape) {
+            case "small":
+                return document;
+            case "player":
+                List<Document> inventory = new ArrayList<>(36);
+                for (int slot = 0; slot < 36; slot++) {
+                    inventory.add(new Document("slot", slot)
+                            .append("material", "MATERIAL_" + random.nextInt(800))
+                            .append("amount", 1 + random.nextInt(64))
+                            .append("enchantments", List.of(new Document("type", "SHARPNESS").append("level", random.nextInt(5)))));
+                }
+                Document statistics = new Document();
+                for (int statistic = 0; statistic < 50; statistic++) {
+                    statistics.append("statistic" + statistic, random.nextLong(1_000_000));
+                }
+                return document.append("inventory", inventory).append("statistics", statistics);
+            default:
+                throw new IllegalArgumentException("Unknown document shape " + shape);
+        }
+    }
+}
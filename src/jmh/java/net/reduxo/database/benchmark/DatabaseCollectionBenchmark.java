@@ -0,0 +1,123 @@
+package de.rubymc.benchmark;
+
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Indexes;
+import de.rubymc.mongodb.ICollection;
+import de.rubymc.mongodb.impl.Database;
+import de.rubymc.mongodb.impl.DatabaseCollection;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the hot paths of {@link DatabaseCollection} against a locally started mongod. The server is configured
+ * through the system properties {@code benchmark.mongo.address}, {@code benchmark.mongo.port},
+ * {@code benchmark.mongo.username}, {@code benchmark.mongo.password} and {@code benchmark.mongo.database};
+ * the user needs read and write access to the database. Every parameter combination gets its own collection,
+ * which is dropped and filled again during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DatabaseCollectionBenchmark {
+
+    private static final int INSERT_BATCH = 1_000;
+    private static final Bson PROJECTION = ICollection.covered(BenchmarkDocuments.UNIQUE_ID, BenchmarkDocuments.COINS);
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"small", "player"})
+    public String shape;
+
+    private Database database;
+    private DatabaseCollection collection;
+    private UUID[] uniqueIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = Database.create(
+                System.getProperty("benchmark.mongo.address", "127.0.0.1"),
+                Integer.getInteger("benchmark.mongo.port", 27017),
+                System.getProperty("benchmark.mongo.username", "benchmark"),
+                System.getProperty("benchmark.mongo.password", "benchmark"),
+                System.getProperty("benchmark.mongo.database", "benchmark"));
+        database.connect();
+        collection = database.createDatabaseCollection("benchmark_" + shape + "_" + size);
+        collection.mongoCollection().drop();
+        uniqueIds = BenchmarkDocuments.uniqueIds(size);
+        SplittableRandom random = new SplittableRandom(size);
+        List<Document> batch = new ArrayList<>(INSERT_BATCH);
+        for (UUID uniqueId : uniqueIds) {
+            batch.add(BenchmarkDocuments.create(shape, uniqueId, random));
+            if (batch.size() == INSERT_BATCH) {
+                collection.mongoCollection().insertMany(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            collection.mongoCollection().insertMany(batch);
+        }
+        collection.ensureIndexes(
+                new IndexModel(Indexes.ascending(BenchmarkDocuments.UNIQUE_ID)),
+                new IndexModel(Indexes.compoundIndex(Indexes.ascending(BenchmarkDocuments.UNIQUE_ID),
+                        Indexes.ascending(BenchmarkDocuments.COINS))),
+                new IndexModel(Indexes.descending(BenchmarkDocuments.COINS)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        collection.mongoCollection().drop();
+        database.disconnect();
+    }
+
+    @Benchmark
+    public Document getDocument() {
+        return collection.getDocument(BenchmarkDocuments.UNIQUE_ID, randomId());
+    }
+
+    @Benchmark
+    public Document getDocumentProjected() {
+        return collection.getDocument(BenchmarkDocuments.UNIQUE_ID, randomId(), PROJECTION);
+    }
+
+    @Benchmark
+    public void updateElement() {
+        collection.updateElement(BenchmarkDocuments.UNIQUE_ID, randomId(), BenchmarkDocuments.LAST_SEEN, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public boolean increment() {
+        return collection.increment(BenchmarkDocuments.UNIQUE_ID, randomId(), BenchmarkDocuments.KILLS, 1);
+    }
+
+    @Benchmark
+    public int rank() {
+        return collection.rank(BenchmarkDocuments.COINS, randomId());
+    }
+
+    @Benchmark
+    public List<Document> topWall() {
+        return collection.topWall(BenchmarkDocuments.COINS, 10);
+    }
+
+    private UUID randomId() {
+        return uniqueIds[ThreadLocalRandom.current().nextInt(uniqueIds.length)];
+    }
+}
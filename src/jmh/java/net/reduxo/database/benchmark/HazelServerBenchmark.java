@@ -0,0 +1,92 @@
+package de.rubymc.benchmark;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import de.rubymc.hazelcast.impl.HazelServer;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the map operations of {@link HazelServer} against an embedded Hazelcast member started in the benchmark
+ * JVM, so that the client still serializes and sends every operation over a loopback connection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HazelServerBenchmark {
+
+    private static final String CLUSTER = "benchmark";
+    private static final String MAP = "players";
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"small", "player"})
+    public String shape;
+
+    private HazelcastInstance member;
+    private HazelServer<String, Object> server;
+    private String[] keys;
+    private Object[] values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Config config = new Config();
+        config.setClusterName(CLUSTER);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        member = Hazelcast.newHazelcastInstance(config);
+        int port = member.getCluster().getLocalMember().getAddress().getPort();
+        server = HazelServer.create("127.0.0.1:" + port, CLUSTER);
+
+        UUID[] uniqueIds = BenchmarkDocuments.uniqueIds(size);
+        SplittableRandom random = new SplittableRandom(size);
+        keys = new String[size];
+        values = new Object[size];
+        for (int index = 0; index < size; index++) {
+            keys[index] = uniqueIds[index].toString();
+            // the values are stored as JSON, so the UUID is kept as a string like Gson would write it
+            Document document = BenchmarkDocuments.create(shape, uniqueIds[index], random);
+            document.put(BenchmarkDocuments.UNIQUE_ID, keys[index]);
+            values[index] = document;
+            server.setMap(MAP, keys[index], document);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.shutdown();
+        member.shutdown();
+    }
+
+    @Benchmark
+    public void setMap() {
+        int index = ThreadLocalRandom.current().nextInt(keys.length);
+        server.setMap(MAP, keys[index], values[index]);
+    }
+
+    @Benchmark
+    public Object mapGet() {
+        return server.mapGet(MAP, keys[ThreadLocalRandom.current().nextInt(keys.length)], Object.class);
+    }
+
+    @Benchmark
+    public Object mapGetDecoded() {
+        return server.mapGet(MAP, keys[ThreadLocalRandom.current().nextInt(keys.length)], Document.class);
+    }
+}
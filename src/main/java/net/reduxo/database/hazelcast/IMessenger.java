@@ -0,0 +1,70 @@
+package de.rubymc.hazelcast;
+
+import de.rubymc.metrics.DatabaseMetrics;
+
+import java.util.Collection;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+
+/**
+ * Publishes typed messages on a Hazelcast topic and delivers the received messages to local listeners.
+ *
+ * @param <M> The type of the messages.
+ */
+public interface IMessenger<M> {
+
+    /**
+     * Retrieves the name of the topic.
+     *
+     * @return The name of the topic.
+     */
+    String getTopic();
+
+    /**
+     * Publishes a message. With batching enabled the message is queued and sent with the next batch.
+     *
+     * @param message The message to publish.
+     */
+    void publish(M message);
+
+    /**
+     * Publishes a message asynchronously. With batching enabled the message is queued and sent with the next batch.
+     *
+     * @param message The message to publish.
+     * @return A stage completed once the message was published.
+     */
+    CompletionStage<Void> publishAsync(M message);
+
+    /**
+     * Publishes several messages with a single request.
+     *
+     * @param messages The messages to publish, in order.
+     * @return A stage completed once all messages were published.
+     */
+    CompletionStage<Void> publishAll(Collection<? extends M> messages);
+
+    /**
+     * Sends the queued messages without waiting for the batch interval.
+     */
+    void flush();
+
+    /**
+     * Adds a listener receiving every message published on the topic, including those published by this server.
+     *
+     * @param listener The listener, called on the executor of the messenger.
+     * @return The handle to remove the listener with.
+     */
+    ListenerHandle addListener(Consumer<M> listener);
+
+    /**
+     * Records the publish and delivery latencies and the message counts of the topic.
+     *
+     * @param metrics The registry the metrics are recorded in.
+     */
+    void enableMetrics(DatabaseMetrics metrics);
+
+    /**
+     * Sends the queued messages, removes all listeners and rejects further messages.
+     */
+    void close();
+}
@@ -2,11 +2,20 @@ package de.rubymc.hazelcast;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.MapStoreConfig;
 import com.hazelcast.core.EntryListener;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.query.Predicate;
 import com.hazelcast.topic.ITopic;
+import de.rubymc.metrics.DatabaseMetrics;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Interface representing a Hazelcast server providing distributed map operations.
@@ -47,7 +56,7 @@ public interface IServer<K, V> {
 
     /**
      * Sets a key-value pair with a specified expiration time (in seconds) in the specified distributed map
-     * and adds an EntryListener to the map.
+     * and adds an EntryListener to the map. The listener is registered once per map, however often it is passed.
      *
      * @param field         The name of the distributed map.
      * @param key           The key of the pair.
@@ -65,24 +74,163 @@ public interface IServer<K, V> {
      */
     void removeMap(String field, K key);
 
+    /**
+     * Sets all key-value pairs in the specified distributed map with one bulk operation.
+     *
+     * @param field  The name of the distributed map.
+     * @param values The key-value pairs to set.
+     */
+    void setMapAll(String field, Map<K, V> values);
+
+    /**
+     * Sets all key-value pairs with a specified expiration time (in seconds) in the specified distributed map.
+     *
+     * @param field   The name of the distributed map.
+     * @param values  The key-value pairs to set.
+     * @param seconds The expiration time in seconds.
+     */
+    void setCacheMapAll(String field, Map<K, V> values, int seconds);
+
+    /**
+     * Retrieves the values associated with the specified keys from the specified distributed map with one bulk operation.
+     *
+     * @param field The name of the distributed map.
+     * @param keys  The keys to retrieve the values for.
+     * @return A map of the present keys to their values.
+     */
+    Map<K, V> mapGetAll(String field, Set<K> keys);
+
+    /**
+     * Retrieves the values associated with the specified keys from the specified distributed map with one bulk operation.
+     *
+     * @param field The name of the distributed map.
+     * @param keys  The keys to retrieve the values for.
+     * @param clazz The class type of the values to retrieve.
+     * @param <T>   The type of the values.
+     * @return A map of the present keys to their values.
+     */
+    <T> Map<K, T> mapGetAll(String field, Set<K> keys, Class<T> clazz);
+
+    /**
+     * Removes the key-value pairs of the specified keys from the specified distributed map.
+     *
+     * @param field The name of the distributed map.
+     * @param keys  The keys of the pairs to remove.
+     */
+    void removeAll(String field, Set<K> keys);
+
     /**
      * Retrieves the value associated with the specified key from the specified distributed map.
      *
      * @param field The name of the distributed map.
      * @param key   The key to retrieve the value for.
      * @param clazz The class type of the value to retrieve.
+     * @param <T>   The type of the value.
      * @return The retrieved value, or null if no value is found.
      */
-    Object mapGet(String field, K key, Class<?> clazz);
+    <T> T mapGet(String field, K key, Class<T> clazz);
 
     /**
      * Retrieves the value associated with the specified key from the specified distributed map.
      *
      * @param field The name of the distributed map.
      * @param key   The key to retrieve the value for.
-     * @return The retrieved value, or null if no value is found.
+     * @return The retrieved value, or null if no value is found. Servers without a value class return it as stored.
+     */
+    V mapGet(String field, K key);
+
+    /**
+     * Checks asynchronously if the specified key exists in the distributed map.
+     *
+     * @param field The name of the distributed map.
+     * @param key   The key to check for existence.
+     * @return A stage completed with true if the key exists in the map, false otherwise.
+     */
+    CompletionStage<Boolean> containsKeyAsync(String field, K key);
+
+    /**
+     * Sets a key-value pair in the specified distributed map asynchronously.
+     *
+     * @param field The name of the distributed map.
+     * @param key   The key of the pair.
+     * @param value The value of the pair.
+     * @return A stage completed once the pair was set.
+     */
+    CompletionStage<Void> setMapAsync(String field, K key, V value);
+
+    /**
+     * Sets a key-value pair with a specified expiration time (in seconds) in the specified distributed map asynchronously.
+     *
+     * @param field   The name of the distributed map.
+     * @param key     The key of the pair.
+     * @param value   The value of the pair.
+     * @param seconds The expiration time in seconds.
+     * @return A stage completed once the pair was set.
+     */
+    CompletionStage<Void> setCacheMapAsync(String field, K key, V value, int seconds);
+
+    /**
+     * Removes a key-value pair from the specified distributed map asynchronously.
+     *
+     * @param field The name of the distributed map.
+     * @param key   The key of the pair to remove.
+     * @return A stage completed with true if a pair was removed, false otherwise.
      */
-    Object mapGet(String field, K key);
+    CompletionStage<Boolean> removeMapAsync(String field, K key);
+
+    /**
+     * Retrieves the value associated with the specified key from the specified distributed map asynchronously.
+     *
+     * @param field The name of the distributed map.
+     * @param key   The key to retrieve the value for.
+     * @return A stage completed with the retrieved value, or null if no value is found.
+     */
+    CompletionStage<V> mapGetAsync(String field, K key);
+
+    /**
+     * Retrieves the value associated with the specified key from the specified distributed map asynchronously.
+     *
+     * @param field The name of the distributed map.
+     * @param key   The key to retrieve the value for.
+     * @param clazz The class type of the value to retrieve.
+     * @param <T>   The type of the value.
+     * @return A stage completed with the retrieved value, or null if no value is found.
+     */
+    <T> CompletionStage<T> mapGetAsync(String field, K key, Class<T> clazz);
+
+    /**
+     * Adds an EntryListener receiving the events of all entries of the specified distributed map.
+     * A listener is registered once per map and scope; adding it again returns the existing handle.
+     *
+     * @param field        The name of the distributed map.
+     * @param listener     The EntryListener to register.
+     * @param includeValue Whether the events carry the old and new values; pass false if the listener only needs the keys.
+     * @return The handle to remove the listener with.
+     */
+    ListenerHandle addEntryListener(String field, EntryListener<K, V> listener, boolean includeValue);
+
+    /**
+     * Adds an EntryListener receiving the events of a single key of the specified distributed map.
+     *
+     * @param field        The name of the distributed map.
+     * @param key          The key to receive the events of.
+     * @param listener     The EntryListener to register.
+     * @param includeValue Whether the events carry the old and new values; pass false if the listener only needs the keys.
+     * @return The handle to remove the listener with.
+     */
+    ListenerHandle addEntryListener(String field, K key, EntryListener<K, V> listener, boolean includeValue);
+
+    /**
+     * Adds an EntryListener receiving the events of the entries of the specified distributed map matching a predicate.
+     * The predicate is evaluated by the cluster against the values in their stored form.
+     *
+     * @param field        The name of the distributed map.
+     * @param predicate    The predicate the entries have to match.
+     * @param listener     The EntryListener to register.
+     * @param includeValue Whether the events carry the old and new values; pass false if the listener only needs the keys.
+     * @return The handle to remove the listener with.
+     */
+    ListenerHandle addEntryListener(String field, Predicate<K, Object> predicate, EntryListener<K, V> listener, boolean includeValue);
 
     /**
      * Registers a topic for the specified distributed map.
@@ -93,7 +241,20 @@ public interface IServer<K, V> {
     ITopic<String> topicRegister(String field);
 
     /**
-     * Retrieves a set of keys from the specified distributed map.
+     * Creates a messenger publishing typed messages on the specified topic, with batching, reliability and listener
+     * dispatch set by the options. The messenger is closed together with the server.
+     *
+     * @param topic   The name of the topic.
+     * @param type    The class the received messages are decoded into.
+     * @param options The options of the messenger.
+     * @param <M>     The type of the messages.
+     * @return The created messenger.
+     */
+    <M> IMessenger<M> messenger(String topic, Class<M> type, MessengerOptions options);
+
+    /**
+     * Retrieves a set of keys from the specified distributed map. All keys are copied to the client;
+     * use {@link #mapKeys(String, Predicate)} to only fetch the keys of matching entries.
      *
      * @param field The name of the distributed map.
      * @return A set of keys in the map.
@@ -101,13 +262,149 @@ public interface IServer<K, V> {
     Set<K> mapKeys(String field);
 
     /**
-     * Retrieves a map of key-value pairs from the specified distributed map.
+     * Retrieves a map of key-value pairs from the specified distributed map. All entries are copied to the client;
+     * use {@link #mapQuery(String, Predicate)} or {@link #mapIterator(String, Predicate, int)} for large maps.
      *
      * @param field The name of the distributed map.
      * @return A map of key-value pairs in the map.
      */
     Map<K, V> mapValue(String field);
 
+    /**
+     * Retrieves the keys of the entries of the specified distributed map matching a predicate.
+     * The predicate is evaluated by the partition owners against the values in their stored form.
+     *
+     * @param field     The name of the distributed map.
+     * @param predicate The predicate the entries have to match, for example {@code Predicates.sql("online = true")}.
+     * @return The keys of the matching entries.
+     */
+    Set<K> mapKeys(String field, Predicate<K, Object> predicate);
+
+    /**
+     * Retrieves the entries of the specified distributed map matching a predicate.
+     * The predicate is evaluated by the partition owners, so only the matching entries are sent to the client.
+     *
+     * @param field     The name of the distributed map.
+     * @param predicate The predicate the entries have to match.
+     * @return The matching key-value pairs.
+     */
+    Map<K, V> mapQuery(String field, Predicate<K, Object> predicate);
+
+    /**
+     * Retrieves the entries of the specified distributed map matching a predicate.
+     *
+     * @param field     The name of the distributed map.
+     * @param predicate The predicate the entries have to match.
+     * @param clazz     The class type of the values to retrieve.
+     * @param <T>       The type of the values.
+     * @return The matching key-value pairs.
+     */
+    <T> Map<K, T> mapQuery(String field, Predicate<K, Object> predicate, Class<T> clazz);
+
+    /**
+     * Projects the entries of the specified distributed map matching a predicate on the partition owners,
+     * so that only the projected attributes are sent to the client.
+     *
+     * @param field      The name of the distributed map.
+     * @param projection The projection, for example {@code Projections.singleAttribute("name")}.
+     * @param predicate  The predicate the entries have to match.
+     * @param <R>        The type of the projected values.
+     * @return The projected values of the matching entries.
+     */
+    <R> Collection<R> mapProject(String field, Projection<? super Map.Entry<K, Object>, R> projection, Predicate<K, Object> predicate);
+
+    /**
+     * Iterates over the entries of the specified distributed map matching a predicate one page at a time,
+     * so that only the current page is held on the client.
+     *
+     * @param field     The name of the distributed map.
+     * @param predicate The predicate the entries have to match, or null for all entries.
+     * @param pageSize  The number of entries fetched per page.
+     * @return An iterator over the matching key-value pairs.
+     */
+    Iterator<Map.Entry<K, V>> mapIterator(String field, Predicate<K, Object> predicate, int pageSize);
+
+    /**
+     * Runs an entry processor on the entry of a key on the partition thread of the member owning it, so that the
+     * read-modify-write is atomic and only the processor and its result travel over the network. The processor sees
+     * the value in its stored form and its class has to be on the classpath of the members, like the processors in
+     * {@code de.rubymc.hazelcast.processor}, which also need Gson there to read values stored as JSON.
+     *
+     * @param field     The name of the distributed map.
+     * @param key       The key of the entry to process.
+     * @param processor The entry processor.
+     * @param <R>       The result type of the processor.
+     * @return The result of the processor.
+     */
+    <R> R executeOnKey(String field, K key, EntryProcessor<K, Object, R> processor);
+
+    /**
+     * Runs an entry processor on the entry of a key asynchronously.
+     *
+     * @param field     The name of the distributed map.
+     * @param key       The key of the entry to process.
+     * @param processor The entry processor.
+     * @param <R>       The result type of the processor.
+     * @return A stage completed with the result of the processor.
+     */
+    <R> CompletionStage<R> executeOnKeyAsync(String field, K key, EntryProcessor<K, Object, R> processor);
+
+    /**
+     * Runs an entry processor on the entries of a set of keys, grouped by the members owning them.
+     *
+     * @param field     The name of the distributed map.
+     * @param keys      The keys of the entries to process.
+     * @param processor The entry processor.
+     * @param <R>       The result type of the processor.
+     * @return The results of the processor by key.
+     */
+    <R> Map<K, R> executeOnKeys(String field, Set<K> keys, EntryProcessor<K, Object, R> processor);
+
+    /**
+     * Runs an entry processor on the entries matching a predicate on every member.
+     *
+     * @param field     The name of the distributed map.
+     * @param predicate The predicate the entries have to match.
+     * @param processor The entry processor.
+     * @param <R>       The result type of the processor.
+     * @return The results of the processor by key.
+     */
+    <R> Map<K, R> executeOnEntries(String field, Predicate<K, Object> predicate, EntryProcessor<K, Object, R> processor);
+
+    /**
+     * Backs the specified distributed map with a MapStore, such as {@code DocumentMapStore.config(...)}, through the
+     * dynamic configuration of the cluster. This has to happen before the map is used for the first time.
+     * Maps backed by a {@code DocumentMapStore} hold extended JSON and need a {@code DocumentValueCodec} registered for them.
+     *
+     * @param field  The name of the distributed map.
+     * @param config The MapStore config, including its write delay, batch size, coalescing and initial load mode.
+     */
+    void mapStore(String field, MapStoreConfig config);
+
+    /**
+     * Adds an attribute index to the specified distributed map. Adding an existing index has no effect.
+     *
+     * @param field      The name of the distributed map.
+     * @param type       The index type, {@code SORTED} for range queries or {@code HASH} for equality.
+     * @param attributes The attributes indexed.
+     */
+    void addIndex(String field, IndexType type, String... attributes);
+
+    /**
+     * Retrieves the share of reads of the specified distributed map that were answered by its client-side Near Cache.
+     *
+     * @param field The name of the distributed map.
+     * @return The hit ratio between 0 and 1, or 0 if the map has no Near Cache.
+     */
+    double nearCacheHitRatio(String field);
+
+    /**
+     * Enables the metrics of the map operations.
+     *
+     * @param metrics The registry the latencies and failures are recorded in.
+     */
+    void enableMetrics(DatabaseMetrics metrics);
+
     /**
      * Shuts down the server.
      */
@@ -0,0 +1,27 @@
+package de.rubymc.hazelcast;
+
+/**
+ * A registration of an entry listener on a distributed map, returned by {@link IServer#addEntryListener},
+ * or of a message listener on a topic, returned by {@link IMessenger#addListener}.
+ */
+public interface ListenerHandle {
+
+    /**
+     * Retrieves the name of the distributed map or topic the listener is registered on.
+     *
+     * @return The name of the map or topic.
+     */
+    String getField();
+
+    /**
+     * Checks whether the listener is still registered.
+     *
+     * @return True if the listener receives events, false once it was removed.
+     */
+    boolean isActive();
+
+    /**
+     * Removes the listener from the map. Removing it again has no effect.
+     */
+    void remove();
+}
@@ -0,0 +1,133 @@
+package de.rubymc.hazelcast;
+
+import de.rubymc.hazelcast.impl.BinaryValueCodec;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Options for an {@link IMessenger}: the codec of the messages, whether the topic is reliable, the batching of
+ * publishes and the executor the listeners run on.
+ */
+public class MessengerOptions {
+
+    private ValueCodec codec = BinaryValueCodec.create();
+    private boolean reliable;
+    private int maxBatch;
+    private long batchIntervalMillis;
+    private Executor executor;
+
+    /**
+     * Creates a new MessengerOptions object for an unbatched classic topic with binary messages.
+     *
+     * @return The created MessengerOptions object.
+     */
+    public static MessengerOptions create() {
+        return new MessengerOptions();
+    }
+
+    /**
+     * Sets the codec of the messages. By default messages are published as they are, so that Hazelcast serializes
+     * them in binary form, for example with Compact serialization registered through {@link ServerOptions#compactClass}.
+     *
+     * @param codec The codec of the messages.
+     * @return This MessengerOptions object.
+     */
+    public MessengerOptions codec(ValueCodec codec) {
+        this.codec = codec;
+        return this;
+    }
+
+    /**
+     * Publishes on a reliable topic, which keeps the messages in a ring buffer so that slow listeners do not lose them.
+     * What happens once the ring buffer is full is set through {@link ServerOptions#reliableTopic}.
+     *
+     * @return This MessengerOptions object.
+     */
+    public MessengerOptions reliable() {
+        this.reliable = true;
+        return this;
+    }
+
+    /**
+     * Queues published messages and sends them as one batch once the batch is full or the interval has passed.
+     *
+     * @param maxBatch The number of queued messages that triggers a send.
+     * @param interval The maximum time a message stays queued.
+     * @param unit     The time unit of the interval.
+     * @return This MessengerOptions object.
+     */
+    public MessengerOptions batch(int maxBatch, long interval, TimeUnit unit) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be at least 1");
+        }
+        this.maxBatch = maxBatch;
+        this.batchIntervalMillis = Math.max(1, unit.toMillis(interval));
+        return this;
+    }
+
+    /**
+     * Sets the executor the listeners are called on. By default they run on the listener executor of the server.
+     *
+     * @param executor The executor.
+     * @return This MessengerOptions object.
+     */
+    public MessengerOptions executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Retrieves the codec of the messages.
+     *
+     * @return The codec.
+     */
+    public ValueCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Retrieves whether the messages are published on a reliable topic.
+     *
+     * @return True for a reliable topic, false for a classic topic.
+     */
+    public boolean isReliable() {
+        return reliable;
+    }
+
+    /**
+     * Retrieves whether published messages are queued and sent in batches.
+     *
+     * @return True if publishes are batched, otherwise false.
+     */
+    public boolean isBatched() {
+        return maxBatch > 0;
+    }
+
+    /**
+     * Retrieves the number of queued messages that triggers a send.
+     *
+     * @return The maximum batch size, or 0 if publishes are not batched.
+     */
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    /**
+     * Retrieves the maximum time a message stays queued.
+     *
+     * @return The batch interval in milliseconds, or 0 if publishes are not batched.
+     */
+    public long getBatchIntervalMillis() {
+        return batchIntervalMillis;
+    }
+
+    /**
+     * Retrieves the executor the listeners are called on.
+     *
+     * @return The executor, or null to use the listener executor of the server.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+}
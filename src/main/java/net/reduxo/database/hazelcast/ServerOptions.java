@@ -0,0 +1,323 @@
+package de.rubymc.hazelcast;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.config.ClientReliableTopicConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.config.NearCachePreloaderConfig;
+import com.hazelcast.config.SerializerConfig;
+import com.hazelcast.nio.serialization.Serializer;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.topic.TopicOverloadPolicy;
+import de.rubymc.hazelcast.impl.JsonValueCodec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Options for a {@code HazelServer}: the value codec of each map and the serializers of the Hazelcast client.
+ * Maps without a codec of their own use the default codec, which stores JSON strings unless changed.
+ */
+public class ServerOptions {
+
+    private ValueCodec codec = JsonValueCodec.create();
+    private final Map<String, ValueCodec> mapCodecs = new ConcurrentHashMap<>();
+    private final List<Consumer<ClientConfig>> serializers = new ArrayList<>();
+    private final List<Consumer<ClientConfig>> customizers = new ArrayList<>();
+    private final Map<String, NearCacheConfig> nearCaches = new ConcurrentHashMap<>();
+    private Executor continuationExecutor = ForkJoinPool.commonPool();
+    private Executor listenerExecutor;
+    private final Map<String, List<IndexConfig>> indexes = new ConcurrentHashMap<>();
+    private final Map<String, ClientReliableTopicConfig> reliableTopics = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new ServerOptions object with the JSON codec for every map.
+     *
+     * @return The created ServerOptions object.
+     */
+    public static ServerOptions create() {
+        return new ServerOptions();
+    }
+
+    /**
+     * Sets the codec of all maps without a codec of their own.
+     *
+     * @param codec The codec, for example {@code BinaryValueCodec.create()}.
+     * @return This ServerOptions object.
+     */
+    public ServerOptions codec(ValueCodec codec) {
+        this.codec = codec;
+        return this;
+    }
+
+    /**
+     * Sets the codec of the specified map.
+     *
+     * @param map   The name of the map.
+     * @param codec The codec of the map.
+     * @return This ServerOptions object.
+     */
+    public ServerOptions codec(String map, ValueCodec codec) {
+        this.mapCodecs.put(map, codec);
+        return this;
+    }
+
+    /**
+     * Serializes the specified classes with Compact serialization, deriving their schema through reflection.
+     *
+     * @param classes The classes to serialize.
+     * @return This ServerOptions object.
+     */
+    public ServerOptions compactClass(Class<?>... classes) {
+        serializers.add(config -> {
+            for (Class<?> type : classes) {
+                config.getSerializationConfig().getCompactSerializationConfig().addClass(type);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Serializes classes with Compact serialization through explicit serializers, which avoids reflection.
+     *
+     * @param serializers The serializers.
+     * @return This ServerOptions object.
+     */
+    public ServerOptions compactSerializer(CompactSerializer<?>... serializers) {
+        this.serializers.add(config -> {
+            for (CompactSerializer<?> serializer : serializers) {
+                config.getSerializationConfig().getCompactSerializationConfig().addSerializer(serializer);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Serializes the specified class with a custom binary serializer, such as a {@code StreamSerializer}.
+     *
+     * @param type       The class to serialize.
+     * @param serializer The serializer.
+     * @return This ServerOptions object.
+     */
+    public ServerOptions serializer(Class<?> type, Serializer serializer) {
+        serializers.add(config -> config.getSerializationConfig()
+                .addSerializerConfig(new SerializerConfig().setTypeClass(type).setImplementation(serializer)));
+        return this;
+    }
+
+    /**
+     * Declares an attribute index of the specified map, which the server adds to the cluster the first time it uses the map.
+     * Indexes let predicate queries skip the entries that cannot match; they only help if the codec of the map stores
+     * values whose attributes the cluster can read, such as {@code JsonValueCodec.queryable()} or Compact serialization.
+     *
+     * @param map        The name of the map.
+     * @param type       The index type, {@code SORTED} for range queries and ordering or {@code HASH} for equality.
+     * @param attributes The attributes indexed, more than one for a composite index.
+     * @return This ServerOptions object.
+     */
+    public ServerOptions index(String map, IndexType type, String... attributes) {
+        indexes.computeIfAbsent(map, name -> new CopyOnWriteArrayList<>()).add(new IndexConfig(type, attributes));
+        return this;
+    }
+
+    /**
+     * Keeps a client-side Near Cache of the specified map, so that reads of cached keys skip the round trip to the cluster.
+     * The cache is invalidated whenever an entry changes in the cluster.
+     *
+     * @param map               The name of the map.
+     * @param inMemoryFormat    The format of the cached values; {@code OBJECT} avoids deserializing on every read but
+     *                          hands every reader the same instance.
+     * @param evictionPolicy    The policy choosing the entries evicted once the cache is full.
+     * @param maxSize           The maximum number of cached entries.
+     * @param timeToLiveSeconds The maximum time an entry stays cached, 0 for no limit.
+     * @return This ServerOptions object.
+     */
+    public ServerOptions nearCache(String map, InMemoryFormat inMemoryFormat, EvictionPolicy evictionPolicy, int maxSize, int timeToLiveSeconds) {
+        NearCacheConfig config = new NearCacheConfig(map)
+                .setInMemoryFormat(inMemoryFormat)
+                .setInvalidateOnChange(true)
+                .setTimeToLiveSeconds(timeToLiveSeconds);
+        config.getEvictionConfig()
+                .setEvictionPolicy(evictionPolicy)
+                .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+                .setSize(maxSize);
+        return nearCache(config);
+    }
+
+    /**
+     * Keeps a client-side Near Cache configured in full, for example to turn off invalidation of a map that never changes.
+     *
+     * @param config The Near Cache config, named after the map.
+     * @return This ServerOptions object.
+     */
+    public ServerOptions nearCache(NearCacheConfig config) {
+        nearCaches.put(config.getName(), config);
+        return this;
+    }
+
+    /**
+     * Stores the keys of the Near Cache of the specified map on disk at the specified interval, and preloads them
+     * on restart so that the cache starts warm. The Near Cache has to be configured first.
+     *
+     * @param map                  The name of the map.
+     * @param directory            The directory the keys are stored in.
+     * @param storeIntervalSeconds The interval at which the keys are stored.
+     * @return This ServerOptions object.
+     */
+    public ServerOptions preloadNearCache(String map, String directory, int storeIntervalSeconds) {
+        NearCacheConfig config = nearCaches.get(map);
+        if (config == null) {
+            throw new IllegalStateException("No Near Cache is configured for map " + map);
+        }
+        config.setPreloaderConfig(new NearCachePreloaderConfig(true, directory)
+                .setStoreIntervalSeconds(storeIntervalSeconds));
+        return this;
+    }
+
+    /**
+     * Configures the client side of a reliable topic. The capacity of its ring buffer is configured on the members.
+     *
+     * @param topic          The name of the topic.
+     * @param overloadPolicy What publishing does once the ring buffer is full of messages not yet expired:
+     *                       {@code BLOCK} waits, {@code ERROR} fails, {@code DISCARD_OLDEST} overwrites and
+     *                       {@code DISCARD_NEWEST} drops the new message.
+     * @param readBatchSize  The maximum number of messages the listeners fetch per request.
+     * @return This ServerOptions object.
+     */
+    public ServerOptions reliableTopic(String topic, TopicOverloadPolicy overloadPolicy, int readBatchSize) {
+        reliableTopics.put(topic, new ClientReliableTopicConfig(topic)
+                .setTopicOverloadPolicy(overloadPolicy)
+                .setReadBatchSize(readBatchSize));
+        return this;
+    }
+
+    /**
+     * Sets the executor the asynchronous map operations complete on, so that callbacks attached to their stages never run
+     * on the internal threads of Hazelcast. Defaults to the common fork-join pool.
+     *
+     * @param continuationExecutor The executor, for example the main thread executor of the game server.
+     * @return This ServerOptions object.
+     */
+    public ServerOptions continuationExecutor(Executor continuationExecutor) {
+        this.continuationExecutor = continuationExecutor;
+        return this;
+    }
+
+    /**
+     * Sets the executor the events of entry listeners are decoded and delivered on. By default every server delivers
+     * them on a dedicated thread of its own, which keeps the events in the order the cluster sent them.
+     *
+     * @param listenerExecutor The executor, or null for a dedicated thread.
+     * @return This ServerOptions object.
+     */
+    public ServerOptions listenerExecutor(Executor listenerExecutor) {
+        this.listenerExecutor = listenerExecutor;
+        return this;
+    }
+
+    /**
+     * Adds a customizer for client settings not covered by these options. Customizers run after all other options were applied.
+     *
+     * @param customizer The customizer of the client config.
+     * @return This ServerOptions object.
+     */
+    public ServerOptions configure(Consumer<ClientConfig> customizer) {
+        customizers.add(customizer);
+        return this;
+    }
+
+    /**
+     * Retrieves the codec of the specified map.
+     *
+     * @param map The name of the map.
+     * @return The codec of the map, or the default codec if the map has none of its own.
+     */
+    public ValueCodec getCodec(String map) {
+        return mapCodecs.getOrDefault(map, codec);
+    }
+
+    /**
+     * Retrieves the codec of all maps without a codec of their own.
+     *
+     * @return The default codec.
+     */
+    public ValueCodec getDefaultCodec() {
+        return codec;
+    }
+
+    /**
+     * Retrieves the names of the maps with a codec of their own.
+     *
+     * @return The names of the maps.
+     */
+    public Set<String> getCodecMaps() {
+        return Collections.unmodifiableSet(mapCodecs.keySet());
+    }
+
+    /**
+     * Retrieves the executor the asynchronous map operations complete on.
+     *
+     * @return The continuation executor.
+     */
+    public Executor getContinuationExecutor() {
+        return continuationExecutor;
+    }
+
+    /**
+     * Retrieves the executor the events of entry listeners are delivered on.
+     *
+     * @return The listener executor, or null if every server uses a dedicated thread.
+     */
+    public Executor getListenerExecutor() {
+        return listenerExecutor;
+    }
+
+    /**
+     * Retrieves the declared attribute indexes of the specified map.
+     *
+     * @param map The name of the map.
+     * @return The index configs of the map.
+     */
+    public List<IndexConfig> getIndexes(String map) {
+        return indexes.getOrDefault(map, Collections.emptyList());
+    }
+
+    /**
+     * Retrieves the names of the maps with a Near Cache.
+     *
+     * @return The names of the maps.
+     */
+    public Set<String> getNearCachedMaps() {
+        return Collections.unmodifiableSet(nearCaches.keySet());
+    }
+
+    /**
+     * Builds the config of the Hazelcast client.
+     *
+     * @param address The address of the Hazelcast cluster to connect to.
+     * @param cluster The name of the cluster to join.
+     * @return The built client config.
+     */
+    public ClientConfig clientConfig(String address, String cluster) {
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.setClusterName(cluster);
+        clientConfig.getNetworkConfig().addAddress(address);
+        serializers.forEach(serializer -> serializer.accept(clientConfig));
+        nearCaches.values().forEach(clientConfig::addNearCacheConfig);
+        reliableTopics.values().forEach(clientConfig::addReliableTopicConfig);
+        customizers.forEach(customizer -> customizer.accept(clientConfig));
+        return clientConfig;
+    }
+}
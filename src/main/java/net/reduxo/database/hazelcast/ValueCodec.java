@@ -0,0 +1,26 @@
+package de.rubymc.hazelcast;
+
+/**
+ * Converts the values of a distributed map between the objects the application works with and the objects
+ * stored in the cluster, which Hazelcast then serializes with its configured serializers.
+ */
+public interface ValueCodec {
+
+    /**
+     * Converts a value into the object stored in the map.
+     *
+     * @param value The value to store.
+     * @return The stored object.
+     */
+    Object encode(Object value);
+
+    /**
+     * Converts a stored object back into a value.
+     *
+     * @param stored The stored object, or null if the key is not present.
+     * @param type   The class of the value, or null to return the stored object unchanged.
+     * @param <T>    The type of the value.
+     * @return The value, or null if the stored object is null.
+     */
+    <T> T decode(Object stored, Class<T> type);
+}
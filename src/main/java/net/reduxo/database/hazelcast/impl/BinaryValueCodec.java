@@ -0,0 +1,61 @@
+package de.rubymc.hazelcast.impl;
+
+import com.google.gson.Gson;
+import de.rubymc.hazelcast.ValueCodec;
+
+/**
+ * Stores values as they are, so that Hazelcast serializes them in binary form: with Compact serialization for
+ * classes registered through {@code ServerOptions.compactClass} or {@code ServerOptions.compactSerializer}, with a
+ * custom serializer registered through {@code ServerOptions.serializer}, or with its built-in serializers.
+ * Reads return the typed object without any conversion. JSON strings left behind by {@link JsonValueCodec}
+ * are still decoded through it, so a map can be switched over without being cleared. Since a string value is
+ * stored as it is, a string read as a String is only taken for legacy JSON if it is a quoted JSON string literal.
+ */
+public class BinaryValueCodec implements ValueCodec {
+
+    private final JsonValueCodec legacy;
+
+    /**
+     * Constructs a new BinaryValueCodec.
+     *
+     * @param gson The Gson instance reading JSON strings written before the switch.
+     */
+    public BinaryValueCodec(Gson gson) {
+        this.legacy = new JsonValueCodec(gson);
+    }
+
+    /**
+     * Creates a new BinaryValueCodec with a default Gson instance.
+     *
+     * @return The created BinaryValueCodec.
+     */
+    public static BinaryValueCodec create() {
+        return new BinaryValueCodec(new Gson());
+    }
+
+    @Override
+    public Object encode(Object value) {
+        return value;
+    }
+
+    @Override
+    public <T> T decode(Object stored, Class<T> type) {
+        if (stored == null || type == null) {
+            return (T) stored;
+        }
+        if (stored instanceof String && (type != String.class || isJsonString((String) stored))) {
+            return legacy.decode(stored, type);
+        }
+        if (type.isInstance(stored)) {
+            return type.cast(stored);
+        }
+        throw new ClassCastException("Stored value of type " + stored.getClass().getName() + " is not a " + type.getName());
+    }
+
+    /**
+     * Checks whether a stored string is a JSON string literal, as {@link JsonValueCodec} writes string values.
+     */
+    private static boolean isJsonString(String stored) {
+        return stored.length() >= 2 && stored.charAt(0) == '"' && stored.charAt(stored.length() - 1) == '"';
+    }
+}
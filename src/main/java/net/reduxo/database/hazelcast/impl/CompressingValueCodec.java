@@ -0,0 +1,217 @@
+package de.rubymc.hazelcast.impl;
+
+import de.rubymc.hazelcast.ValueCodec;
+import de.rubymc.metrics.DatabaseMetrics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses the JSON strings of another codec with Deflate once they reach a size threshold. Compressed values are
+ * stored as a byte array starting with a marker byte ({@code 0x01} for Deflate, {@code 0x00} for uncompressed UTF-8)
+ * followed by the uncompressed length, so that they coexist with the plain strings of smaller values and of values
+ * written before compression was enabled. Values that do not shrink are stored as plain strings.
+ * <p>
+ * Compressed values can no longer be addressed by predicates, indexes or the JSON entry processors, so compression
+ * suits maps of large values that are only read by key. The counters tell whether it pays off for a map.
+ * The delegate should not store byte arrays of its own, as those could be mistaken for compressed values.
+ */
+public class CompressingValueCodec implements ValueCodec {
+
+    static final byte RAW = 0x00;
+    static final byte DEFLATE = 0x01;
+    private static final int HEADER = 5;
+
+    private final ValueCodec delegate;
+    private final int thresholdBytes;
+    private final ThreadLocal<Deflater> deflaters;
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+    private final LongAdder compressedValues = new LongAdder();
+    private final LongAdder skippedValues = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder storedBytes = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+    private final LongAdder decompressNanos = new LongAdder();
+
+    /**
+     * Constructs a new CompressingValueCodec.
+     *
+     * @param delegate       The codec producing the values, usually a {@link JsonValueCodec}.
+     * @param thresholdBytes The UTF-8 size from which values are compressed.
+     * @param level          The Deflate level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}.
+     */
+    public CompressingValueCodec(ValueCodec delegate, int thresholdBytes, int level) {
+        this.delegate = delegate;
+        this.thresholdBytes = thresholdBytes;
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level));
+    }
+
+    /**
+     * Creates a new CompressingValueCodec using the fastest Deflate level, which keeps most of the gain on JSON.
+     *
+     * @param delegate       The codec producing the values.
+     * @param thresholdBytes The UTF-8 size from which values are compressed, for example 1024.
+     * @return The created CompressingValueCodec.
+     */
+    public static CompressingValueCodec create(ValueCodec delegate, int thresholdBytes) {
+        return new CompressingValueCodec(delegate, thresholdBytes, Deflater.BEST_SPEED);
+    }
+
+    @Override
+    public Object encode(Object value) {
+        Object encoded = delegate.encode(value);
+        // a character takes at most three UTF-8 bytes, so shorter strings are below the threshold without encoding them
+        if (!(encoded instanceof String) || ((String) encoded).length() * 3L < thresholdBytes) {
+            return encoded;
+        }
+        byte[] raw = ((String) encoded).getBytes(StandardCharsets.UTF_8);
+        if (raw.length < thresholdBytes) {
+            return encoded;
+        }
+        long startedAt = System.nanoTime();
+        byte[] compressed = deflate(raw);
+        compressNanos.add(System.nanoTime() - startedAt);
+        if (compressed == null) {
+            skippedValues.increment();
+            return encoded;
+        }
+        compressedValues.increment();
+        rawBytes.add(raw.length);
+        storedBytes.add(compressed.length);
+        return compressed;
+    }
+
+    @Override
+    public <T> T decode(Object stored, Class<T> type) {
+        if (!(stored instanceof byte[])) {
+            return delegate.decode(stored, type);
+        }
+        byte[] bytes = (byte[]) stored;
+        if (bytes.length < HEADER || (bytes[0] != DEFLATE && bytes[0] != RAW)) {
+            return delegate.decode(stored, type);
+        }
+        if (bytes[0] == RAW) {
+            return delegate.decode(new String(bytes, HEADER, bytes.length - HEADER, StandardCharsets.UTF_8), type);
+        }
+        long startedAt = System.nanoTime();
+        String json = new String(inflate(bytes), StandardCharsets.UTF_8);
+        decompressNanos.add(System.nanoTime() - startedAt);
+        return delegate.decode(json, type);
+    }
+
+    /**
+     * Registers the counters of this codec as gauges.
+     *
+     * @param metrics The metrics registry.
+     * @param scope   The scope of the gauges, usually the scope of the map.
+     */
+    public void enableMetrics(DatabaseMetrics metrics, String scope) {
+        metrics.gauge(scope, "compression.values", compressedValues::sum);
+        metrics.gauge(scope, "compression.skipped", skippedValues::sum);
+        metrics.gauge(scope, "compression.rawBytes", rawBytes::sum);
+        metrics.gauge(scope, "compression.storedBytes", storedBytes::sum);
+        metrics.gauge(scope, "compression.compressNanos", compressNanos::sum);
+        metrics.gauge(scope, "compression.decompressNanos", decompressNanos::sum);
+    }
+
+    /**
+     * Retrieves the number of values stored compressed.
+     *
+     * @return The number of compressed values.
+     */
+    public long getCompressedValues() {
+        return compressedValues.sum();
+    }
+
+    /**
+     * Retrieves the number of values above the threshold that were stored as plain strings because they did not shrink.
+     *
+     * @return The number of skipped values.
+     */
+    public long getSkippedValues() {
+        return skippedValues.sum();
+    }
+
+    /**
+     * Retrieves the ratio between the uncompressed and the stored size of the compressed values.
+     *
+     * @return The compression ratio, for example 4 if values take a quarter of their size, or 1 if nothing was compressed.
+     */
+    public double getCompressionRatio() {
+        long stored = storedBytes.sum();
+        return stored == 0 ? 1 : (double) rawBytes.sum() / stored;
+    }
+
+    /**
+     * Retrieves the CPU time spent compressing, including the values that were skipped.
+     *
+     * @return The time in nanoseconds.
+     */
+    public long getCompressNanos() {
+        return compressNanos.sum();
+    }
+
+    /**
+     * Retrieves the CPU time spent decompressing.
+     *
+     * @return The time in nanoseconds.
+     */
+    public long getDecompressNanos() {
+        return decompressNanos.sum();
+    }
+
+    /**
+     * Compresses a value into the marker, the uncompressed length and the Deflate data.
+     *
+     * @param raw The UTF-8 bytes of the value.
+     * @return The stored bytes, or null if they would not be smaller than the value.
+     */
+    private byte[] deflate(byte[] raw) {
+        if (raw.length <= HEADER) {
+            return null;
+        }
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        byte[] buffer = new byte[raw.length];
+        buffer[0] = DEFLATE;
+        buffer[1] = (byte) (raw.length >>> 24);
+        buffer[2] = (byte) (raw.length >>> 16);
+        buffer[3] = (byte) (raw.length >>> 8);
+        buffer[4] = (byte) raw.length;
+        int length = HEADER;
+        while (!deflater.finished()) {
+            if (length == buffer.length) {
+                return null;
+            }
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private byte[] inflate(byte[] stored) {
+        int size = (stored[1] & 0xFF) << 24 | (stored[2] & 0xFF) << 16 | (stored[3] & 0xFF) << 8 | stored[4] & 0xFF;
+        byte[] raw = new byte[size];
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(stored, HEADER, stored.length - HEADER);
+        try {
+            int length = 0;
+            while (length < size) {
+                int read = inflater.inflate(raw, length, size - length);
+                if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IllegalStateException("Compressed value is truncated");
+                }
+                length += read;
+            }
+        } catch (DataFormatException exception) {
+            throw new IllegalStateException("Compressed value is corrupt", exception);
+        }
+        return raw;
+    }
+}
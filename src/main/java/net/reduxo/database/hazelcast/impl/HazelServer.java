@@ -1,17 +1,46 @@
 package de.rubymc.hazelcast.impl;
 
-import com.google.gson.Gson;
 import com.hazelcast.client.HazelcastClient;
-import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapStoreConfig;
 import com.hazelcast.core.EntryListener;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.IMap;
+import com.hazelcast.nearcache.NearCacheStats;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
 import com.hazelcast.topic.ITopic;
+import de.rubymc.hazelcast.IMessenger;
 import de.rubymc.hazelcast.IServer;
+import de.rubymc.hazelcast.ListenerHandle;
+import de.rubymc.hazelcast.MessengerOptions;
+import de.rubymc.hazelcast.ServerOptions;
+import de.rubymc.hazelcast.ValueCodec;
+import de.rubymc.metrics.DatabaseMetrics;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Implementation of the {@link IServer} interface using Hazelcast for distributed map operations.
@@ -22,7 +51,14 @@ import java.util.concurrent.TimeUnit;
 public class HazelServer<K, V> implements IServer<K, V> {
 
     private final HazelcastInstance hazelcastInstance;
-    private final Gson gson;
+    private final ServerOptions options;
+    private final Class<V> valueType;
+    private final Map<String, IMap<K, Object>> maps = new ConcurrentHashMap<>();
+    private final ExecutorService listenerThread;
+    private final Executor eventExecutor;
+    private final ListenerRegistry<K, V> listeners;
+    private final List<IMessenger<?>> messengers = new CopyOnWriteArrayList<>();
+    private volatile DatabaseMetrics metrics;
     /**
      * Constructs a new HazelServer with the provided address and cluster name.
      *
@@ -30,11 +66,29 @@ public class HazelServer<K, V> implements IServer<K, V> {
      * @param field   The name of the cluster to join.
      */
     public HazelServer(String address, String field) {
-        ClientConfig clientConfig = new ClientConfig();
-        clientConfig.setClusterName(field);
-        clientConfig.getNetworkConfig().addAddress(address);
-        this.hazelcastInstance = HazelcastClient.newHazelcastClient(clientConfig);
-        this.gson = new Gson();
+        this(address, field, null, ServerOptions.create());
+    }
+
+    /**
+     * Constructs a new HazelServer with the provided address, cluster name, value class and options.
+     *
+     * @param address   The address of the Hazelcast cluster to connect to.
+     * @param field     The name of the cluster to join.
+     * @param valueType The class values are decoded into by {@link #mapGet(String, Object)}, or null to return them as stored.
+     * @param options   The value codecs and serializers.
+     */
+    public HazelServer(String address, String field, Class<V> valueType, ServerOptions options) {
+        this.hazelcastInstance = HazelcastClient.newHazelcastClient(options.clientConfig(address, field));
+        this.options = options;
+        this.valueType = valueType;
+        Executor listenerExecutor = options.getListenerExecutor();
+        this.listenerThread = listenerExecutor == null ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hazelcast-listener-" + field);
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.eventExecutor = listenerExecutor != null ? listenerExecutor : listenerThread;
+        this.listeners = new ListenerRegistry<>(this::map, options::getCodec, valueType, eventExecutor);
     }
 
     /**
@@ -49,6 +103,21 @@ public class HazelServer<K, V> implements IServer<K, V> {
     public static <K, V> HazelServer<K, V> create(String address, String field) {
         return new <K, V>HazelServer<K, V>(address, field);
     }
+
+    /**
+     * Creates a new HazelServer instance with the provided address, cluster name, value class and options.
+     *
+     * @param <K>       The type of keys in the distributed maps.
+     * @param <V>       The type of values in the distributed maps.
+     * @param address   The address of the Hazelcast cluster to connect to.
+     * @param field     The name of the cluster to join.
+     * @param valueType The class values are decoded into by {@link #mapGet(String, Object)}.
+     * @param options   The value codecs and serializers.
+     * @return A new instance of HazelServer with the specified configuration.
+     */
+    public static <K, V> HazelServer<K, V> create(String address, String field, Class<V> valueType, ServerOptions options) {
+        return new HazelServer<>(address, field, valueType, options);
+    }
     /**
      * Checks whether the specified key exists in the map associated with the given field.
      *
@@ -58,7 +127,7 @@ public class HazelServer<K, V> implements IServer<K, V> {
      */
     @Override
     public boolean containsKey(String field, K key) {
-        return hazelcastInstance.getMap(field).containsKey(key);
+        return timed(field, "containsKey", () -> map(field).containsKey(key));
     }
 
     /**
@@ -70,8 +139,9 @@ public class HazelServer<K, V> implements IServer<K, V> {
      */
     @Override
     public void setMap(String field, K key, V value) {
-        IMap<K, V> map = hazelcastInstance.getMap(field);
-        map.put(key, (V) gson.toJson(value));
+        timedRun(field, "setMap", () -> {
+            map(field).put(key, options.getCodec(field).encode(value));
+        });
     }
 
     /**
@@ -84,12 +154,14 @@ public class HazelServer<K, V> implements IServer<K, V> {
      */
     @Override
     public void setCacheMap(String field, K key, V value, int seconds) {
-        IMap<K, V> map = hazelcastInstance.getMap(field);
-        map.put(key, (V) gson.toJson(value), seconds, TimeUnit.SECONDS);
+        timedRun(field, "setCacheMap", () -> {
+            map(field).put(key, options.getCodec(field).encode(value), seconds, TimeUnit.SECONDS);
+        });
     }
 
     /**
      * Sets the value for the given key in the map associated with the specified field with an expiration time and adds an entry listener to receive events related to this entry.
+     * The listener is registered once per map with values included, so passing it with every put does not add registrations.
      *
      * @param field         The name of the map to set the value.
      * @param key           The key for which the value is to be set.
@@ -99,9 +171,10 @@ public class HazelServer<K, V> implements IServer<K, V> {
      */
     @Override
     public void setCacheMap(String field, K key, V value, int seconds, EntryListener<K, V> entryListener) {
-        IMap<K, V> map = hazelcastInstance.getMap(field);
-        map.put(key, (V) gson.toJson(value), seconds, TimeUnit.SECONDS);
-        map.addEntryListener(entryListener, true);
+        timedRun(field, "setCacheMap", () -> {
+            map(field).put(key, options.getCodec(field).encode(value), seconds, TimeUnit.SECONDS);
+            listeners.register(field, null, null, entryListener, true);
+        });
     }
 
     /**
@@ -112,36 +185,237 @@ public class HazelServer<K, V> implements IServer<K, V> {
      */
     @Override
     public void removeMap(String field, K key) {
-        IMap<K, V> map = hazelcastInstance.getMap(field);
-        map.remove(key);
+        timedRun(field, "removeMap", () -> {
+            map(field).remove(key);
+        });
+    }
+
+    /**
+     * Sets all given key-value pairs in the map associated with the specified field. Hazelcast groups the pairs by partition owner,
+     * so the whole map is written in one round trip per member instead of one per key.
+     *
+     * @param field  The name of the map to set the values.
+     * @param values The key-value pairs to be set.
+     */
+    @Override
+    public void setMapAll(String field, Map<K, V> values) {
+        timedRun(field, "setMapAll", () -> map(field).putAll(encode(field, values)));
+    }
+
+    /**
+     * Sets all given key-value pairs in the map associated with the specified field with an expiration time.
+     * The puts are sent without waiting for each other and awaited together.
+     *
+     * @param field   The name of the map to set the values.
+     * @param values  The key-value pairs to be set.
+     * @param seconds The duration in seconds after which each key-value pair will be automatically removed from the map.
+     */
+    @Override
+    public void setCacheMapAll(String field, Map<K, V> values, int seconds) {
+        timedRun(field, "setCacheMapAll", () -> {
+            IMap<K, Object> map = map(field);
+            List<CompletableFuture<?>> puts = new ArrayList<>(values.size());
+            encode(field, values).forEach((key, value) -> puts.add(map.setAsync(key, value, seconds, TimeUnit.SECONDS).toCompletableFuture()));
+            CompletableFuture.allOf(puts.toArray(new CompletableFuture[0])).join();
+        });
+    }
+
+    /**
+     * Retrieves the values associated with the given keys from the map with the specified field, decoded into the value class of this server.
+     * Hazelcast groups the keys by partition owner, so all values are read in one round trip per member.
+     *
+     * @param field The name of the map to retrieve the values.
+     * @param keys  The keys for which the values are to be retrieved.
+     * @return A map of the present keys to their values.
+     */
+    @Override
+    public Map<K, V> mapGetAll(String field, Set<K> keys) {
+        return mapGetAll(field, keys, valueType);
     }
 
     /**
-     * Retrieves the value associated with the given key from the map with the specified field and converts it to the specified class type using Gson (Google's JSON library).
+     * Retrieves the values associated with the given keys from the map with the specified field and decodes them into the specified class.
      *
+     * @param <T>   The type of the values.
+     * @param field The name of the map to retrieve the values.
+     * @param keys  The keys for which the values are to be retrieved.
+     * @param clazz The class type to which the values should be converted.
+     * @return A map of the present keys to their values.
+     */
+    @Override
+    public <T> Map<K, T> mapGetAll(String field, Set<K> keys, Class<T> clazz) {
+        return timed(field, "mapGetAll", () -> {
+            ValueCodec codec = options.getCodec(field);
+            Map<K, T> values = new HashMap<>();
+            map(field).getAll(keys).forEach((key, stored) -> values.put(key, codec.decode(stored, clazz)));
+            return values;
+        });
+    }
+
+    /**
+     * Removes the key-value pairs associated with the given keys from the map with the specified field.
+     * The removals are sent without waiting for each other and awaited together.
+     *
+     * @param field The name of the map to remove the key-value pairs.
+     * @param keys  The keys for which the key-value pairs are to be removed.
+     */
+    @Override
+    public void removeAll(String field, Set<K> keys) {
+        timedRun(field, "removeAll", () -> {
+            IMap<K, Object> map = map(field);
+            List<CompletableFuture<?>> removals = new ArrayList<>(keys.size());
+            keys.forEach(key -> removals.add(map.removeAsync(key).toCompletableFuture()));
+            CompletableFuture.allOf(removals.toArray(new CompletableFuture[0])).join();
+        });
+    }
+
+    /**
+     * Retrieves the value associated with the given key from the map with the specified field and decodes it into the specified class with the codec of the map.
+     *
+     * @param <T>   The type of the value.
      * @param field The name of the map to retrieve the value.
      * @param key   The key for which the value is to be retrieved.
      * @param clazz The class type to which the value should be converted.
      * @return The value associated with the given key, converted to the specified class type.
      */
     @Override
-    public Object mapGet(String field, K key, Class<?> clazz) {
-        IMap<K, V> map = hazelcastInstance.getMap(field);
-        String jsonValue = String.valueOf(map.get(key));
-        return gson.fromJson(jsonValue, clazz);
+    public <T> T mapGet(String field, K key, Class<T> clazz) {
+        return timed(field, "mapGet", () -> options.getCodec(field).decode(map(field).get(key), clazz));
     }
 
     /**
-     * Retrieves the value associated with the given key from the map with the specified field.
+     * Retrieves the value associated with the given key from the map with the specified field, decoded into the value class of this server.
+     * Without a value class the value is returned as stored.
      *
      * @param field The name of the map to retrieve the value.
      * @param key   The key for which the value is to be retrieved.
      * @return The value associated with the given key.
      */
     @Override
-    public Object mapGet(String field, K key) {
-        IMap<K, V> map = hazelcastInstance.getMap(field);
-        return map.get(key);
+    public V mapGet(String field, K key) {
+        return timed(field, "mapGet", () -> options.getCodec(field).decode(map(field).get(key), valueType));
+    }
+
+    /**
+     * Checks asynchronously whether the specified key exists in the map associated with the given field.
+     * IMap has no asynchronous containsKey, so the value is read and checked for presence; Hazelcast maps never hold null values.
+     *
+     * @param field The name of the map to check.
+     * @param key   The key to be checked for existence.
+     * @return A stage completed with true if the key is present in the map, otherwise false.
+     */
+    @Override
+    public CompletionStage<Boolean> containsKeyAsync(String field, K key) {
+        return async(field, "containsKey", () -> map(field).getAsync(key), Objects::nonNull);
+    }
+
+    /**
+     * Sets the value for the given key in the map associated with the specified field asynchronously.
+     *
+     * @param field The name of the map to set the value.
+     * @param key   The key for which the value is to be set.
+     * @param value The value to be set in the map for the given key.
+     * @return A stage completed once the value was set.
+     */
+    @Override
+    public CompletionStage<Void> setMapAsync(String field, K key, V value) {
+        Object encoded = options.getCodec(field).encode(value);
+        return async(field, "setMap", () -> map(field).setAsync(key, encoded), Function.identity());
+    }
+
+    /**
+     * Sets the value for the given key in the map associated with the specified field with an expiration time asynchronously.
+     *
+     * @param field   The name of the map to set the value.
+     * @param key     The key for which the value is to be set.
+     * @param value   The value to be set in the map for the given key.
+     * @param seconds The duration in seconds after which the key-value pair will be automatically removed from the map.
+     * @return A stage completed once the value was set.
+     */
+    @Override
+    public CompletionStage<Void> setCacheMapAsync(String field, K key, V value, int seconds) {
+        Object encoded = options.getCodec(field).encode(value);
+        return async(field, "setCacheMap", () -> map(field).setAsync(key, encoded, seconds, TimeUnit.SECONDS), Function.identity());
+    }
+
+    /**
+     * Removes the key-value pair associated with the given key from the map with the specified field asynchronously.
+     *
+     * @param field The name of the map to remove the key-value pair.
+     * @param key   The key for which the key-value pair is to be removed.
+     * @return A stage completed with true if a pair was removed, otherwise false.
+     */
+    @Override
+    public CompletionStage<Boolean> removeMapAsync(String field, K key) {
+        return async(field, "removeMap", () -> map(field).removeAsync(key), Objects::nonNull);
+    }
+
+    /**
+     * Retrieves the value associated with the given key from the map with the specified field asynchronously, decoded into the value class of this server.
+     *
+     * @param field The name of the map to retrieve the value.
+     * @param key   The key for which the value is to be retrieved.
+     * @return A stage completed with the value associated with the given key.
+     */
+    @Override
+    public CompletionStage<V> mapGetAsync(String field, K key) {
+        return mapGetAsync(field, key, valueType);
+    }
+
+    /**
+     * Retrieves the value associated with the given key from the map with the specified field asynchronously and decodes it into the specified class.
+     *
+     * @param <T>   The type of the value.
+     * @param field The name of the map to retrieve the value.
+     * @param key   The key for which the value is to be retrieved.
+     * @param clazz The class type to which the value should be converted.
+     * @return A stage completed with the value associated with the given key.
+     */
+    @Override
+    public <T> CompletionStage<T> mapGetAsync(String field, K key, Class<T> clazz) {
+        ValueCodec codec = options.getCodec(field);
+        return async(field, "mapGet", () -> map(field).getAsync(key), stored -> codec.decode(stored, clazz));
+    }
+
+    /**
+     * Adds an entry listener for all entries of the map with the specified field, unless it is already registered with the same scope.
+     *
+     * @param field        The name of the map.
+     * @param listener     The entry listener to register.
+     * @param includeValue Whether the events carry the old and new values.
+     * @return The handle of the registration.
+     */
+    @Override
+    public ListenerHandle addEntryListener(String field, EntryListener<K, V> listener, boolean includeValue) {
+        return listeners.register(field, null, null, listener, includeValue);
+    }
+
+    /**
+     * Adds an entry listener for a single key of the map with the specified field, unless it is already registered with the same scope.
+     *
+     * @param field        The name of the map.
+     * @param key          The key to receive the events of.
+     * @param listener     The entry listener to register.
+     * @param includeValue Whether the events carry the old and new values.
+     * @return The handle of the registration.
+     */
+    @Override
+    public ListenerHandle addEntryListener(String field, K key, EntryListener<K, V> listener, boolean includeValue) {
+        return listeners.register(field, Objects.requireNonNull(key, "key"), null, listener, includeValue);
+    }
+
+    /**
+     * Adds an entry listener for the entries of the map with the specified field matching a predicate, unless it is already registered with the same scope.
+     *
+     * @param field        The name of the map.
+     * @param predicate    The predicate the stored entries have to match.
+     * @param listener     The entry listener to register.
+     * @param includeValue Whether the events carry the old and new values.
+     * @return The handle of the registration.
+     */
+    @Override
+    public ListenerHandle addEntryListener(String field, Predicate<K, Object> predicate, EntryListener<K, V> listener, boolean includeValue) {
+        return listeners.register(field, null, Objects.requireNonNull(predicate, "predicate"), listener, includeValue);
     }
 
     /**
@@ -163,8 +437,9 @@ public class HazelServer<K, V> implements IServer<K, V> {
      */
     @Override
     public Set<K> mapKeys(String field) {
-        IMap<K, V> map = hazelcastInstance.getMap(field);
-        return map.keySet();
+        return timed(field, "mapKeys", () -> {
+            return map(field).keySet();
+        });
     }
 
     /**
@@ -175,8 +450,246 @@ public class HazelServer<K, V> implements IServer<K, V> {
      */
     @Override
     public Map<K, V> mapValue(String field) {
-        IMap<K, V> map = hazelcastInstance.getMap(field);
-        return Map.copyOf(map);
+        return timed(field, "mapValue", () -> {
+            ValueCodec codec = options.getCodec(field);
+            Map<K, V> values = new HashMap<>();
+            map(field).forEach((key, stored) -> values.put(key, codec.decode(stored, valueType)));
+            return Collections.unmodifiableMap(values);
+        });
+    }
+
+    /**
+     * Creates a messenger on a classic or reliable topic, whose listeners run on the listener executor unless the options set another one.
+     *
+     * @param <M>     The type of the messages.
+     * @param topic   The name of the topic.
+     * @param type    The class the received messages are decoded into.
+     * @param options The options of the messenger.
+     * @return The created messenger.
+     */
+    @Override
+    public <M> IMessenger<M> messenger(String topic, Class<M> type, MessengerOptions options) {
+        ITopic<Object> hazelcastTopic = options.isReliable() ? hazelcastInstance.getReliableTopic(topic) : hazelcastInstance.getTopic(topic);
+        TopicMessenger<M> messenger = new TopicMessenger<>(hazelcastTopic, type, options, eventExecutor);
+        DatabaseMetrics registry = this.metrics;
+        if (registry != null) {
+            messenger.enableMetrics(registry);
+        }
+        messengers.add(messenger);
+        return messenger;
+    }
+
+    /**
+     * Retrieves the keys of the entries of the map with the specified field matching a predicate, evaluated by the partition owners.
+     *
+     * @param field     The name of the map.
+     * @param predicate The predicate the stored entries have to match.
+     * @return The keys of the matching entries.
+     */
+    @Override
+    public Set<K> mapKeys(String field, Predicate<K, Object> predicate) {
+        return timed(field, "mapKeys", () -> map(field).keySet(predicate));
+    }
+
+    /**
+     * Retrieves the entries of the map with the specified field matching a predicate, decoded into the value class of this server.
+     *
+     * @param field     The name of the map.
+     * @param predicate The predicate the stored entries have to match.
+     * @return The matching entries.
+     */
+    @Override
+    public Map<K, V> mapQuery(String field, Predicate<K, Object> predicate) {
+        return mapQuery(field, predicate, valueType);
+    }
+
+    /**
+     * Retrieves the entries of the map with the specified field matching a predicate and decodes their values into the specified class.
+     *
+     * @param <T>       The type of the values.
+     * @param field     The name of the map.
+     * @param predicate The predicate the stored entries have to match.
+     * @param clazz     The class type to which the values should be converted.
+     * @return The matching entries.
+     */
+    @Override
+    public <T> Map<K, T> mapQuery(String field, Predicate<K, Object> predicate, Class<T> clazz) {
+        return timed(field, "mapQuery", () -> {
+            ValueCodec codec = options.getCodec(field);
+            Map<K, T> values = new HashMap<>();
+            for (Map.Entry<K, Object> entry : map(field).entrySet(predicate)) {
+                values.put(entry.getKey(), codec.decode(entry.getValue(), clazz));
+            }
+            return Collections.unmodifiableMap(values);
+        });
+    }
+
+    /**
+     * Projects the entries of the map with the specified field matching a predicate on the partition owners.
+     *
+     * @param <R>        The type of the projected values.
+     * @param field      The name of the map.
+     * @param projection The projection applied to the stored entries.
+     * @param predicate  The predicate the stored entries have to match.
+     * @return The projected values.
+     */
+    @Override
+    public <R> Collection<R> mapProject(String field, Projection<? super Map.Entry<K, Object>, R> projection, Predicate<K, Object> predicate) {
+        return timed(field, "mapProject", () -> map(field).project(projection, predicate));
+    }
+
+    /**
+     * Iterates over the entries of the map with the specified field matching a predicate through a paging predicate.
+     *
+     * @param field     The name of the map.
+     * @param predicate The predicate the stored entries have to match, or null for all entries.
+     * @param pageSize  The number of entries fetched per page.
+     * @return An iterator over the matching entries, decoded into the value class of this server.
+     */
+    @Override
+    public Iterator<Map.Entry<K, V>> mapIterator(String field, Predicate<K, Object> predicate, int pageSize) {
+        PagingPredicate<K, Object> paging = predicate == null ? Predicates.pagingPredicate(pageSize) : Predicates.pagingPredicate(predicate, pageSize);
+        return new PagingIterator<>(map(field), paging, options.getCodec(field), valueType);
+    }
+
+    /**
+     * Runs an entry processor on the entry of a key of the map with the specified field on the member owning it.
+     *
+     * @param <R>       The result type of the processor.
+     * @param field     The name of the map.
+     * @param key       The key of the entry to process.
+     * @param processor The entry processor, working on the stored value.
+     * @return The result of the processor.
+     */
+    @Override
+    public <R> R executeOnKey(String field, K key, EntryProcessor<K, Object, R> processor) {
+        return timed(field, "executeOnKey", () -> map(field).executeOnKey(key, processor));
+    }
+
+    /**
+     * Runs an entry processor on the entry of a key of the map with the specified field asynchronously.
+     *
+     * @param <R>       The result type of the processor.
+     * @param field     The name of the map.
+     * @param key       The key of the entry to process.
+     * @param processor The entry processor, working on the stored value.
+     * @return A stage completed with the result of the processor on the continuation executor.
+     */
+    @Override
+    public <R> CompletionStage<R> executeOnKeyAsync(String field, K key, EntryProcessor<K, Object, R> processor) {
+        return async(field, "executeOnKey", () -> map(field).submitToKey(key, processor), Function.identity());
+    }
+
+    /**
+     * Runs an entry processor on the entries of a set of keys of the map with the specified field.
+     *
+     * @param <R>       The result type of the processor.
+     * @param field     The name of the map.
+     * @param keys      The keys of the entries to process.
+     * @param processor The entry processor, working on the stored values.
+     * @return The results of the processor by key.
+     */
+    @Override
+    public <R> Map<K, R> executeOnKeys(String field, Set<K> keys, EntryProcessor<K, Object, R> processor) {
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return timed(field, "executeOnKeys", () -> map(field).executeOnKeys(keys, processor));
+    }
+
+    /**
+     * Runs an entry processor on the entries of the map with the specified field matching a predicate.
+     *
+     * @param <R>       The result type of the processor.
+     * @param field     The name of the map.
+     * @param predicate The predicate the stored entries have to match.
+     * @param processor The entry processor, working on the stored values.
+     * @return The results of the processor by key.
+     */
+    @Override
+    public <R> Map<K, R> executeOnEntries(String field, Predicate<K, Object> predicate, EntryProcessor<K, Object, R> processor) {
+        return timed(field, "executeOnEntries", () -> map(field).executeOnEntries(processor, predicate));
+    }
+
+    /**
+     * Adds a map config with the specified MapStore to the cluster. Members reject it if a different config exists for the map.
+     *
+     * @param field  The name of the map.
+     * @param config The MapStore config.
+     */
+    @Override
+    public void mapStore(String field, MapStoreConfig config) {
+        MapConfig mapConfig = new MapConfig(field).setMapStoreConfig(config);
+        options.getIndexes(field).forEach(mapConfig::addIndexConfig);
+        hazelcastInstance.getConfig().addMapConfig(mapConfig);
+    }
+
+    /**
+     * Adds an attribute index to the map with the specified field.
+     *
+     * @param field      The name of the map.
+     * @param type       The index type.
+     * @param attributes The attributes indexed.
+     */
+    @Override
+    public void addIndex(String field, IndexType type, String... attributes) {
+        map(field).addIndex(type, attributes);
+    }
+
+    /**
+     * Retrieves the Near Cache statistics of the map with the specified field.
+     *
+     * @param field The name of the map.
+     * @return The Near Cache statistics, or null if the map has no Near Cache.
+     */
+    public NearCacheStats nearCacheStats(String field) {
+        return map(field).getLocalMapStats().getNearCacheStats();
+    }
+
+    /**
+     * Retrieves the share of reads of the map with the specified field that were answered by its Near Cache.
+     *
+     * @param field The name of the map.
+     * @return The hit ratio between 0 and 1, or 0 if the map has no Near Cache or was not read yet.
+     */
+    @Override
+    public double nearCacheHitRatio(String field) {
+        NearCacheStats stats = nearCacheStats(field);
+        if (stats == null) {
+            return 0;
+        }
+        long lookups = stats.getHits() + stats.getMisses();
+        return lookups == 0 ? 0 : (double) stats.getHits() / lookups;
+    }
+
+    /**
+     * Records the latencies and failures of the map operations in the specified registry, scoped by map name,
+     * together with the hits and misses of every Near Cache, the counters of every compressing codec and the metrics of every messenger.
+     *
+     * @param metrics The metrics registry.
+     */
+    @Override
+    public void enableMetrics(DatabaseMetrics metrics) {
+        this.metrics = metrics;
+        messengers.forEach(messenger -> messenger.enableMetrics(metrics));
+        if (options.getDefaultCodec() instanceof CompressingValueCodec) {
+            ((CompressingValueCodec) options.getDefaultCodec()).enableMetrics(metrics, "codec.default");
+        }
+        for (String field : options.getCodecMaps()) {
+            if (options.getCodec(field) instanceof CompressingValueCodec) {
+                ((CompressingValueCodec) options.getCodec(field)).enableMetrics(metrics, "map." + field);
+            }
+        }
+        for (String field : options.getNearCachedMaps()) {
+            metrics.gauge("map." + field, "nearCache.hits", () -> {
+                NearCacheStats stats = nearCacheStats(field);
+                return stats != null ? stats.getHits() : 0;
+            });
+            metrics.gauge("map." + field, "nearCache.misses", () -> {
+                NearCacheStats stats = nearCacheStats(field);
+                return stats != null ? stats.getMisses() : 0;
+            });
+        }
     }
 
     /**
@@ -184,6 +697,89 @@ public class HazelServer<K, V> implements IServer<K, V> {
      */
     @Override
     public void shutdown() {
+        this.messengers.forEach(IMessenger::close);
         this.hazelcastInstance.shutdown();
+        this.listeners.clear();
+        if (this.listenerThread != null) {
+            this.listenerThread.shutdown();
+        }
+    }
+
+    /**
+     * Retrieves a map with the values in their stored form. The proxies are cached, so that repeated calls skip the proxy lookup,
+     * and the indexes declared in the options are added when a map is used for the first time.
+     *
+     * @param field The name of the map.
+     * @return The map.
+     */
+    private IMap<K, Object> map(String field) {
+        return maps.computeIfAbsent(field, name -> {
+            IMap<K, Object> map = hazelcastInstance.getMap(name);
+            options.getIndexes(name).forEach(map::addIndex);
+            return map;
+        });
+    }
+
+    /**
+     * Encodes all values with the codec of the specified map.
+     *
+     * @param field  The name of the map.
+     * @param values The values to encode.
+     * @return The encoded values.
+     */
+    private Map<K, Object> encode(String field, Map<K, V> values) {
+        ValueCodec codec = options.getCodec(field);
+        Map<K, Object> encoded = new HashMap<>(Math.max(16, (int) (values.size() / 0.75f) + 1));
+        values.forEach((key, value) -> encoded.put(key, codec.encode(value)));
+        return encoded;
+    }
+
+    /**
+     * Runs a map operation, recording its latency if metrics are enabled.
+     *
+     * @param field     The name of the map.
+     * @param operation The name of the operation.
+     * @param action    The operation to run.
+     * @param <T>       The result type of the operation.
+     * @return The result of the operation.
+     */
+    private <T> T timed(String field, String operation, Supplier<T> action) {
+        DatabaseMetrics registry = this.metrics;
+        if (registry == null) {
+            return action.get();
+        }
+        return registry.time("map." + field, operation, action);
+    }
+
+    /**
+     * Starts an asynchronous map operation, recording its latency if metrics are enabled, and completes the returned
+     * stage on the continuation executor so that no callback runs on a Hazelcast thread.
+     *
+     * @param field        The name of the map.
+     * @param operation    The name of the operation.
+     * @param action       The operation to start.
+     * @param continuation The conversion of the result, run on the continuation executor.
+     * @param <S>          The result type of the operation.
+     * @param <T>          The type of the converted result.
+     * @return The stage of the converted result.
+     */
+    private <S, T> CompletionStage<T> async(String field, String operation, Supplier<CompletionStage<S>> action, Function<S, T> continuation) {
+        DatabaseMetrics registry = this.metrics;
+        CompletionStage<S> stage = registry == null ? action.get() : registry.timeAsync("map." + field, operation, action);
+        return stage.thenApplyAsync(continuation, options.getContinuationExecutor());
+    }
+
+    /**
+     * Runs a map operation without a result, recording its latency if metrics are enabled.
+     *
+     * @param field     The name of the map.
+     * @param operation The name of the operation.
+     * @param action    The operation to run.
+     */
+    private void timedRun(String field, String operation, Runnable action) {
+        timed(field, operation, () -> {
+            action.run();
+            return null;
+        });
     }
-}
\ No newline at end of file
+}
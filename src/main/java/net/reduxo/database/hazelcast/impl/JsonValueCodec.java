@@ -0,0 +1,70 @@
+package de.rubymc.hazelcast.impl;
+
+import com.google.gson.Gson;
+import com.hazelcast.core.HazelcastJsonValue;
+import de.rubymc.hazelcast.ValueCodec;
+
+/**
+ * Stores values as JSON strings written by Gson. This is the format maps were always stored in, so it stays
+ * the default and remains readable by servers that have not been updated. A queryable codec stores the JSON as
+ * {@link HazelcastJsonValue} instead, whose attributes predicates, projections and indexes can address.
+ */
+public class JsonValueCodec implements ValueCodec {
+
+    private final Gson gson;
+    private final boolean queryable;
+
+    /**
+     * Constructs a new JsonValueCodec storing JSON strings.
+     *
+     * @param gson The Gson instance writing and reading the JSON.
+     */
+    public JsonValueCodec(Gson gson) {
+        this(gson, false);
+    }
+
+    /**
+     * Constructs a new JsonValueCodec.
+     *
+     * @param gson      The Gson instance writing and reading the JSON.
+     * @param queryable Whether the JSON is stored as {@link HazelcastJsonValue} rather than as a string.
+     */
+    public JsonValueCodec(Gson gson, boolean queryable) {
+        this.gson = gson;
+        this.queryable = queryable;
+    }
+
+    /**
+     * Creates a new JsonValueCodec with a default Gson instance.
+     *
+     * @return The created JsonValueCodec.
+     */
+    public static JsonValueCodec create() {
+        return new JsonValueCodec(new Gson());
+    }
+
+    /**
+     * Creates a new JsonValueCodec with a default Gson instance storing {@link HazelcastJsonValue}s, so that the
+     * cluster can query the attributes of the values. Values already stored as strings are still read.
+     *
+     * @return The created JsonValueCodec.
+     */
+    public static JsonValueCodec queryable() {
+        return new JsonValueCodec(new Gson(), true);
+    }
+
+    @Override
+    public Object encode(Object value) {
+        String json = gson.toJson(value);
+        return queryable ? new HazelcastJsonValue(json) : json;
+    }
+
+    @Override
+    public <T> T decode(Object stored, Class<T> type) {
+        if (stored == null || type == null) {
+            return (T) stored;
+        }
+        // HazelcastJsonValue#toString returns the JSON itself
+        return gson.fromJson(String.valueOf(stored), type);
+    }
+}
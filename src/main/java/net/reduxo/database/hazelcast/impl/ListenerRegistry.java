@@ -0,0 +1,217 @@
+package de.rubymc.hazelcast.impl;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.EntryListener;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.MapEvent;
+import com.hazelcast.query.Predicate;
+import de.rubymc.hazelcast.ListenerHandle;
+import de.rubymc.hazelcast.ValueCodec;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registers each entry listener of a {@link HazelServer} once per map and scope, so that registering the same
+ * listener again returns the existing registration instead of adding another one to the cluster.
+ * Events are decoded with the codec of their map and delivered on the listener executor, never on a Hazelcast thread.
+ *
+ * @param <K> The type of keys in the distributed maps.
+ * @param <V> The type of values in the distributed maps.
+ */
+final class ListenerRegistry<K, V> {
+
+    private static final Logger LOGGER = Logger.getLogger(ListenerRegistry.class.getName());
+
+    private final Function<String, IMap<K, Object>> maps;
+    private final Function<String, ValueCodec> codecs;
+    private final Class<V> valueType;
+    private final Executor executor;
+    private final Map<Registration, Handle> handles = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new ListenerRegistry.
+     *
+     * @param maps      The lookup of the maps by name.
+     * @param codecs    The lookup of the value codecs by map name.
+     * @param valueType The class the event values are decoded into, or null to deliver them as stored.
+     * @param executor  The executor the events are delivered on.
+     */
+    ListenerRegistry(Function<String, IMap<K, Object>> maps, Function<String, ValueCodec> codecs, Class<V> valueType, Executor executor) {
+        this.maps = maps;
+        this.codecs = codecs;
+        this.valueType = valueType;
+        this.executor = executor;
+    }
+
+    /**
+     * Registers a listener unless it is already registered on the map with the same scope.
+     *
+     * @param field        The name of the map.
+     * @param key          The key the events are limited to, or null for all keys.
+     * @param predicate    The predicate the stored entries of the events have to match, or null for all entries.
+     * @param listener     The listener.
+     * @param includeValue Whether the events carry the old and new values.
+     * @return The handle of the registration.
+     */
+    ListenerHandle register(String field, K key, Predicate<K, Object> predicate, EntryListener<K, V> listener, boolean includeValue) {
+        return handles.computeIfAbsent(new Registration(field, key, predicate, listener, includeValue), this::add);
+    }
+
+    /**
+     * Forgets all registrations without removing them from the cluster, which drops them together with the client.
+     */
+    void clear() {
+        handles.clear();
+    }
+
+    private Handle add(Registration registration) {
+        IMap<K, Object> map = maps.apply(registration.field);
+        DecodingListener adapter = new DecodingListener(codecs.apply(registration.field), registration.listener);
+        UUID id;
+        if (registration.key != null && registration.predicate != null) {
+            id = map.addEntryListener(adapter, registration.predicate, registration.key, registration.includeValue);
+        } else if (registration.key != null) {
+            id = map.addEntryListener(adapter, registration.key, registration.includeValue);
+        } else if (registration.predicate != null) {
+            id = map.addEntryListener(adapter, registration.predicate, registration.includeValue);
+        } else {
+            id = map.addEntryListener(adapter, registration.includeValue);
+        }
+        return new Handle(registration, id);
+    }
+
+    private final class Registration {
+
+        private final String field;
+        private final K key;
+        private final Predicate<K, Object> predicate;
+        private final EntryListener<K, V> listener;
+        private final boolean includeValue;
+
+        private Registration(String field, K key, Predicate<K, Object> predicate, EntryListener<K, V> listener, boolean includeValue) {
+            this.field = field;
+            this.key = key;
+            this.predicate = predicate;
+            this.listener = listener;
+            this.includeValue = includeValue;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof ListenerRegistry.Registration)) {
+                return false;
+            }
+            Registration registration = (Registration) other;
+            return listener == registration.listener && includeValue == registration.includeValue
+                    && field.equals(registration.field) && Objects.equals(key, registration.key)
+                    && Objects.equals(predicate, registration.predicate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(field, key, predicate, System.identityHashCode(listener), includeValue);
+        }
+    }
+
+    private final class Handle implements ListenerHandle {
+
+        private final Registration registration;
+        private final UUID id;
+
+        private Handle(Registration registration, UUID id) {
+            this.registration = registration;
+            this.id = id;
+        }
+
+        @Override
+        public String getField() {
+            return registration.field;
+        }
+
+        @Override
+        public boolean isActive() {
+            return handles.get(registration) == this;
+        }
+
+        @Override
+        public void remove() {
+            if (handles.remove(registration, this)) {
+                maps.apply(registration.field).removeEntryListener(id);
+            }
+        }
+    }
+
+    /**
+     * Receives the events with the values in their stored form and hands them to the listener executor,
+     * which decodes them and calls the registered listener.
+     */
+    private final class DecodingListener implements EntryListener<K, Object> {
+
+        private final ValueCodec codec;
+        private final EntryListener<K, V> listener;
+
+        private DecodingListener(ValueCodec codec, EntryListener<K, V> listener) {
+            this.codec = codec;
+            this.listener = listener;
+        }
+
+        @Override
+        public void entryAdded(EntryEvent<K, Object> event) {
+            dispatch(event, listener::entryAdded);
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<K, Object> event) {
+            dispatch(event, listener::entryUpdated);
+        }
+
+        @Override
+        public void entryRemoved(EntryEvent<K, Object> event) {
+            dispatch(event, listener::entryRemoved);
+        }
+
+        @Override
+        public void entryEvicted(EntryEvent<K, Object> event) {
+            dispatch(event, listener::entryEvicted);
+        }
+
+        @Override
+        public void entryExpired(EntryEvent<K, Object> event) {
+            dispatch(event, listener::entryExpired);
+        }
+
+        @Override
+        public void mapCleared(MapEvent event) {
+            deliver(() -> listener.mapCleared(event));
+        }
+
+        @Override
+        public void mapEvicted(MapEvent event) {
+            deliver(() -> listener.mapEvicted(event));
+        }
+
+        private void dispatch(EntryEvent<K, Object> event, Consumer<EntryEvent<K, V>> target) {
+            deliver(() -> target.accept(new EntryEvent<>(event.getSource(), event.getMember(), event.getEventType().getType(),
+                    event.getKey(), codec.decode(event.getOldValue(), valueType), codec.decode(event.getValue(), valueType),
+                    codec.decode(event.getMergingValue(), valueType))));
+        }
+
+        private void deliver(Runnable delivery) {
+            executor.execute(() -> {
+                try {
+                    delivery.run();
+                } catch (RuntimeException exception) {
+                    LOGGER.log(Level.WARNING, "Entry listener " + listener + " failed", exception);
+                }
+            });
+        }
+    }
+}
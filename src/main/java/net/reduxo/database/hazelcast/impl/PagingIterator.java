@@ -0,0 +1,68 @@
+package de.rubymc.hazelcast.impl;
+
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.PagingPredicate;
+import de.rubymc.hazelcast.ValueCodec;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Iterates over the entries of a distributed map matching a predicate one page at a time, so that only the current
+ * page is held on the client. Every page is filtered and sorted by the partition owners. Entries changed while
+ * iterating may be skipped or returned twice, as the pages are queried one after another.
+ *
+ * @param <K> The type of keys in the map.
+ * @param <T> The type the values are decoded into.
+ */
+final class PagingIterator<K, T> implements Iterator<Map.Entry<K, T>> {
+
+    private final IMap<K, Object> map;
+    private final PagingPredicate<K, Object> predicate;
+    private final ValueCodec codec;
+    private final Class<T> type;
+    private Iterator<Map.Entry<K, Object>> page = Collections.emptyIterator();
+    private boolean exhausted;
+
+    /**
+     * Constructs a new PagingIterator.
+     *
+     * @param map       The map to iterate over.
+     * @param predicate The paging predicate selecting the entries and the page size.
+     * @param codec     The codec of the map.
+     * @param type      The class the values are decoded into, or null to return them as stored.
+     */
+    PagingIterator(IMap<K, Object> map, PagingPredicate<K, Object> predicate, ValueCodec codec, Class<T> type) {
+        this.map = map;
+        this.predicate = predicate;
+        this.codec = codec;
+        this.type = type;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext() && !exhausted) {
+            Set<Map.Entry<K, Object>> entries = map.entrySet(predicate);
+            if (entries.size() < predicate.getPageSize()) {
+                exhausted = true;
+            } else {
+                predicate.nextPage();
+            }
+            page = entries.iterator();
+        }
+        return page.hasNext();
+    }
+
+    @Override
+    public Map.Entry<K, T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Map.Entry<K, Object> entry = page.next();
+        return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), codec.decode(entry.getValue(), type));
+    }
+}
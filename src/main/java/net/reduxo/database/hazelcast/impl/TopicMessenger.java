@@ -0,0 +1,289 @@
+package de.rubymc.hazelcast.impl;
+
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import de.rubymc.hazelcast.IMessenger;
+import de.rubymc.hazelcast.ListenerHandle;
+import de.rubymc.hazelcast.MessengerOptions;
+import de.rubymc.hazelcast.ValueCodec;
+import de.rubymc.metrics.DatabaseMetrics;
+import de.rubymc.metrics.OperationMetrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Implementation of the {@link IMessenger} interface on a classic or reliable Hazelcast topic. Batched messengers
+ * queue their messages and send them with one {@code publishAll} request per batch from a dedicated daemon thread,
+ * which keeps them in the order they were published. Received messages are decoded and handed to the listeners on
+ * the executor of the messenger, never on a Hazelcast event thread.
+ *
+ * @param <M> The type of the messages.
+ */
+final class TopicMessenger<M> implements IMessenger<M> {
+
+    private static final Logger LOGGER = Logger.getLogger(TopicMessenger.class.getName());
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+    private final ITopic<Object> topic;
+    private final Class<M> type;
+    private final ValueCodec codec;
+    private final Executor executor;
+    private final int maxBatch;
+    private final ScheduledExecutorService batcher;
+    private final String scope;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final Map<UUID, Handle> handles = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+
+    private List<Object> pending = new ArrayList<>();
+    private List<CompletableFuture<Void>> results = new ArrayList<>();
+    private boolean closed;
+    private volatile DatabaseMetrics metrics;
+
+    /**
+     * Constructs a new TopicMessenger.
+     *
+     * @param topic           The topic the messages are published on.
+     * @param type            The class the received messages are decoded into.
+     * @param options         The codec, batching and executor of the messenger.
+     * @param defaultExecutor The executor the listeners run on if the options set none.
+     */
+    TopicMessenger(ITopic<Object> topic, Class<M> type, MessengerOptions options, Executor defaultExecutor) {
+        this.topic = topic;
+        this.type = type;
+        this.codec = options.getCodec();
+        this.executor = options.getExecutor() != null ? options.getExecutor() : defaultExecutor;
+        this.maxBatch = options.getMaxBatch();
+        this.scope = "topic." + topic.getName();
+        if (options.isBatched()) {
+            this.batcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "hazelcast-messenger-" + topic.getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = options.getBatchIntervalMillis();
+            this.batcher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.batcher = null;
+        }
+    }
+
+    @Override
+    public String getTopic() {
+        return topic.getName();
+    }
+
+    @Override
+    public void publish(M message) {
+        if (batcher != null) {
+            enqueue(message);
+            return;
+        }
+        Object encoded = codec.encode(message);
+        timed("publish", () -> {
+            topic.publish(encoded);
+            return null;
+        });
+        published.increment();
+    }
+
+    @Override
+    public CompletionStage<Void> publishAsync(M message) {
+        if (batcher != null) {
+            return enqueue(message);
+        }
+        List<Object> encoded = new ArrayList<>(1);
+        encoded.add(codec.encode(message));
+        return send(encoded).thenRunAsync(() -> { }, executor);
+    }
+
+    @Override
+    public CompletionStage<Void> publishAll(Collection<? extends M> messages) {
+        List<Object> encoded = new ArrayList<>(messages.size());
+        for (M message : messages) {
+            encoded.add(codec.encode(message));
+        }
+        if (encoded.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return send(encoded).thenRunAsync(() -> { }, executor);
+    }
+
+    @Override
+    public void flush() {
+        List<Object> batch;
+        List<CompletableFuture<Void>> batchResults;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            batchResults = results;
+            pending = new ArrayList<>();
+            results = new ArrayList<>();
+        }
+        CompletionStage<Void> stage;
+        try {
+            stage = send(batch);
+        } catch (RuntimeException exception) {
+            batchResults.forEach(result -> result.completeExceptionally(exception));
+            return;
+        }
+        stage.whenCompleteAsync((ignored, failure) -> {
+            if (failure == null) {
+                batchResults.forEach(result -> result.complete(null));
+            } else {
+                batchResults.forEach(result -> result.completeExceptionally(failure));
+            }
+        }, executor);
+    }
+
+    @Override
+    public ListenerHandle addListener(Consumer<M> listener) {
+        UUID id = topic.addMessageListener(message -> deliver(message, listener));
+        Handle handle = new Handle(id);
+        handles.put(id, handle);
+        return handle;
+    }
+
+    @Override
+    public void enableMetrics(DatabaseMetrics metrics) {
+        this.metrics = metrics;
+        metrics.gauge(scope, "published", published::sum);
+        metrics.gauge(scope, "received", received::sum);
+        metrics.gauge(scope, "pending", () -> {
+            synchronized (lock) {
+                return pending.size();
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        boolean wasClosed;
+        synchronized (lock) {
+            wasClosed = closed;
+            closed = true;
+        }
+        if (batcher == null) {
+            flush();
+        } else if (!wasClosed) {
+            // flushed on the batcher, so that the last batch is sent after the one a scheduled flush may be sending;
+            // no flush can be requested once closed is set, so this is the last task before the shutdown
+            batcher.execute(this::flush);
+            batcher.shutdown();
+            try {
+                if (!batcher.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    LOGGER.warning("Messenger of topic " + topic.getName() + " did not flush within " + CLOSE_TIMEOUT_SECONDS + " seconds");
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        handles.values().forEach(Handle::remove);
+    }
+
+    private CompletableFuture<Void> enqueue(M message) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        Object encoded = codec.encode(message);
+        synchronized (lock) {
+            if (closed) {
+                result.completeExceptionally(new IllegalStateException("Messenger of topic " + topic.getName() + " is closed"));
+                return result;
+            }
+            pending.add(encoded);
+            results.add(result);
+            // requested under the lock, so that close() cannot shut the batcher down in between
+            if (pending.size() >= maxBatch) {
+                batcher.execute(this::flush);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Publishes encoded messages, a single one with {@code publishAsync} and several with one {@code publishAllAsync}.
+     */
+    private CompletionStage<Void> send(List<Object> encoded) {
+        DatabaseMetrics registry = this.metrics;
+        String operation = encoded.size() == 1 ? "publish" : "publishAll";
+        Supplier<CompletionStage<Void>> action = () -> encoded.size() == 1 ? topic.publishAsync(encoded.get(0)) : topic.publishAllAsync(encoded);
+        CompletionStage<Void> stage = registry == null ? action.get() : registry.timeAsync(scope, operation, action);
+        return stage.thenRun(() -> published.add(encoded.size()));
+    }
+
+    /**
+     * Hands a received message to the executor, recording the time until the listener returned.
+     */
+    private void deliver(Message<Object> message, Consumer<M> listener) {
+        received.increment();
+        long receivedAt = System.nanoTime();
+        executor.execute(() -> {
+            DatabaseMetrics registry = this.metrics;
+            OperationMetrics deliveries = registry == null ? null : registry.operation(scope, "deliver");
+            try {
+                listener.accept(codec.decode(message.getMessageObject(), type));
+            } catch (RuntimeException exception) {
+                if (deliveries != null) {
+                    deliveries.failed(false);
+                }
+                LOGGER.log(Level.WARNING, "Listener of topic " + topic.getName() + " failed", exception);
+            } finally {
+                if (deliveries != null) {
+                    deliveries.record(System.nanoTime() - receivedAt);
+                }
+            }
+        });
+    }
+
+    private <T> T timed(String operation, Supplier<T> action) {
+        DatabaseMetrics registry = this.metrics;
+        if (registry == null) {
+            return action.get();
+        }
+        return registry.time(scope, operation, action);
+    }
+
+    private final class Handle implements ListenerHandle {
+
+        private final UUID id;
+
+        private Handle(UUID id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getField() {
+            return topic.getName();
+        }
+
+        @Override
+        public boolean isActive() {
+            return handles.get(id) == this;
+        }
+
+        @Override
+        public void remove() {
+            if (handles.remove(id, this)) {
+                topic.removeMessageListener(id);
+            }
+        }
+    }
+}
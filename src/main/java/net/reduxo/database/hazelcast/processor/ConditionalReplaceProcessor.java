@@ -0,0 +1,67 @@
+package de.rubymc.hazelcast.processor;
+
+import com.google.gson.JsonElement;
+import com.hazelcast.map.EntryProcessor;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Replaces the value of an entry only if it still equals an expected value, on the partition thread of the member
+ * owning the entry. Both values are given in their stored form, as produced by the codec of the map. Values stored as
+ * JSON are compared as parsed JSON, so the order of attributes and the formatting of the JSON do not matter.
+ *
+ * @param <K> The type of keys in the map.
+ */
+public class ConditionalReplaceProcessor<K> implements EntryProcessor<K, Object, Boolean> {
+
+    private final Object expected;
+    private final Object replacement;
+
+    /**
+     * Constructs a new ConditionalReplaceProcessor.
+     *
+     * @param expected    The stored value the entry has to hold, or null to only create absent entries.
+     * @param replacement The stored value to replace it with, or null to remove the entry.
+     */
+    public ConditionalReplaceProcessor(Object expected, Object replacement) {
+        this.expected = expected;
+        this.replacement = replacement;
+    }
+
+    /**
+     * Creates a new ConditionalReplaceProcessor.
+     *
+     * @param <K>         The type of keys in the map.
+     * @param expected    The stored value the entry has to hold, or null to only create absent entries.
+     * @param replacement The stored value to replace it with, or null to remove the entry.
+     * @return The created ConditionalReplaceProcessor.
+     */
+    public static <K> ConditionalReplaceProcessor<K> create(Object expected, Object replacement) {
+        return new ConditionalReplaceProcessor<>(expected, replacement);
+    }
+
+    /**
+     * Replaces the value of the entry if it holds the expected value.
+     *
+     * @param entry The entry to process.
+     * @return True if the value was replaced, otherwise false.
+     */
+    @Override
+    public Boolean process(Map.Entry<K, Object> entry) {
+        if (!matches(entry.getValue(), expected)) {
+            return false;
+        }
+        entry.setValue(replacement);
+        return true;
+    }
+
+    private static boolean matches(Object stored, Object expected) {
+        JsonElement storedJson = JsonEntries.parse(stored);
+        JsonElement expectedJson = JsonEntries.parse(expected);
+        if (storedJson != null && expectedJson != null) {
+            return storedJson.equals(expectedJson);
+        }
+        return Objects.equals(stored, expected);
+    }
+}
@@ -0,0 +1,98 @@
+package de.rubymc.hazelcast.processor;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.hazelcast.map.EntryProcessor;
+
+import java.util.Map;
+
+/**
+ * Sets one attribute of a value stored as JSON on the partition thread of the member owning the entry, so that
+ * only the new attribute value travels over the network and concurrent changes of other attributes are not lost.
+ *
+ * @param <K> The type of keys in the map.
+ */
+public class FieldSetProcessor<K> implements EntryProcessor<K, Object, Boolean> {
+
+    private final String attribute;
+    private final String json;
+
+    /**
+     * Constructs a new FieldSetProcessor.
+     *
+     * @param attribute The dotted path of the attribute to set; missing objects on the path are created.
+     * @param json      The new value of the attribute as JSON, for example written by Gson.
+     */
+    public FieldSetProcessor(String attribute, String json) {
+        this.attribute = attribute;
+        this.json = json;
+    }
+
+    /**
+     * Creates a new FieldSetProcessor setting an attribute to a string, number, boolean or null.
+     *
+     * @param <K>       The type of keys in the map.
+     * @param attribute The dotted path of the attribute to set.
+     * @param value     The new value of the attribute.
+     * @return The created FieldSetProcessor.
+     */
+    public static <K> FieldSetProcessor<K> create(String attribute, Object value) {
+        return new FieldSetProcessor<>(attribute, toJson(value).toString());
+    }
+
+    /**
+     * Creates a new FieldSetProcessor setting an attribute to a JSON value, such as an object or array.
+     *
+     * @param <K>       The type of keys in the map.
+     * @param attribute The dotted path of the attribute to set.
+     * @param json      The new value of the attribute as JSON.
+     * @return The created FieldSetProcessor.
+     */
+    public static <K> FieldSetProcessor<K> json(String attribute, String json) {
+        return new FieldSetProcessor<>(attribute, json);
+    }
+
+    /**
+     * Sets the attribute of the entry.
+     *
+     * @param entry The entry to process.
+     * @return True if the attribute was set, false if the entry does not exist.
+     */
+    @Override
+    public Boolean process(Map.Entry<K, Object> entry) {
+        Object stored = entry.getValue();
+        if (stored == null) {
+            return false;
+        }
+        JsonElement root = JsonEntries.parse(stored);
+        JsonObject parent = root == null ? null : JsonEntries.parent(root, attribute);
+        if (parent == null) {
+            throw new IllegalStateException("Value of " + entry.getKey() + " is not a JSON object with attribute " + attribute);
+        }
+        parent.add(JsonEntries.name(attribute), JsonParser.parseString(json));
+        entry.setValue(JsonEntries.toStored(stored, root));
+        return true;
+    }
+
+    private static JsonElement toJson(Object value) {
+        if (value == null) {
+            return JsonNull.INSTANCE;
+        }
+        if (value instanceof String) {
+            return new JsonPrimitive((String) value);
+        }
+        if (value instanceof Boolean) {
+            return new JsonPrimitive((Boolean) value);
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return new JsonPrimitive(((Number) value).longValue());
+        }
+        if (value instanceof Number) {
+            return new JsonPrimitive(((Number) value).doubleValue());
+        }
+        throw new IllegalArgumentException("Use FieldSetProcessor.json for values of type " + value.getClass().getName());
+    }
+}
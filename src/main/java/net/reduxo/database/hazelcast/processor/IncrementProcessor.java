@@ -0,0 +1,126 @@
+package de.rubymc.hazelcast.processor;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.hazelcast.map.EntryProcessor;
+
+import java.util.Map;
+
+/**
+ * Adds a delta to a number on the partition thread of the member owning the entry, either to a value stored as a
+ * number or to an attribute of a value stored as JSON. A missing attribute counts as 0, like {@code $inc} in MongoDB.
+ * Integral numbers stay integral; as soon as one side has a fraction the sum is a double.
+ *
+ * @param <K> The type of keys in the map.
+ */
+public class IncrementProcessor<K> implements EntryProcessor<K, Object, Number> {
+
+    private final String attribute;
+    private final Number delta;
+
+    /**
+     * Constructs a new IncrementProcessor.
+     *
+     * @param attribute The dotted path of the attribute to increment, or null to increment the value itself.
+     * @param delta     The amount to add.
+     */
+    public IncrementProcessor(String attribute, Number delta) {
+        this.attribute = attribute;
+        this.delta = delta;
+    }
+
+    /**
+     * Creates a new IncrementProcessor for an attribute of a JSON value.
+     *
+     * @param <K>       The type of keys in the map.
+     * @param attribute The dotted path of the attribute to increment.
+     * @param delta     The amount to add.
+     * @return The created IncrementProcessor.
+     */
+    public static <K> IncrementProcessor<K> create(String attribute, Number delta) {
+        return new IncrementProcessor<>(attribute, delta);
+    }
+
+    /**
+     * Creates a new IncrementProcessor for values that are numbers themselves.
+     *
+     * @param <K>   The type of keys in the map.
+     * @param delta The amount to add.
+     * @return The created IncrementProcessor.
+     */
+    public static <K> IncrementProcessor<K> create(Number delta) {
+        return new IncrementProcessor<>(null, delta);
+    }
+
+    /**
+     * Increments the value of the entry.
+     *
+     * @param entry The entry to process.
+     * @return The incremented number, or null if the entry does not exist.
+     */
+    @Override
+    public Number process(Map.Entry<K, Object> entry) {
+        Object stored = entry.getValue();
+        if (stored == null) {
+            return null;
+        }
+        if (attribute == null && stored instanceof Number) {
+            Number result = add((Number) stored, delta);
+            entry.setValue(result);
+            return result;
+        }
+        JsonElement root = JsonEntries.parse(stored);
+        if (root == null) {
+            throw new IllegalStateException("Value of " + entry.getKey() + " is neither a number nor JSON");
+        }
+        Number result;
+        if (attribute == null) {
+            result = add(toNumber(root), delta);
+            entry.setValue(JsonEntries.toStored(stored, toJson(result)));
+            return result;
+        }
+        JsonObject parent = JsonEntries.parent(root, attribute);
+        if (parent == null) {
+            throw new IllegalStateException("Attribute " + attribute + " of " + entry.getKey() + " is not within an object");
+        }
+        JsonElement current = parent.get(JsonEntries.name(attribute));
+        result = current == null || current.isJsonNull() ? delta : add(toNumber(current), delta);
+        parent.add(JsonEntries.name(attribute), toJson(result));
+        entry.setValue(JsonEntries.toStored(stored, root));
+        return result;
+    }
+
+    private static Number toNumber(JsonElement value) {
+        if (!value.isJsonPrimitive() || !value.getAsJsonPrimitive().isNumber()) {
+            throw new IllegalStateException("Cannot increment the non-numeric value " + value);
+        }
+        String text = value.getAsString();
+        if (text.indexOf('.') >= 0 || text.indexOf('e') >= 0 || text.indexOf('E') >= 0) {
+            return Double.parseDouble(text);
+        }
+        return Long.parseLong(text);
+    }
+
+    private static JsonElement toJson(Number number) {
+        return isIntegral(number) ? new JsonPrimitive(number.longValue()) : new JsonPrimitive(number.doubleValue());
+    }
+
+    /**
+     * Adds two numbers, keeping integers as integers while the sum fits.
+     */
+    private static Number add(Number first, Number second) {
+        if (!isIntegral(first) || !isIntegral(second)) {
+            return first.doubleValue() + second.doubleValue();
+        }
+        long sum = Math.addExact(first.longValue(), second.longValue());
+        if (first instanceof Integer && sum == (int) sum) {
+            return (int) sum;
+        }
+        return sum;
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+    }
+}
@@ -0,0 +1,84 @@
+package de.rubymc.hazelcast.processor;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.hazelcast.core.HazelcastJsonValue;
+
+/**
+ * Reads and writes the JSON values stored by {@code JsonValueCodec} inside entry processors. Members parse them
+ * with Gson, the library that wrote them, so Gson has to be on the classpath of the members as well.
+ */
+final class JsonEntries {
+
+    private JsonEntries() {
+    }
+
+    /**
+     * Parses a stored value.
+     *
+     * @param stored The stored value.
+     * @return The parsed JSON, or null if the value is not stored as JSON.
+     */
+    static JsonElement parse(Object stored) {
+        if (stored instanceof String || stored instanceof HazelcastJsonValue) {
+            try {
+                return JsonParser.parseString(stored.toString());
+            } catch (JsonParseException exception) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Converts JSON back into the stored form of the original value.
+     *
+     * @param original The original stored value.
+     * @param value    The new JSON.
+     * @return A {@link HazelcastJsonValue} if the original was one, otherwise a JSON string.
+     */
+    static Object toStored(Object original, JsonElement value) {
+        String json = value.toString();
+        return original instanceof HazelcastJsonValue ? new HazelcastJsonValue(json) : json;
+    }
+
+    /**
+     * Retrieves the object holding the last segment of a dotted attribute path, creating missing objects on the way.
+     *
+     * @param root      The parsed value.
+     * @param attribute The dotted attribute path, for example {@code stats.kills}.
+     * @return The object holding the attribute, or null if the path runs through a value that is not an object.
+     */
+    static JsonObject parent(JsonElement root, String attribute) {
+        if (!root.isJsonObject()) {
+            return null;
+        }
+        JsonObject current = root.getAsJsonObject();
+        String[] segments = attribute.split("\\.");
+        for (int index = 0; index < segments.length - 1; index++) {
+            JsonElement next = current.get(segments[index]);
+            if (next == null || next.isJsonNull()) {
+                JsonObject created = new JsonObject();
+                current.add(segments[index], created);
+                current = created;
+            } else if (next.isJsonObject()) {
+                current = next.getAsJsonObject();
+            } else {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Retrieves the last segment of a dotted attribute path.
+     *
+     * @param attribute The dotted attribute path.
+     * @return The name of the attribute within its parent object.
+     */
+    static String name(String attribute) {
+        return attribute.substring(attribute.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,179 @@
+package de.rubymc.metrics;
+
+import com.hazelcast.core.OperationTimeoutException;
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.MongoSocketReadTimeoutException;
+import com.mongodb.MongoTimeoutException;
+import de.rubymc.mongodb.Pair;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * The registry of the latency histograms, failure counters and gauges of the database layer. Operations are
+ * keyed by their scope, the namespace of a collection or the name of a map, and by the operation name.
+ * A registry is shared by passing it to {@code Database.enableMetrics} and {@code HazelServer.enableMetrics},
+ * and published through {@link #export(MetricsExporter)}.
+ */
+public class DatabaseMetrics {
+
+    private final Map<Pair<String, String>, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final Map<Pair<String, String>, Gauge> gauges = new ConcurrentHashMap<>();
+    private final List<MetricsExporter> exporters = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new, empty DatabaseMetrics registry.
+     *
+     * @return the created DatabaseMetrics object
+     */
+    public static DatabaseMetrics create() {
+        return new DatabaseMetrics();
+    }
+
+    /**
+     * Retrieves the metrics of an operation, creating them on first use.
+     *
+     * @param scope     the scope of the operation
+     * @param operation the name of the operation
+     * @return the metrics of the operation
+     */
+    public OperationMetrics operation(String scope, String operation) {
+        Pair<String, String> key = new Pair<>(scope, operation);
+        OperationMetrics metrics = operations.get(key);
+        if (metrics != null) {
+            return metrics;
+        }
+        return operations.computeIfAbsent(key, created -> {
+            OperationMetrics added = new OperationMetrics(scope, operation);
+            exporters.forEach(exporter -> exporter.operationAdded(added));
+            return added;
+        });
+    }
+
+    /**
+     * Registers a gauge, unless one with the same scope and name exists.
+     *
+     * @param scope the scope of the gauge
+     * @param name  the name of the gauge
+     * @param value the supplier sampled whenever the gauge is read
+     */
+    public void gauge(String scope, String name, LongSupplier value) {
+        gauges.computeIfAbsent(new Pair<>(scope, name), created -> {
+            Gauge added = new Gauge(scope, name, value);
+            exporters.forEach(exporter -> exporter.gaugeAdded(added));
+            return added;
+        });
+    }
+
+    /**
+     * Runs an operation, recording its latency and whether it failed or timed out.
+     *
+     * @param scope     the scope of the operation
+     * @param operation the name of the operation
+     * @param action    the operation to run
+     * @param <T>       the result type of the operation
+     * @return the result of the operation
+     */
+    public <T> T time(String scope, String operation, Supplier<T> action) {
+        OperationMetrics metrics = operation(scope, operation);
+        long startedAt = System.nanoTime();
+        try {
+            return action.get();
+        } catch (RuntimeException exception) {
+            metrics.failed(isTimeout(exception));
+            throw exception;
+        } finally {
+            metrics.record(System.nanoTime() - startedAt);
+        }
+    }
+
+    /**
+     * Starts an asynchronous operation, recording its latency and whether it failed or timed out once it completes.
+     *
+     * @param scope     the scope of the operation
+     * @param operation the name of the operation
+     * @param action    the operation to start
+     * @param <T>       the result type of the operation
+     * @return the stage of the operation
+     */
+    public <T> CompletionStage<T> timeAsync(String scope, String operation, Supplier<? extends CompletionStage<T>> action) {
+        OperationMetrics metrics = operation(scope, operation);
+        long startedAt = System.nanoTime();
+        CompletionStage<T> stage;
+        try {
+            stage = action.get();
+        } catch (RuntimeException exception) {
+            metrics.record(System.nanoTime() - startedAt);
+            metrics.failed(isTimeout(exception));
+            throw exception;
+        }
+        return stage.whenComplete((result, failure) -> {
+            metrics.record(System.nanoTime() - startedAt);
+            if (failure != null) {
+                metrics.failed(isTimeout(failure));
+            }
+        });
+    }
+
+    /**
+     * Publishes all existing and future metrics of this registry through the exporter.
+     *
+     * @param exporter the exporter
+     */
+    public void export(MetricsExporter exporter) {
+        exporters.add(exporter);
+        operations.values().forEach(exporter::operationAdded);
+        gauges.values().forEach(exporter::gaugeAdded);
+    }
+
+    /**
+     * Retrieves all operations recorded so far.
+     *
+     * @return an unmodifiable collection of the operation metrics
+     */
+    public Collection<OperationMetrics> getOperations() {
+        return Collections.unmodifiableCollection(operations.values());
+    }
+
+    /**
+     * Retrieves all registered gauges.
+     *
+     * @return an unmodifiable collection of the gauges
+     */
+    public Collection<Gauge> getGauges() {
+        return Collections.unmodifiableCollection(gauges.values());
+    }
+
+    /**
+     * Closes all exporters of this registry.
+     */
+    public void close() {
+        exporters.forEach(MetricsExporter::close);
+        exporters.clear();
+    }
+
+    /**
+     * Checks whether a failure is a timeout of MongoDB, of Hazelcast or of a future, looking through its causes.
+     */
+    private static boolean isTimeout(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoTimeoutException || cause instanceof MongoExecutionTimeoutException
+                    || cause instanceof MongoSocketReadTimeoutException || cause instanceof OperationTimeoutException
+                    || cause instanceof TimeoutException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+package de.rubymc.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A value sampled whenever it is read, such as the depth of a queue.
+ */
+public final class Gauge implements GaugeMXBean {
+
+    private final String scope;
+    private final String name;
+    private final LongSupplier value;
+
+    Gauge(String scope, String name, LongSupplier value) {
+        this.scope = scope;
+        this.name = name;
+        this.value = value;
+    }
+
+    /**
+     * Retrieves the scope of the gauge, such as the namespace of a collection.
+     *
+     * @return the scope
+     */
+    @Override
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * Retrieves the name of the gauge.
+     *
+     * @return the name
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Samples the current value of the gauge.
+     *
+     * @return the current value
+     */
+    @Override
+    public long getValue() {
+        return value.getAsLong();
+    }
+}
@@ -0,0 +1,13 @@
+package de.rubymc.metrics;
+
+/**
+ * The management interface of {@link Gauge}.
+ */
+public interface GaugeMXBean {
+
+    String getScope();
+
+    String getName();
+
+    long getValue();
+}
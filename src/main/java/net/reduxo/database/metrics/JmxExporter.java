@@ -0,0 +1,82 @@
+package de.rubymc.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registers every operation and gauge as an MXBean, named
+ * {@code <domain>:type=Operation,scope=<scope>,name=<operation>} and {@code <domain>:type=Gauge,scope=<scope>,name=<gauge>}.
+ */
+public class JmxExporter implements MetricsExporter {
+
+    private static final Logger LOGGER = Logger.getLogger(JmxExporter.class.getName());
+
+    private final MBeanServer server;
+    private final String domain;
+    private final List<ObjectName> registered = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs a new JmxExporter.
+     *
+     * @param server the MBean server the metrics are registered with
+     * @param domain the domain of the object names
+     */
+    public JmxExporter(MBeanServer server, String domain) {
+        this.server = server;
+        this.domain = domain;
+    }
+
+    /**
+     * Creates a new JmxExporter registering with the platform MBean server under the domain {@code de.rubymc.metrics}.
+     *
+     * @return the created JmxExporter object
+     */
+    public static JmxExporter create() {
+        return new JmxExporter(ManagementFactory.getPlatformMBeanServer(), "de.rubymc.metrics");
+    }
+
+    @Override
+    public void operationAdded(OperationMetrics operation) {
+        register("Operation", operation.getScope(), operation.getOperation(), operation);
+    }
+
+    @Override
+    public void gaugeAdded(Gauge gauge) {
+        register("Gauge", gauge.getScope(), gauge.getName(), gauge);
+    }
+
+    /**
+     * Unregisters all metrics registered by this exporter.
+     */
+    @Override
+    public void close() {
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException exception) {
+                LOGGER.log(Level.FINE, "Could not unregister " + name, exception);
+            }
+        }
+        registered.clear();
+    }
+
+    private void register(String type, String scope, String name, Object bean) {
+        try {
+            ObjectName objectName = new ObjectName(domain + ":type=" + type
+                    + ",scope=" + ObjectName.quote(scope) + ",name=" + ObjectName.quote(name));
+            server.registerMBean(bean, objectName);
+            registered.add(objectName);
+        } catch (InstanceAlreadyExistsException exception) {
+            LOGGER.fine("Metric " + scope + "/" + name + " is already registered");
+        } catch (JMException exception) {
+            LOGGER.log(Level.WARNING, "Could not register metric " + scope + "/" + name, exception);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package de.rubymc.metrics;
+
+/**
+ * Publishes the metrics of a {@link DatabaseMetrics} registry to a monitoring system. An exporter is told about
+ * every operation and gauge once, when it is added to the registry or when the metric is created afterwards,
+ * and reads their values whenever the monitoring system asks for them.
+ */
+public interface MetricsExporter {
+
+    /**
+     * Called once for every operation of the registry.
+     *
+     * @param operation the metrics of the operation
+     */
+    void operationAdded(OperationMetrics operation);
+
+    /**
+     * Called once for every gauge of the registry.
+     *
+     * @param gauge the gauge
+     */
+    void gaugeAdded(Gauge gauge);
+
+    /**
+     * Stops publishing the metrics.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,153 @@
+package de.rubymc.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latency histogram and failure counters of one operation type in one scope. Latencies are recorded
+ * wait-free into an HdrHistogram {@link Recorder} and only merged into the cumulative histogram when read,
+ * so recording adds no locking to the measured operation.
+ */
+public final class OperationMetrics implements OperationMetricsMXBean {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String scope;
+    private final String operation;
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    private Histogram interval;
+
+    OperationMetrics(String scope, String operation) {
+        this.scope = scope;
+        this.operation = operation;
+    }
+
+    /**
+     * Records the latency of one execution.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        recorder.recordValue(Math.max(0, nanos));
+    }
+
+    /**
+     * Counts a failed execution.
+     *
+     * @param timeout whether the execution failed because it timed out
+     */
+    public void failed(boolean timeout) {
+        if (timeout) {
+            timeouts.increment();
+        } else {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Retrieves a copy of the latency histogram of all executions since the last reset, in nanoseconds.
+     *
+     * @return the latency histogram
+     */
+    public synchronized Histogram snapshot() {
+        drain();
+        return total.copy();
+    }
+
+    /**
+     * Retrieves the scope of the operation, such as the namespace of a collection or the name of a map.
+     *
+     * @return the scope
+     */
+    @Override
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * Retrieves the name of the operation.
+     *
+     * @return the operation
+     */
+    @Override
+    public String getOperation() {
+        return operation;
+    }
+
+    @Override
+    public synchronized long getCount() {
+        drain();
+        return total.getTotalCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public synchronized double getMeanMicros() {
+        drain();
+        return total.getMean() / TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    @Override
+    public double get50thPercentileMicros() {
+        return getPercentileMicros(50);
+    }
+
+    @Override
+    public double get99thPercentileMicros() {
+        return getPercentileMicros(99);
+    }
+
+    @Override
+    public double get999thPercentileMicros() {
+        return getPercentileMicros(99.9);
+    }
+
+    @Override
+    public synchronized double getMaxMicros() {
+        drain();
+        return (double) total.getMaxValue() / TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    /**
+     * Retrieves a latency percentile of all executions since the last reset.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the latency at the percentile in microseconds
+     */
+    public synchronized double getPercentileMicros(double percentile) {
+        drain();
+        return (double) total.getValueAtPercentile(percentile) / TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    /**
+     * Clears the histogram and the counters, for example after each scrape of an exporter that reports intervals.
+     */
+    @Override
+    public synchronized void reset() {
+        drain();
+        total.reset();
+        errors.reset();
+        timeouts.reset();
+    }
+
+    private void drain() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+    }
+}
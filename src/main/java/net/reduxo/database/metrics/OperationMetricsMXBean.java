@@ -0,0 +1,29 @@
+package de.rubymc.metrics;
+
+/**
+ * The management interface of {@link OperationMetrics}. Latencies are reported in microseconds.
+ */
+public interface OperationMetricsMXBean {
+
+    String getScope();
+
+    String getOperation();
+
+    long getCount();
+
+    long getErrors();
+
+    long getTimeouts();
+
+    double getMeanMicros();
+
+    double get50thPercentileMicros();
+
+    double get99thPercentileMicros();
+
+    double get999thPercentileMicros();
+
+    double getMaxMicros();
+
+    void reset();
+}
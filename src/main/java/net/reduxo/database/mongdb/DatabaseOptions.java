@@ -0,0 +1,243 @@
+package de.rubymc.mongodb;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.codecs.pojo.PojoCodecProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
+import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
+
+/**
+ * Tuning options for a {@code Database}: the connection pool, wire compression and socket timeouts of the
+ * underlying MongoClient, the size of the shared async executor and the pool warm-up on connect.
+ * Options that are not set keep the driver defaults.
+ */
+public class DatabaseOptions {
+
+    private int asyncThreads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private Integer minPoolSize;
+    private Integer maxPoolSize;
+    private Long maxWaitTimeMillis;
+    private Integer maxWaitQueueSize;
+    private Long connectTimeoutMillis;
+    private Long readTimeoutMillis;
+    private Long serverSelectionTimeoutMillis;
+    private final List<MongoCompressor> compressors = new ArrayList<>();
+    private final List<Consumer<MongoClientSettings.Builder>> customizers = new ArrayList<>();
+    private boolean warmUp;
+    private CodecRegistry codecRegistry = fromRegistries(MongoClientSettings.getDefaultCodecRegistry(),
+            fromProviders(PojoCodecProvider.builder().automatic(true).build()));
+
+    /**
+     * Creates a new DatabaseOptions object with the driver defaults.
+     *
+     * @return the created DatabaseOptions object
+     */
+    public static DatabaseOptions create() {
+        return new DatabaseOptions();
+    }
+
+    /**
+     * Sets the maximum number of threads running asynchronous collection operations.
+     *
+     * @param asyncThreads the number of threads
+     * @return this DatabaseOptions object
+     */
+    public DatabaseOptions asyncThreads(int asyncThreads) {
+        if (asyncThreads < 1) {
+            throw new IllegalArgumentException("asyncThreads must be at least 1");
+        }
+        this.asyncThreads = asyncThreads;
+        return this;
+    }
+
+    /**
+     * Sets the minimum and maximum number of pooled connections per server.
+     *
+     * @param minPoolSize the number of connections kept open even when idle
+     * @param maxPoolSize the maximum number of connections
+     * @return this DatabaseOptions object
+     */
+    public DatabaseOptions poolSize(int minPoolSize, int maxPoolSize) {
+        if (minPoolSize < 0 || maxPoolSize < 1 || minPoolSize > maxPoolSize) {
+            throw new IllegalArgumentException("Invalid pool size " + minPoolSize + ".." + maxPoolSize);
+        }
+        this.minPoolSize = minPoolSize;
+        this.maxPoolSize = maxPoolSize;
+        return this;
+    }
+
+    /**
+     * Sets how long an operation waits for a pooled connection, and how many operations may wait at once.
+     *
+     * @param maxWaitTime      the maximum time to wait for a connection
+     * @param unit             the time unit of the wait time
+     * @param maxWaitQueueSize the maximum number of waiting operations
+     * @return this DatabaseOptions object
+     */
+    public DatabaseOptions waitQueue(long maxWaitTime, TimeUnit unit, int maxWaitQueueSize) {
+        this.maxWaitTimeMillis = unit.toMillis(maxWaitTime);
+        this.maxWaitQueueSize = maxWaitQueueSize;
+        return this;
+    }
+
+    /**
+     * Sets the compressors offered to the server, in order of preference. Zstandard and Snappy require
+     * {@code com.github.luben:zstd-jni} or {@code org.xerial.snappy:snappy-java} on the classpath.
+     *
+     * @param compressors the compressors, for example {@code MongoCompressor.createZstdCompressor()}
+     * @return this DatabaseOptions object
+     */
+    public DatabaseOptions compression(MongoCompressor... compressors) {
+        this.compressors.clear();
+        this.compressors.addAll(Arrays.asList(compressors));
+        return this;
+    }
+
+    /**
+     * Sets the socket timeouts.
+     *
+     * @param connectTimeout the maximum time to establish a connection
+     * @param readTimeout    the maximum time to wait for a response, 0 for no limit
+     * @param unit           the time unit of the timeouts
+     * @return this DatabaseOptions object
+     */
+    public DatabaseOptions socketTimeouts(long connectTimeout, long readTimeout, TimeUnit unit) {
+        this.connectTimeoutMillis = unit.toMillis(connectTimeout);
+        this.readTimeoutMillis = unit.toMillis(readTimeout);
+        return this;
+    }
+
+    /**
+     * Sets how long an operation waits for a suitable server to become available.
+     *
+     * @param timeout the maximum time to select a server
+     * @param unit    the time unit of the timeout
+     * @return this DatabaseOptions object
+     */
+    public DatabaseOptions serverSelectionTimeout(long timeout, TimeUnit unit) {
+        this.serverSelectionTimeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    /**
+     * Sets whether connecting opens the minimum number of pooled connections up front, so that the first
+     * requests after startup do not pay for the connection setup.
+     *
+     * @param warmUp whether to warm up the pool
+     * @return this DatabaseOptions object
+     */
+    public DatabaseOptions warmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+        return this;
+    }
+
+    /**
+     * Sets the codec registry typed collections decode their documents with. By default the driver codecs are
+     * combined with an automatic POJO codec provider, which maps any class with a public no-argument constructor
+     * and getters and setters or public fields.
+     *
+     * @param codecRegistry the codec registry
+     * @return this DatabaseOptions object
+     */
+    public DatabaseOptions codecRegistry(CodecRegistry codecRegistry) {
+        this.codecRegistry = codecRegistry;
+        return this;
+    }
+
+    /**
+     * Adds a customizer for settings not covered by these options. Customizers run after all other options were applied.
+     *
+     * @param customizer the customizer of the settings builder
+     * @return this DatabaseOptions object
+     */
+    public DatabaseOptions configure(Consumer<MongoClientSettings.Builder> customizer) {
+        this.customizers.add(customizer);
+        return this;
+    }
+
+    /**
+     * Retrieves the maximum number of threads running asynchronous collection operations.
+     *
+     * @return the number of threads
+     */
+    public int getAsyncThreads() {
+        return asyncThreads;
+    }
+
+    /**
+     * Retrieves the number of pooled connections kept open even when idle.
+     *
+     * @return the minimum pool size, or 0 if it is not set
+     */
+    public int getMinPoolSize() {
+        return minPoolSize != null ? minPoolSize : 0;
+    }
+
+    /**
+     * Retrieves whether connecting warms up the pool.
+     *
+     * @return true if the pool is warmed up, false otherwise
+     */
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    /**
+     * Retrieves the codec registry typed collections decode their documents with.
+     *
+     * @return the codec registry
+     */
+    public CodecRegistry getCodecRegistry() {
+        return codecRegistry;
+    }
+
+    /**
+     * Builds the settings of the MongoClient.
+     *
+     * @param connectionString the connection string the settings start from
+     * @return the built settings
+     */
+    @SuppressWarnings("deprecation")
+    public MongoClientSettings settings(ConnectionString connectionString) {
+        MongoClientSettings.Builder builder = MongoClientSettings.builder().applyConnectionString(connectionString);
+        builder.applyToConnectionPoolSettings(pool -> {
+            if (minPoolSize != null) {
+                pool.minSize(minPoolSize);
+            }
+            if (maxPoolSize != null) {
+                pool.maxSize(maxPoolSize);
+            }
+            if (maxWaitTimeMillis != null) {
+                pool.maxWaitTime(maxWaitTimeMillis, TimeUnit.MILLISECONDS);
+            }
+            if (maxWaitQueueSize != null) {
+                pool.maxWaitQueueSize(maxWaitQueueSize);
+            }
+        });
+        builder.applyToSocketSettings(socket -> {
+            if (connectTimeoutMillis != null) {
+                socket.connectTimeout(connectTimeoutMillis.intValue(), TimeUnit.MILLISECONDS);
+            }
+            if (readTimeoutMillis != null) {
+                socket.readTimeout(readTimeoutMillis.intValue(), TimeUnit.MILLISECONDS);
+            }
+        });
+        if (serverSelectionTimeoutMillis != null) {
+            builder.applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(serverSelectionTimeoutMillis, TimeUnit.MILLISECONDS));
+        }
+        if (!compressors.isEmpty()) {
+            builder.compressorList(compressors);
+        }
+        customizers.forEach(customizer -> customizer.accept(builder));
+        return builder.build();
+    }
+}
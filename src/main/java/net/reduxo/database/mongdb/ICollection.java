@@ -1,11 +1,20 @@
 package de.rubymc.mongodb;
 
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexModel;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.mongodb.client.model.Projections.excludeId;
+import static com.mongodb.client.model.Projections.fields;
+import static com.mongodb.client.model.Projections.include;
 
 /**
 
@@ -13,6 +22,17 @@ import java.util.function.Consumer;
  */
 public interface ICollection {
 
+    /**
+
+     Creates a projection that returns only the specified fields and excludes the _id field. If an index contains the filtered
+     or sorted key and all of these fields, MongoDB answers the query from the index alone without fetching any document.
+     @param fieldNames The fields to return.
+     @return The projection.
+     */
+    static Bson covered(final String... fieldNames) {
+        return fields(include(fieldNames), excludeId());
+    }
+
     /**
 
      Creates a new document in the collection.
@@ -23,8 +43,16 @@ public interface ICollection {
 
      Creates a new document in the collection asynchronously.
      @param document The document to create.
+     @return A future completed with true if the insert succeeded, false otherwise.
+     */
+    CompletableFuture<Boolean> createDocumentAsync(final Document document);
+    /**
+
+     Creates a new document in the collection asynchronously and reports whether the insert succeeded.
+     @param document The document to create.
+     @param consumer The consumer to handle the result of the insert.
      */
-    void createDocumentAsync(final Document document);
+    void createDocumentAsync(final Document document, Consumer<Boolean> consumer);
     /**
 
      Deletes a document from the collection based on the specified key-value pair.
@@ -38,8 +66,17 @@ public interface ICollection {
      Deletes a document from the collection asynchronously based on the specified key-value pair.
      @param key The key to match.
      @param value The value to match.
+     @return A future completed with true if the deletion succeeded, false otherwise.
      */
-    void deleteDocumentAsync(final String key, final Object value);
+    CompletableFuture<Boolean> deleteDocumentAsync(final String key, final Object value);
+    /**
+
+     Deletes a document from the collection asynchronously based on the specified key-value pair and reports whether the deletion succeeded.
+     @param key The key to match.
+     @param value The value to match.
+     @param consumer The consumer to handle the result of the deletion.
+     */
+    void deleteDocumentAsync(final String key, final Object value, Consumer<Boolean> consumer);
     /**
 
      Retrieves a document from the collection based on the specified key-value pair.
@@ -48,6 +85,14 @@ public interface ICollection {
      @return The retrieved document, or null if no matching document is found.
      */
     Document getDocument(final String key, final Object value);
+    /**
+
+     Retrieves a document from the collection asynchronously based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @return A future completed with the retrieved document, or null if no matching document is found.
+     */
+    CompletableFuture<Document> getDocumentAsync(final String key, final Object value);
     /**
 
      Retrieves a document from the collection asynchronously based on the specified key-value pair.
@@ -56,6 +101,24 @@ public interface ICollection {
      @param consumer The consumer to handle the retrieved document.
      */
     void getDocumentAsync(final String key, final Object value, Consumer<Document> consumer);
+    /**
+
+     Retrieves the projected fields of a document from the collection based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @param projection The projection applied to the document, for example one created by covered.
+     @return The projected document, or null if no matching document is found.
+     */
+    Document getDocument(final String key, final Object value, final Bson projection);
+    /**
+
+     Retrieves the projected fields of a document from the collection asynchronously based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @param projection The projection applied to the document, for example one created by covered.
+     @return A future completed with the projected document, or null if no matching document is found.
+     */
+    CompletableFuture<Document> getDocumentAsync(final String key, final Object value, final Bson projection);
     /**
 
      Retrieves two documents from the collection based on the specified key-value pairs.
@@ -66,18 +129,98 @@ public interface ICollection {
      @return A Pair containing the two retrieved documents.
      */
     Pair<Document, Document> getDocuments(final String firstKey, final Object firstValue, final String secondKey, final Object secondValue);
+    /**
+
+     Retrieves two documents from the collection asynchronously based on the specified key-value pairs.
+     @param firstKey The key to match for the first document.
+     @param firstValue The value to match for the first document.
+     @param secondKey The key to match for the second document.
+     @param secondValue The value to match for the second document.
+     @return A future completed with a Pair containing the two retrieved documents.
+     */
+    CompletableFuture<Pair<Document, Document>> getDocumentsAsync(final String firstKey, final Object firstValue, final String secondKey, final Object secondValue);
+    /**
+
+     Retrieves all documents whose key matches one of the specified values with a single query.
+     @param key The key to match.
+     @param values The values to match.
+     @return A list of the retrieved documents.
+     */
+    List<Document> getDocuments(final String key, final Collection<?> values);
+    /**
+
+     Retrieves all documents whose key matches one of the specified values with a single query asynchronously.
+     @param key The key to match.
+     @param values The values to match.
+     @return A future completed with a list of the retrieved documents.
+     */
+    CompletableFuture<List<Document>> getDocumentsAsync(final String key, final Collection<?> values);
     /**
 
      Retrieves all documents in the collection.
      @return A list of all documents in the collection.
      */
     List<Document> collection();
+    /**
+
+     Retrieves all documents in the collection asynchronously.
+     @return A future completed with a list of all documents in the collection.
+     */
+    CompletableFuture<List<Document>> collectionAsync();
+    /**
+
+     Retrieves the projected fields of all documents in the collection.
+     @param projection The projection applied to every document.
+     @return A list of all projected documents in the collection.
+     */
+    List<Document> collection(final Bson projection);
+    /**
+
+     Retrieves the projected fields of all documents in the collection asynchronously.
+     @param projection The projection applied to every document.
+     @return A future completed with a list of all projected documents in the collection.
+     */
+    CompletableFuture<List<Document>> collectionAsync(final Bson projection);
+    /**
+
+     Streams all documents in the collection through a driver cursor instead of loading them onto the heap.
+     The stream must be closed to release the cursor.
+     @return A stream of all documents in the collection.
+     */
+    Stream<Document> stream();
+    /**
+
+     Streams the matching documents through a driver cursor instead of loading them onto the heap.
+     The stream must be closed to release the cursor.
+     @param filter The filter the documents have to match, or null for all documents.
+     @param projection The projection applied to every document, or null for whole documents.
+     @param batchSize The number of documents fetched per round trip.
+     @return A stream of the matching documents.
+     */
+    Stream<Document> stream(Bson filter, Bson projection, int batchSize);
+    /**
+
+     Streams the matching documents in parallel. The collection is split into _id ranges taken from a random sample
+     of the _id values, each read through its own cursor. The stream must be closed to release the cursors.
+     @param filter The filter the documents have to match, or null for all documents.
+     @param projection The projection applied to every document, or null for whole documents.
+     @param batchSize The number of documents fetched per round trip.
+     @param chunks The number of _id ranges the collection is split into.
+     @return A parallel stream of the matching documents.
+     */
+    Stream<Document> parallelStream(Bson filter, Bson projection, int batchSize, int chunks);
     /**
 
      Retrieves the underlying MongoCollection instance.
      @return The MongoCollection instance.
      */
     MongoCollection<Document> mongoCollection();
+    /**
+
+     Creates the specified indexes unless they already exist, including compound and sort-direction indexes.
+     @param indexes The indexes to create.
+     */
+    void ensureIndexes(IndexModel... indexes);
     /**
 
      Updates a document in the collection based on the specified key-value pair.
@@ -86,6 +229,24 @@ public interface ICollection {
      @param document The updated document.
      */
     void updateDocument(final String key, final Object value, final Document document);
+    /**
+
+     Updates a document in the collection asynchronously based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @param document The updated document.
+     @return A future completed with true if the update succeeded, false otherwise.
+     */
+    CompletableFuture<Boolean> updateDocumentAsync(final String key, final Object value, final Document document);
+    /**
+
+     Updates a document in the collection asynchronously based on the specified key-value pair and reports whether the update succeeded.
+     @param key The key to match.
+     @param value The value to match.
+     @param document The updated document.
+     @param consumer The consumer to handle the result of the update.
+     */
+    void updateDocumentAsync(final String key, final Object value, final Document document, Consumer<Boolean> consumer);
     /**
 
      Updates a specific element within a document in the collection based on the specified key-value pair.
@@ -95,6 +256,56 @@ public interface ICollection {
      @param updateValue The new value of the element.
      */
     void updateElement(final String key, final Object value, String updateKey, Object updateValue);
+    /**
+
+     Updates a specific element within a document in the collection asynchronously.
+     @param key The key to match.
+     @param value The value to match.
+     @param updateKey The key of the element to update.
+     @param updateValue The new value of the element.
+     @return A future completed with true if the update succeeded, false otherwise.
+     */
+    CompletableFuture<Boolean> updateElementAsync(final String key, final Object value, String updateKey, Object updateValue);
+    /**
+
+     Updates a specific element within a document in the collection asynchronously and reports whether the update succeeded.
+     @param key The key to match.
+     @param value The value to match.
+     @param updateKey The key of the element to update.
+     @param updateValue The new value of the element.
+     @param consumer The consumer to handle the result of the update.
+     */
+    void updateElementAsync(final String key, final Object value, String updateKey, Object updateValue, Consumer<Boolean> consumer);
+    /**
+
+     Atomically increments a numeric element within a document in the collection based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @param updateKey The key of the element to increment.
+     @param delta The amount to add, which may be negative.
+     @return True if a document was matched, false otherwise.
+     */
+    boolean increment(final String key, final Object value, String updateKey, Number delta);
+    /**
+
+     Atomically increments a numeric element within a document in the collection asynchronously.
+     @param key The key to match.
+     @param value The value to match.
+     @param updateKey The key of the element to increment.
+     @param delta The amount to add, which may be negative.
+     @return A future completed with true if the update succeeded, false otherwise.
+     */
+    CompletableFuture<Boolean> incrementAsync(final String key, final Object value, String updateKey, Number delta);
+    /**
+
+     Atomically increments a numeric element within a document in the collection asynchronously and reports whether the update succeeded.
+     @param key The key to match.
+     @param value The value to match.
+     @param updateKey The key of the element to increment.
+     @param delta The amount to add, which may be negative.
+     @param consumer The consumer to handle the result of the update.
+     */
+    void incrementAsync(final String key, final Object value, String updateKey, Number delta, Consumer<Boolean> consumer);
     /**
 
      Calculates the sum of all integer values in the specified field across all documents in the collection.
@@ -102,6 +313,13 @@ public interface ICollection {
      @return The total sum of the integer values.
      */
     int sumTotalInt(String field);
+    /**
+
+     Calculates the sum of all integer values in the specified field asynchronously.
+     @param field The field to calculate the sum for.
+     @return A future completed with the total sum of the integer values.
+     */
+    CompletableFuture<Integer> sumTotalIntAsync(String field);
     /**
 
      Calculates the sum of all long values in the specified field across all documents in the collection.
@@ -109,6 +327,13 @@ public interface ICollection {
      @return The total sum of the long values.
      */
     long sumTotalLong(String field);
+    /**
+
+     Calculates the sum of all long values in the specified field asynchronously.
+     @param field The field to calculate the sum for.
+     @return A future completed with the total sum of the long values.
+     */
+    CompletableFuture<Long> sumTotalLongAsync(String field);
     /**
 
      Retrieves the rank of a document based on the value of a specified field and a unique identifier.
@@ -117,6 +342,14 @@ public interface ICollection {
      @return The rank of the document.
      */
     int rank(String field, UUID uniqueId);
+    /**
+
+     Retrieves the rank of a document asynchronously.
+     @param field The field to compare.
+     @param uniqueId The unique identifier of the document.
+     @return A future completed with the rank of the document.
+     */
+    CompletableFuture<Integer> rankAsync(String field, UUID uniqueId);
     /**
 
      Retrieves a list of documents from the collection sorted by a specified field in descending order, limited by the specified limit.
@@ -125,4 +358,30 @@ public interface ICollection {
      @return A list of the top documents based on the specified field.
      */
     List<Document> topWall(String field, int limit);
+    /**
+
+     Retrieves the top documents sorted by a specified field in descending order asynchronously.
+     @param field The field to sort by.
+     @param limit The maximum number of documents to retrieve.
+     @return A future completed with a list of the top documents based on the specified field.
+     */
+    CompletableFuture<List<Document>> topWallAsync(String field, int limit);
+    /**
+
+     Retrieves the projected fields of the top documents sorted by a specified field in descending order.
+     @param field The field to sort by.
+     @param limit The maximum number of documents to retrieve.
+     @param projection The projection applied to every document, for example one created by covered.
+     @return A list of the projected top documents based on the specified field.
+     */
+    List<Document> topWall(String field, int limit, Bson projection);
+    /**
+
+     Retrieves the projected fields of the top documents sorted by a specified field in descending order asynchronously.
+     @param field The field to sort by.
+     @param limit The maximum number of documents to retrieve.
+     @param projection The projection applied to every document, for example one created by covered.
+     @return A future completed with a list of the projected top documents based on the specified field.
+     */
+    CompletableFuture<List<Document>> topWallAsync(String field, int limit, Bson projection);
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package de.rubymc.mongodb;
 
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import de.rubymc.metrics.DatabaseMetrics;
 import de.rubymc.mongodb.impl.DatabaseCollection;
+import de.rubymc.mongodb.impl.TypedDatabaseCollection;
 
 /**
 
@@ -47,4 +50,49 @@ public interface IDatabase {
      @return The created DatabaseCollection instance.
      */
     DatabaseCollection createDatabaseCollection(String database, String table);
+    /**
+
+     Creates a new database collection and ensures that the specified indexes exist.
+     @param collection The name of the collection to create.
+     @param indexes The indexes the collection is queried with.
+     @return The created DatabaseCollection instance.
+     */
+    DatabaseCollection createDatabaseCollection(String collection, IndexModel... indexes);
+    /**
+
+     Creates a new database collection within the specified database and ensures that the specified indexes exist.
+     @param database The name of the database.
+     @param table The name of the collection to create.
+     @param indexes The indexes the collection is queried with.
+     @return The created DatabaseCollection instance.
+     */
+    DatabaseCollection createDatabaseCollection(String database, String table, IndexModel... indexes);
+    /**
+
+     Creates a typed view of a database collection, whose documents are decoded directly into objects of the specified class.
+     @param collection The name of the collection to create.
+     @param type The class the documents are mapped to.
+     @return The created TypedDatabaseCollection instance.
+     */
+    <T> TypedDatabaseCollection<T> createDatabaseCollection(String collection, Class<T> type);
+    /**
+
+     Creates a typed view of a database collection within the specified database, whose documents are decoded directly into objects of the specified class.
+     @param database The name of the database.
+     @param table The name of the collection to create.
+     @param type The class the documents are mapped to.
+     @return The created TypedDatabaseCollection instance.
+     */
+    <T> TypedDatabaseCollection<T> createDatabaseCollection(String database, String table, Class<T> type);
+    /**
+
+     Enables the diagnostic mode, in which every collection explains the queries it runs and warns about those that scan the whole collection.
+     */
+    void enableQueryAdvisor();
+    /**
+
+     Enables the metrics of all collections and of the async executor.
+     @param metrics The registry the latencies, failures and queue depths are recorded in.
+     */
+    void enableMetrics(DatabaseMetrics metrics);
 }
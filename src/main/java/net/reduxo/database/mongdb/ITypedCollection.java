@@ -0,0 +1,302 @@
+package de.rubymc.mongodb;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexModel;
+import org.bson.conversions.Bson;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+
+ The ITypedCollection interface represents a collection whose documents are decoded directly into objects of a mapped class.
+ It offers the operations of {@link ICollection} except for the callback overloads, which are covered by the returned futures,
+ the lookup of two documents by different keys and {@code parallelStream}, which are available through {@link #documents()}.
+ @param <T> The class the documents are mapped to.
+ */
+public interface ITypedCollection<T> {
+
+    /**
+
+     Creates a new document in the collection from the specified object.
+     @param value The object to store.
+     */
+    void createDocument(final T value);
+    /**
+
+     Creates a new document in the collection from the specified object asynchronously.
+     @param value The object to store.
+     @return A future completed with true if the insert succeeded, false otherwise.
+     */
+    CompletableFuture<Boolean> createDocumentAsync(final T value);
+    /**
+
+     Deletes a document from the collection based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @return True if the document was successfully deleted, false otherwise.
+     */
+    boolean deleteDocument(final String key, final Object value);
+    /**
+
+     Deletes a document from the collection asynchronously based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @return A future completed with true if the deletion succeeded, false otherwise.
+     */
+    CompletableFuture<Boolean> deleteDocumentAsync(final String key, final Object value);
+    /**
+
+     Retrieves a document from the collection based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @return The decoded document, or null if no matching document is found.
+     */
+    T getDocument(final String key, final Object value);
+    /**
+
+     Retrieves a document from the collection asynchronously based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @return A future completed with the decoded document, or null if no matching document is found.
+     */
+    CompletableFuture<T> getDocumentAsync(final String key, final Object value);
+    /**
+
+     Retrieves the projected fields of a document from the collection based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @param projection The projection of the fields to retrieve, or null for all fields.
+     @return The decoded document, or null if no matching document is found.
+     */
+    T getDocument(final String key, final Object value, final Bson projection);
+    /**
+
+     Retrieves the projected fields of a document from the collection asynchronously.
+     @param key The key to match.
+     @param value The value to match.
+     @param projection The projection of the fields to retrieve, or null for all fields.
+     @return A future completed with the decoded document, or null if no matching document is found.
+     */
+    CompletableFuture<T> getDocumentAsync(final String key, final Object value, final Bson projection);
+    /**
+
+     Retrieves all documents whose key matches one of the specified values with a single query.
+     @param key The key to match.
+     @param values The values to match.
+     @return A list of the decoded documents.
+     */
+    List<T> getDocuments(final String key, final Collection<?> values);
+    /**
+
+     Retrieves all documents whose key matches one of the specified values with a single query asynchronously.
+     @param key The key to match.
+     @param values The values to match.
+     @return A future completed with a list of the decoded documents.
+     */
+    CompletableFuture<List<T>> getDocumentsAsync(final String key, final Collection<?> values);
+    /**
+
+     Retrieves all documents in the collection.
+     @return A list of all decoded documents in the collection.
+     */
+    List<T> collection();
+    /**
+
+     Retrieves all documents in the collection asynchronously.
+     @return A future completed with a list of all decoded documents in the collection.
+     */
+    CompletableFuture<List<T>> collectionAsync();
+    /**
+
+     Retrieves the projected fields of all documents in the collection.
+     @param projection The projection of the fields to retrieve, or null for all fields.
+     @return A list of all decoded documents in the collection.
+     */
+    List<T> collection(final Bson projection);
+    /**
+
+     Retrieves the projected fields of all documents in the collection asynchronously.
+     @param projection The projection of the fields to retrieve, or null for all fields.
+     @return A future completed with a list of all decoded documents in the collection.
+     */
+    CompletableFuture<List<T>> collectionAsync(final Bson projection);
+    /**
+
+     Streams all documents in the collection through a driver cursor.
+     @return A stream of the decoded documents, which must be closed to release the cursor.
+     */
+    Stream<T> stream();
+    /**
+
+     Streams the matching documents through a driver cursor, fetching them in batches of the specified size.
+     @param filter The filter the documents have to match, or null for all documents.
+     @param batchSize The number of documents fetched per round trip, or 0 for the server default.
+     @return A stream of the decoded documents, which must be closed to release the cursor.
+     */
+    Stream<T> stream(Bson filter, int batchSize);
+    /**
+
+     Streams the projected fields of the matching documents through a driver cursor, fetching them in batches of the specified size.
+     @param filter The filter the documents have to match, or null for all documents.
+     @param projection The projection of the fields to retrieve, or null for all fields.
+     @param batchSize The number of documents fetched per round trip, or 0 for the server default.
+     @return A stream of the decoded documents, which must be closed to release the cursor.
+     */
+    Stream<T> stream(Bson filter, Bson projection, int batchSize);
+    /**
+
+     Replaces a document in the collection based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @param document The object replacing the matched document.
+     */
+    void updateDocument(final String key, final Object value, final T document);
+    /**
+
+     Replaces a document in the collection asynchronously based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @param document The object replacing the matched document.
+     @return A future completed with true if the update succeeded, false otherwise.
+     */
+    CompletableFuture<Boolean> updateDocumentAsync(final String key, final Object value, final T document);
+    /**
+
+     Updates an element within a document in the collection based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @param updateKey The key of the element to update.
+     @param updateValue The new value of the element.
+     */
+    void updateElement(final String key, final Object value, String updateKey, Object updateValue);
+    /**
+
+     Updates an element within a document in the collection asynchronously based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @param updateKey The key of the element to update.
+     @param updateValue The new value of the element.
+     @return A future completed with true if the update succeeded, false otherwise.
+     */
+    CompletableFuture<Boolean> updateElementAsync(final String key, final Object value, String updateKey, Object updateValue);
+    /**
+
+     Atomically increments a numeric element within a document in the collection based on the specified key-value pair.
+     @param key The key to match.
+     @param value The value to match.
+     @param updateKey The key of the element to increment.
+     @param delta The amount to add, which may be negative.
+     @return True if a document was matched, false otherwise.
+     */
+    boolean increment(final String key, final Object value, String updateKey, Number delta);
+    /**
+
+     Atomically increments a numeric element within a document in the collection asynchronously.
+     @param key The key to match.
+     @param value The value to match.
+     @param updateKey The key of the element to increment.
+     @param delta The amount to add, which may be negative.
+     @return A future completed with true if the update succeeded, false otherwise.
+     */
+    CompletableFuture<Boolean> incrementAsync(final String key, final Object value, String updateKey, Number delta);
+    /**
+
+     Calculates the sum of integer values in the specified field across all documents in the collection.
+     @param field The field to sum.
+     @return The sum of the values, or -1 if no documents were found.
+     */
+    int sumTotalInt(String field);
+    /**
+
+     Calculates the sum of long values in the specified field across all documents in the collection.
+     @param field The field to sum.
+     @return The sum of the values, or -1 if no documents were found.
+     */
+    long sumTotalLong(String field);
+    /**
+
+     Calculates the sum of integer values in the specified field asynchronously.
+     @param field The field to sum.
+     @return A future completed with the sum of the values, or -1 if no documents were found.
+     */
+    CompletableFuture<Integer> sumTotalIntAsync(String field);
+    /**
+
+     Calculates the sum of long values in the specified field asynchronously.
+     @param field The field to sum.
+     @return A future completed with the sum of the values, or -1 if no documents were found.
+     */
+    CompletableFuture<Long> sumTotalLongAsync(String field);
+    /**
+
+     Retrieves the rank of the document with the specified unique id, ordered by the specified field.
+     @param field The field to rank by.
+     @param uniqueId The unique id of the document.
+     @return The rank of the document.
+     */
+    int rank(String field, UUID uniqueId);
+    /**
+
+     Retrieves the rank of the document with the specified unique id asynchronously.
+     @param field The field to rank by.
+     @param uniqueId The unique id of the document.
+     @return A future completed with the rank of the document.
+     */
+    CompletableFuture<Integer> rankAsync(String field, UUID uniqueId);
+    /**
+
+     Retrieves the top documents ordered by the specified field.
+     @param field The field to sort by.
+     @param limit The maximum number of documents to retrieve.
+     @return A list of the decoded top documents.
+     */
+    List<T> topWall(String field, int limit);
+    /**
+
+     Retrieves the top documents ordered by the specified field asynchronously.
+     @param field The field to sort by.
+     @param limit The maximum number of documents to retrieve.
+     @return A future completed with a list of the decoded top documents.
+     */
+    CompletableFuture<List<T>> topWallAsync(String field, int limit);
+    /**
+
+     Retrieves the projected fields of the top documents ordered by the specified field.
+     @param field The field to sort by.
+     @param limit The maximum number of documents to retrieve.
+     @param projection The projection of the fields to retrieve, or null for all fields.
+     @return A list of the decoded top documents.
+     */
+    List<T> topWall(String field, int limit, Bson projection);
+    /**
+
+     Retrieves the projected fields of the top documents ordered by the specified field asynchronously.
+     @param field The field to sort by.
+     @param limit The maximum number of documents to retrieve.
+     @param projection The projection of the fields to retrieve, or null for all fields.
+     @return A future completed with a list of the decoded top documents.
+     */
+    CompletableFuture<List<T>> topWallAsync(String field, int limit, Bson projection);
+    /**
+
+     Creates the specified indexes unless they already exist, including compound and sort-direction indexes.
+     @param indexes The indexes to create.
+     */
+    void ensureIndexes(IndexModel... indexes);
+    /**
+
+     Retrieves the untyped collection this collection is a view of.
+     @return The untyped collection.
+     */
+    ICollection documents();
+    /**
+
+     Retrieves the underlying typed MongoCollection object.
+     @return The typed MongoCollection object.
+     */
+    MongoCollection<T> mongoCollection();
+}
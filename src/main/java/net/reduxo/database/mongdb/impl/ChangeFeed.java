@@ -0,0 +1,145 @@
+package de.rubymc.mongodb.impl;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Follows the change stream of a collection on a dedicated daemon thread and forwards every change,
+ * including those made by other servers, to the {@link CollectionListener}s of a {@link DatabaseCollection}.
+ * Change streams require the server to run as a replica set or sharded cluster.
+ */
+final class ChangeFeed implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(ChangeFeed.class.getName());
+    private static final String ID = "_id";
+
+    private final MongoCollection<Document> collection;
+    private final List<CollectionListener> listeners;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a new ChangeFeed for the specified collection.
+     *
+     * @param collection the collection to watch
+     * @param listeners  the listeners the changes are forwarded to
+     */
+    ChangeFeed(MongoCollection<Document> collection, List<CollectionListener> listeners) {
+        this.collection = collection;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Starts following the change stream.
+     */
+    void start() {
+        Thread thread = new Thread(this, "change-feed-" + collection.getNamespace().getCollectionName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops following the change stream after the current poll.
+     */
+    void close() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try (MongoCursor<ChangeStreamDocument<Document>> cursor = collection.watch()
+                    .fullDocument(FullDocument.UPDATE_LOOKUP)
+                    .maxAwaitTime(1, TimeUnit.SECONDS)
+                    .iterator()) {
+                // whatever happened while the stream was not open is unknown, so derived state starts over
+                listeners.forEach(CollectionListener::changed);
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null) {
+                        dispatch(change);
+                    }
+                }
+            } catch (RuntimeException exception) {
+                LOGGER.log(Level.WARNING, "Change stream of " + collection.getNamespace() + " failed, reopening", exception);
+                pause();
+            }
+        }
+    }
+
+    /**
+     * Forwards one change to the listeners.
+     *
+     * @param change the change read from the stream
+     */
+    void dispatch(ChangeStreamDocument<Document> change) {
+        Document fullDocument = change.getFullDocument();
+        switch (change.getOperationType()) {
+            case INSERT:
+                listeners.forEach(listener -> listener.inserted(fullDocument));
+                break;
+            case UPDATE:
+            case REPLACE:
+                if (fullDocument == null) {
+                    // the document was deleted before its update could be looked up
+                    listeners.forEach(CollectionListener::changed);
+                    break;
+                }
+                Collection<String> fields = updatedFields(change);
+                if (fields == null) {
+                    listeners.forEach(listener -> listener.replaced(ID, fullDocument.get(ID), fullDocument));
+                } else {
+                    listeners.forEach(listener -> listener.updated(ID, fullDocument.get(ID), fullDocument, fields));
+                }
+                break;
+            case DELETE:
+                // the document key is raw BSON, decode it so the id compares equal to the ids of decoded documents
+                Object id = Document.parse(change.getDocumentKey().toJson()).get(ID);
+                listeners.forEach(listener -> listener.deleted(ID, id));
+                break;
+            default:
+                listeners.forEach(CollectionListener::changed);
+                break;
+        }
+    }
+
+    /**
+     * Collects the paths an update set or removed.
+     *
+     * @param change the change read from the stream
+     * @return the paths, or null if the change is not an update with a description, such as a replacement
+     */
+    private static Collection<String> updatedFields(ChangeStreamDocument<Document> change) {
+        UpdateDescription description = change.getUpdateDescription();
+        if (description == null) {
+            return null;
+        }
+        Collection<String> fields = new ArrayList<>();
+        if (description.getUpdatedFields() != null) {
+            fields.addAll(description.getUpdatedFields().keySet());
+        }
+        if (description.getRemovedFields() != null) {
+            fields.addAll(description.getRemovedFields());
+        }
+        return fields;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
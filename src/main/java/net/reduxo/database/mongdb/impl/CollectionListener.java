@@ -0,0 +1,94 @@
+package de.rubymc.mongodb.impl;
+
+import org.bson.Document;
+
+import java.util.Collection;
+
+/**
+ * Receives the writes a {@link DatabaseCollection} applied successfully, or that its {@link ChangeFeed}
+ * observed, so that derived in-process state can be kept up to date without querying the collection again.
+ */
+interface CollectionListener {
+
+    /**
+     * Called after a document was inserted.
+     *
+     * @param document the inserted document
+     */
+    default void inserted(Document document) {
+    }
+
+    /**
+     * Called after the document matching the key-value pair was replaced.
+     *
+     * @param key      the key that was matched against
+     * @param value    the value that was matched against
+     * @param document the new document
+     */
+    default void replaced(String key, Object value, Document document) {
+    }
+
+    /**
+     * Called after some fields of the document matching the key-value pair were updated by a write known only
+     * through its result, such as an update observed by the {@link ChangeFeed}. Listeners treat it as a replacement
+     * unless they override it.
+     *
+     * @param key      the key that was matched against
+     * @param value    the value that was matched against
+     * @param document the updated document
+     * @param fields   the dotted paths of the fields that were set or removed
+     */
+    default void updated(String key, Object value, Document document, Collection<String> fields) {
+        replaced(key, value, document);
+    }
+
+    /**
+     * Called after an element of the document matching the key-value pair was set.
+     *
+     * @param key         the key that was matched against
+     * @param value       the value that was matched against
+     * @param updateKey   the key of the updated element
+     * @param updateValue the new value of the element
+     * @param previous    the document before the update, or null if it is not known
+     */
+    default void elementUpdated(String key, Object value, String updateKey, Object updateValue, Document previous) {
+    }
+
+    /**
+     * Called after an element of the document matching the key-value pair was incremented.
+     *
+     * @param key       the key that was matched against
+     * @param value     the value that was matched against
+     * @param updateKey the key of the incremented element
+     * @param delta     the amount that was added
+     */
+    default void incremented(String key, Object value, String updateKey, Number delta) {
+    }
+
+    /**
+     * Tells whether {@link #elementUpdated} needs the document as it was before an update of the specified element.
+     * Updates only fetch the previous document with {@code findOneAndUpdate} if some listener needs it.
+     *
+     * @param updateKey the key of the updated element
+     * @return true if the previous document is needed, false otherwise
+     */
+    default boolean needsPrevious(String updateKey) {
+        return false;
+    }
+
+    /**
+     * Called after the documents matching the key-value pair were deleted.
+     *
+     * @param key   the key that was matched against
+     * @param value the value that was matched against
+     */
+    default void deleted(String key, Object value) {
+    }
+
+    /**
+     * Called when the collection changed in a way that cannot be described by the other callbacks,
+     * for example when it was dropped or renamed.
+     */
+    default void changed() {
+    }
+}
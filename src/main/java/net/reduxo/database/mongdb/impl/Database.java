@@ -4,18 +4,47 @@ import com.mongodb.ConnectionString;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import de.rubymc.metrics.DatabaseMetrics;
+import de.rubymc.mongodb.DatabaseOptions;
 import de.rubymc.mongodb.IDatabase;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 /**
  * Represents a MongoDB database connection.
  */
 public class Database implements IDatabase {
 
+    private static final Logger LOGGER = Logger.getLogger(Database.class.getName());
 
     private final String database;
     private final ConnectionString connectionString;
+    private final Map<String, DatabaseCollection> collections = new ConcurrentHashMap<>();
+    private final DatabaseOptions options;
 
     private MongoClient mongoClient;
     private MongoDatabase mongoDatabase;
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean queryAdvisor;
+    private volatile DatabaseMetrics metrics;
 
     /**
      * Constructs a new Database object with the specified connection details.
@@ -27,7 +56,36 @@ public class Database implements IDatabase {
      * @param database the name of the database
      */
     public Database(String address, Integer port,String username, String password, String database) {
+        this(address, port, username, password, database, DatabaseOptions.create());
+    }
+
+    /**
+     * Constructs a new Database object with the specified connection details and size of the shared async executor.
+     *
+     * @param address      the address of the MongoDB server
+     * @param port         the port number of the MongoDB server
+     * @param username     the username for authentication
+     * @param password     the password for authentication
+     * @param database     the name of the database
+     * @param asyncThreads the maximum number of threads running asynchronous collection operations
+     */
+    public Database(String address, Integer port, String username, String password, String database, int asyncThreads) {
+        this(address, port, username, password, database, DatabaseOptions.create().asyncThreads(asyncThreads));
+    }
+
+    /**
+     * Constructs a new Database object with the specified connection details and tuning options.
+     *
+     * @param address  the address of the MongoDB server
+     * @param port     the port number of the MongoDB server
+     * @param username the username for authentication
+     * @param password the password for authentication
+     * @param database the name of the database
+     * @param options  the options for the connection pool, compression, timeouts and async executor
+     */
+    public Database(String address, Integer port, String username, String password, String database, DatabaseOptions options) {
         this.database = database;
+        this.options = options;
         this.connectionString = new ConnectionString("mongodb://" + username + ":" + password + "@" + address + ":" + port + "/" + database);
     }
 
@@ -46,19 +104,97 @@ public class Database implements IDatabase {
     }
 
     /**
-     * Connects to the MongoDB database using the provided connection details.
+     * Creates a new Database object with the specified connection details and size of the shared async executor.
+     *
+     * @param address      the address of the MongoDB server
+     * @param port         the port number of the MongoDB server
+     * @param username     the username for authentication
+     * @param password     the password for authentication
+     * @param database     the name of the database
+     * @param asyncThreads the maximum number of threads running asynchronous collection operations
+     * @return the created Database object
+     */
+    public static Database create(String address, Integer port, String username, String password, String database, int asyncThreads) {
+        return new Database(address, port, username, password, database, asyncThreads);
+    }
+
+    /**
+     * Creates a new Database object with the specified connection details and tuning options.
+     *
+     * @param address  the address of the MongoDB server
+     * @param port     the port number of the MongoDB server
+     * @param username the username for authentication
+     * @param password the password for authentication
+     * @param database the name of the database
+     * @param options  the options for the connection pool, compression, timeouts and async executor
+     * @return the created Database object
+     */
+    public static Database create(String address, Integer port, String username, String password, String database, DatabaseOptions options) {
+        return new Database(address, port, username, password, database, options);
+    }
+
+    /**
+     * Connects to the MongoDB database using the provided connection details and options, and starts the shared
+     * executor on which the asynchronous operations of all collections run. If warm-up is enabled, the minimum
+     * number of pooled connections is opened before this method returns.
      */
     @Override
     public void connect() {
-        this.mongoClient = MongoClients.create(connectionString);
+        int asyncThreads = options.getAsyncThreads();
+        this.executor = new ThreadPoolExecutor(asyncThreads, asyncThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("database-async-"));
+        this.executor.allowCoreThreadTimeOut(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("database-scheduler-"));
+        this.mongoClient = MongoClients.create(options.settings(connectionString));
         this.mongoDatabase = mongoClient.getDatabase(database);
+        if (options.isWarmUp()) {
+            warmUp(options.getMinPoolSize());
+        }
     }
 
     /**
-     * Disconnects from the MongoDB database.
+     * Opens the specified number of pooled connections by running that many concurrent pings, each of which
+     * has to check out a connection of its own. The pings run on a temporary pool with one thread per connection,
+     * since the async executor may have fewer threads than the pool has connections.
+     *
+     * @param connections the number of connections to open
+     */
+    private void warmUp(int connections) {
+        int count = Math.max(1, connections);
+        ExecutorService warmUpExecutor = Executors.newFixedThreadPool(count, threadFactory("database-warmup-"));
+        List<CompletableFuture<Document>> pings = new ArrayList<>();
+        for (int index = 0; index < count; index++) {
+            pings.add(CompletableFuture.supplyAsync(() -> mongoDatabase.runCommand(new Document("ping", 1)), warmUpExecutor));
+        }
+        try {
+            CompletableFuture.allOf(pings.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException exception) {
+            LOGGER.log(Level.WARNING, "Could not warm up the connection pool", exception);
+        } finally {
+            warmUpExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Disconnects from the MongoDB database after flushing the pending write-behind batches of all created collections.
      */
     @Override
     public void disconnect() {
+        collections.values().forEach(DatabaseCollection::close);
+        collections.clear();
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
         if (mongoClient != null) {
             mongoClient.close();
         }
@@ -87,17 +223,19 @@ public class Database implements IDatabase {
 
     /**
      * Creates a new DatabaseCollection object for the specified table in the current database.
+     * Collections are cached, so repeated calls for the same table return the same object.
      *
      * @param table the name of the collection (table) to create
      * @return the created DatabaseCollection object
      */
     @Override
     public DatabaseCollection createDatabaseCollection(String table) {
-        return new DatabaseCollection(mongoDatabase.getCollection(table));
+        return createDatabaseCollection(database, table);
     }
 
     /**
      * Creates a new DatabaseCollection object for the specified table in the specified database.
+     * Collections are cached, so repeated calls for the same table return the same object.
      *
      * @param database the name of the database
      * @param table    the name of the collection (table) to create
@@ -105,7 +243,129 @@ public class Database implements IDatabase {
      */
     @Override
     public DatabaseCollection createDatabaseCollection(String database, String table) {
-        return new DatabaseCollection(mongoClient.getDatabase(database).getCollection(table));
+        return collections.computeIfAbsent(database + "." + table, namespace ->
+                register(new DatabaseCollection(mongoClient.getDatabase(database).getCollection(table), executor, scheduler)));
+    }
+
+    /**
+     * Creates a new DatabaseCollection object for the specified table in the current database and ensures that the specified indexes exist.
+     *
+     * @param table   the name of the collection (table) to create
+     * @param indexes the indexes the collection is queried with
+     * @return the created DatabaseCollection object
+     */
+    @Override
+    public DatabaseCollection createDatabaseCollection(String table, IndexModel... indexes) {
+        DatabaseCollection collection = createDatabaseCollection(table);
+        collection.ensureIndexes(indexes);
+        return collection;
+    }
+
+    /**
+     * Creates a new DatabaseCollection object for the specified table in the specified database and ensures that the specified indexes exist.
+     *
+     * @param database the name of the database
+     * @param table    the name of the collection (table) to create
+     * @param indexes  the indexes the collection is queried with
+     * @return the created DatabaseCollection object
+     */
+    @Override
+    public DatabaseCollection createDatabaseCollection(String database, String table, IndexModel... indexes) {
+        DatabaseCollection collection = createDatabaseCollection(database, table);
+        collection.ensureIndexes(indexes);
+        return collection;
+    }
+
+    /**
+     * Creates a typed view of the specified table in the current database, decoding its documents into
+     * objects of the specified class through the codec registry of the options.
+     *
+     * @param table the name of the collection (table) to create
+     * @param type  the class the documents are mapped to
+     * @param <T>   the type of the mapped class
+     * @return the created TypedDatabaseCollection object
+     */
+    @Override
+    public <T> TypedDatabaseCollection<T> createDatabaseCollection(String table, Class<T> type) {
+        return createDatabaseCollection(database, table, type);
+    }
+
+    /**
+     * Creates a typed view of the specified table in the specified database, decoding its documents into
+     * objects of the specified class through the codec registry of the options.
+     *
+     * @param database the name of the database
+     * @param table    the name of the collection (table) to create
+     * @param type     the class the documents are mapped to
+     * @param <T>      the type of the mapped class
+     * @return the created TypedDatabaseCollection object
+     */
+    @Override
+    public <T> TypedDatabaseCollection<T> createDatabaseCollection(String database, String table, Class<T> type) {
+        return new TypedDatabaseCollection<>(createDatabaseCollection(database, table), type, options.getCodecRegistry());
+    }
+
+    /**
+     * Enables the diagnostic mode for all existing and future collections. Every query shape a collection runs is
+     * explained once in the background, shapes answered with a collection scan are logged as warnings and counted
+     * in the {@link QueryAdvisor} of the collection.
+     */
+    @Override
+    public void enableQueryAdvisor() {
+        this.queryAdvisor = true;
+        collections.values().forEach(this::attachQueryAdvisor);
+    }
+
+    /**
+     * Records the latencies and failures of the operations of all existing and future collections in the specified
+     * registry, together with the queue depth and the number of in-flight tasks of the shared async executor.
+     *
+     * @param metrics the metrics registry
+     */
+    @Override
+    public void enableMetrics(DatabaseMetrics metrics) {
+        this.metrics = metrics;
+        String scope = "database." + database;
+        metrics.gauge(scope, "executor.queued", () -> {
+            ThreadPoolExecutor current = this.executor;
+            return current != null ? current.getQueue().size() : 0;
+        });
+        metrics.gauge(scope, "executor.active", () -> {
+            ThreadPoolExecutor current = this.executor;
+            return current != null ? current.getActiveCount() : 0;
+        });
+        metrics.gauge(scope, "executor.inFlight", () -> {
+            ThreadPoolExecutor current = this.executor;
+            return current != null ? current.getQueue().size() + current.getActiveCount() : 0;
+        });
+        collections.values().forEach(collection -> collection.metrics(metrics));
+    }
+
+    private DatabaseCollection register(DatabaseCollection collection) {
+        if (queryAdvisor) {
+            attachQueryAdvisor(collection);
+        }
+        DatabaseMetrics registry = this.metrics;
+        if (registry != null) {
+            collection.metrics(registry);
+        }
+        return collection;
+    }
+
+    private void attachQueryAdvisor(DatabaseCollection collection) {
+        if (collection.queryAdvisor() == null) {
+            String databaseName = collection.mongoCollection().getNamespace().getDatabaseName();
+            collection.queryAdvisor(new QueryAdvisor(mongoClient.getDatabase(databaseName), collection.mongoCollection(), executor));
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
 }
@@ -1,33 +1,307 @@
 package de.rubymc.mongodb.impl;
 
-import com.mongodb.BasicDBObject;
 import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.model.*;
+import de.rubymc.metrics.DatabaseMetrics;
 import de.rubymc.mongodb.ICollection;
 import de.rubymc.mongodb.Pair;
+import org.bson.BsonDocument;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.mongodb.client.model.Accumulators.sum;
 import static com.mongodb.client.model.Aggregates.group;
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.exists;
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.or;
+import static com.mongodb.client.model.Projections.excludeId;
+import static com.mongodb.client.model.Projections.fields;
+import static com.mongodb.client.model.Projections.include;
 
 public class DatabaseCollection implements ICollection {
 
-    private final ExecutorService service = Executors.newSingleThreadExecutor();
+    private static final int SAMPLES_PER_CHUNK = 16;
+
     private final MongoCollection<Document> collection;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+    private final List<CollectionListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<CollectionListener> feedListeners = new CopyOnWriteArrayList<>();
+    private final List<ScheduledFuture<?>> backgroundTasks = new CopyOnWriteArrayList<>();
+    private final Map<String, RankTracker> rankTrackers = new ConcurrentHashMap<>();
+    private final Map<Pair<String, Integer>, Leaderboard> leaderboards = new ConcurrentHashMap<>();
+    private final Map<String, RunningTotal> runningTotals = new ConcurrentHashMap<>();
+    private volatile WriteBehindQueue writeBehind;
+    private volatile ChangeFeed changeFeed;
+    private volatile LookupBatcher lookupBatcher;
+    private volatile NearCache nearCache;
+    private volatile QueryAdvisor queryAdvisor;
+    private volatile UpdateAccumulator updateAccumulator;
+    private volatile DatabaseMetrics metrics;
 
-    public DatabaseCollection(MongoCollection<Document> collection) {
+    /**
+     * Constructs a new DatabaseCollection whose asynchronous operations run on the shared executor of its {@link Database}.
+     *
+     * @param collection the underlying MongoCollection
+     * @param executor   the executor running the asynchronous operations
+     * @param scheduler  the scheduler running the periodic background tasks
+     */
+    public DatabaseCollection(MongoCollection<Document> collection, ExecutorService executor, ScheduledExecutorService scheduler) {
         this.collection = collection;
+        this.executor = executor;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Enables write-behind mode. Asynchronous inserts, deletes and updates are no longer sent one by one
+     * but gathered into {@code bulkWrite} batches, which are flushed once they reach the batch size,
+     * once the flush interval has elapsed or when {@link #flush()} is called.
+     *
+     * @param batchSize     the number of pending writes that triggers a flush
+     * @param flushInterval the maximum time a write stays queued
+     * @param unit          the time unit of the flush interval
+     * @param ordered       whether the batches are executed as ordered bulk writes
+     */
+    public void enableWriteBehind(int batchSize, long flushInterval, TimeUnit unit, boolean ordered) {
+        WriteBehindQueue previous = this.writeBehind;
+        this.writeBehind = new WriteBehindQueue(collection, executor, scheduler, batchSize, flushInterval, unit, ordered);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Coalesces the asynchronous element updates and increments of {@link #updateElementAsync(String, Object, String, Object)}
+     * and {@link #incrementAsync(String, Object, String, Number)}. Pending updates of the same document are merged into
+     * one {@code $set}/{@code $inc} update, and all pending updates are sent as one {@code bulkWrite} once the flush
+     * interval has elapsed, once the number of pending documents is reached or when {@link #flush()} is called.
+     * Synchronous writes flush the pending updates first; other asynchronous writes are not ordered against them.
+     *
+     * @param flushInterval the maximum time an update stays pending
+     * @param unit          the time unit of the flush interval
+     * @param maxPending    the number of pending documents that triggers a flush
+     */
+    public void coalesceUpdates(long flushInterval, TimeUnit unit, int maxPending) {
+        UpdateAccumulator previous = this.updateAccumulator;
+        this.updateAccumulator = new UpdateAccumulator(collection, listeners, executor, scheduler, maxPending, flushInterval, unit);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Creates the specified indexes unless they already exist. Compound and sort-direction indexes are declared
+     * through {@link Indexes}, for example {@code new IndexModel(Indexes.compoundIndex(Indexes.ascending("uniqueId"),
+     * Indexes.descending("coins")))}.
+     *
+     * @param indexes the indexes to create
+     */
+    @Override
+    public void ensureIndexes(IndexModel... indexes) {
+        if (indexes.length > 0) {
+            collection.createIndexes(Arrays.asList(indexes));
+        }
+    }
+
+    /**
+     * Retrieves the query advisor of this collection.
+     *
+     * @return the query advisor, or null if the diagnostic mode is not enabled
+     */
+    public QueryAdvisor queryAdvisor() {
+        return queryAdvisor;
+    }
+
+    /**
+     * Sets the query advisor that explains the queries run by this collection.
+     *
+     * @param queryAdvisor the query advisor
+     */
+    void queryAdvisor(QueryAdvisor queryAdvisor) {
+        this.queryAdvisor = queryAdvisor;
+    }
+
+    /**
+     * Records the latencies and failures of the operations of this collection, and the number of pending
+     * write-behind operations and coalesced updates, in the specified registry.
+     *
+     * @param metrics the metrics registry
+     */
+    void metrics(DatabaseMetrics metrics) {
+        String scope = collection.getNamespace().getFullName();
+        metrics.gauge(scope, "writeBehind.pending", () -> {
+            WriteBehindQueue queue = this.writeBehind;
+            return queue != null ? queue.size() : 0;
+        });
+        metrics.gauge(scope, "updates.pending", () -> {
+            UpdateAccumulator accumulator = this.updateAccumulator;
+            return accumulator != null ? accumulator.size() : 0;
+        });
+        this.metrics = metrics;
+    }
+
+    /**
+     * Keeps the scores of the specified field in an in-process order-statistics tree, so that {@link #rank(String, UUID)}
+     * is answered in O(log N) from memory. The tree is loaded on the first rank query and follows the writes made
+     * through this collection; writes it cannot map to a single score make it reload on the next query.
+     *
+     * @param field the field to track
+     */
+    public void trackRank(String field) {
+        rankTrackers.computeIfAbsent(field, key -> {
+            RankTracker tracker = new RankTracker(collection, key);
+            register(tracker, true, true);
+            return tracker;
+        });
+    }
+
+    /**
+     * Serves {@link #topWall(String, int)} for the specified field and limit from an in-memory view. The view is
+     * loaded on the first call, reloaded in the background after writes through this collection or changes seen by
+     * {@link #watchChanges()}, and never returned older than the staleness bound.
+     *
+     * @param field        the field to sort by
+     * @param limit        the number of documents in the view
+     * @param maxStaleness the maximum age of a returned view
+     * @param unit         the time unit of the maximum age
+     */
+    public void cacheTopWall(String field, int limit, long maxStaleness, TimeUnit unit) {
+        leaderboards.computeIfAbsent(new Pair<>(field, limit), key -> {
+            Leaderboard leaderboard = new Leaderboard(field, limit, () -> queryTopWall(field, limit), executor, maxStaleness, unit);
+            register(leaderboard, true, true);
+            return leaderboard;
+        });
+    }
+
+    /**
+     * Enables a read-through near cache in front of {@link #getDocument(String, Object)}. Documents are evicted in
+     * least-recently-used order once the cache is full, expire after the ttl and are invalidated by the updates and
+     * deletions made through this collection. Use {@link NearCache#bind} to share the invalidations with other servers.
+     *
+     * @param maxSize the maximum number of cached documents
+     * @param ttl     the time a document stays cached
+     * @param unit    the time unit of the ttl
+     * @return the near cache, which also exposes the hit and miss statistics
+     */
+    public synchronized NearCache enableNearCache(int maxSize, long ttl, TimeUnit unit) {
+        if (nearCache == null) {
+            nearCache = new NearCache(maxSize, ttl, unit);
+            register(nearCache, true, true);
+        }
+        return nearCache;
+    }
+
+    /**
+     * Retrieves the near cache of this collection.
+     *
+     * @return the near cache, or null if it is not enabled
+     */
+    public NearCache nearCache() {
+        return nearCache;
+    }
+
+    /**
+     * Coalesces the asynchronous single-document lookups of {@link #getDocumentAsync(String, Object)} on the same key
+     * that arrive within the window into one {@code $in} query, and hands every caller the document matching its value.
+     * The key should identify one document per value.
+     *
+     * @param window       the time lookups are collected before the query is sent
+     * @param unit         the time unit of the window
+     * @param maxBatchSize the number of distinct values that sends the query before the window has elapsed
+     */
+    public void coalesceLookups(long window, TimeUnit unit, int maxBatchSize) {
+        this.lookupBatcher = new LookupBatcher(collection, executor, scheduler, window, unit, maxBatchSize);
+    }
+
+    /**
+     * Materializes the sum of the specified field, so that {@link #sumTotalInt(String)} and {@link #sumTotalLong(String)}
+     * answer in O(1) instead of aggregating the whole collection. The sum is aggregated on first use and then kept
+     * current with the deltas of inserts and element updates, taken either from the writes made through this collection
+     * or, to include those of other servers, from the change stream. Replacements and deletions, whose deltas are unknown,
+     * trigger a recomputation in the background, and the sum is also recomputed at the specified interval to correct any drift.
+     *
+     * @param field              the field to sum
+     * @param recomputeInterval  the interval at which the sum is aggregated again
+     * @param unit               the time unit of the interval
+     * @param followChangeStream whether the deltas are taken from the change stream instead of the local writes
+     */
+    public synchronized void materializeTotal(String field, long recomputeInterval, TimeUnit unit, boolean followChangeStream) {
+        if (runningTotals.containsKey(field)) {
+            return;
+        }
+        RunningTotal total = new RunningTotal(field, () -> aggregateTotal(field, "$toLong"), executor);
+        runningTotals.put(field, total);
+        register(total, !followChangeStream, followChangeStream);
+        if (followChangeStream) {
+            watchChanges();
+        }
+        backgroundTasks.add(scheduler.scheduleWithFixedDelay(() -> executor.execute(total::recompute),
+                recomputeInterval, recomputeInterval, unit));
+    }
+
+    /**
+     * Follows the change stream of the collection, so that rank trackers and cached top walls also see the writes
+     * of other servers. Requires MongoDB to run as a replica set or sharded cluster.
+     */
+    public synchronized void watchChanges() {
+        if (changeFeed == null) {
+            changeFeed = new ChangeFeed(collection, feedListeners);
+            changeFeed.start();
+        }
+    }
+
+    /**
+     * Writes all pending coalesced updates and write-behind operations to the collection, blocking until they were acknowledged.
+     */
+    public void flush() {
+        flushUpdates();
+        WriteBehindQueue queue = this.writeBehind;
+        if (queue != null) {
+            queue.flush();
+        }
+    }
+
+    /**
+     * Flushes all pending coalesced updates and write-behind operations, stops accepting new ones and stops following the change stream.
+     */
+    public void close() {
+        UpdateAccumulator accumulator = this.updateAccumulator;
+        if (accumulator != null) {
+            accumulator.close();
+        }
+        WriteBehindQueue queue = this.writeBehind;
+        if (queue != null) {
+            queue.close();
+        }
+        ChangeFeed feed = this.changeFeed;
+        if (feed != null) {
+            feed.close();
+        }
+        backgroundTasks.forEach(task -> task.cancel(false));
     }
     /**
      * Inserts a document into the collection.
@@ -36,16 +310,33 @@ public class DatabaseCollection implements ICollection {
      */
     @Override
     public void createDocument(Document document) {
-        this.collection.insertOne(document);
+        timedRun("createDocument", () -> {
+            this.collection.insertOne(document);
+            listeners.forEach(listener -> listener.inserted(document));
+        });
     }
     /**
      * Inserts a document into the collection asynchronously.
      *
      * @param document the document to be inserted
+     * @return a future completed with true if the insert succeeded, false otherwise
      */
     @Override
-    public void createDocumentAsync(Document document) {
-        this.service.submit(() -> collection.insertOne(document));
+    public CompletableFuture<Boolean> createDocumentAsync(Document document) {
+        return write(new InsertOneModel<>(document), () -> {
+            createDocument(document);
+            return true;
+        }, () -> listeners.forEach(listener -> listener.inserted(document)));
+    }
+    /**
+     * Inserts a document into the collection asynchronously and reports whether the insert succeeded.
+     *
+     * @param document the document to be inserted
+     * @param consumer the consumer to accept the result of the insert
+     */
+    @Override
+    public void createDocumentAsync(Document document, Consumer<Boolean> consumer) {
+        createDocumentAsync(document).thenAccept(consumer);
     }
     /**
      * Deletes a document from the collection based on the specified key-value pair.
@@ -56,20 +347,40 @@ public class DatabaseCollection implements ICollection {
      */
     @Override
     public boolean deleteDocument(String key, Object value) {
-        return collection.deleteMany(eq(key, value)).wasAcknowledged();
+        return timed("deleteDocument", () -> {
+            flushUpdates();
+            boolean acknowledged = collection.deleteMany(eq(key, value)).wasAcknowledged();
+            listeners.forEach(listener -> listener.deleted(key, value));
+            return acknowledged;
+        });
     }
     /**
      * Deletes a document from the collection asynchronously based on the specified key-value pair.
      *
      * @param key   the key to match against
      * @param value the value to match against
+     * @return a future completed with true if the deletion succeeded, false otherwise
+     */
+    @Override
+    public CompletableFuture<Boolean> deleteDocumentAsync(String key, Object value) {
+        return write(new DeleteManyModel<>(eq(key, value)), () -> deleteDocument(key, value),
+                () -> listeners.forEach(listener -> listener.deleted(key, value)));
+    }
+    /**
+     * Deletes a document from the collection asynchronously based on the specified key-value pair
+     * and reports whether the deletion succeeded.
+     *
+     * @param key      the key to match against
+     * @param value    the value to match against
+     * @param consumer the consumer to accept the result of the deletion
      */
     @Override
-    public void deleteDocumentAsync(String key, Object value) {
-        this.service.submit(() -> collection.deleteMany(eq(key, value)));
+    public void deleteDocumentAsync(String key, Object value, Consumer<Boolean> consumer) {
+        deleteDocumentAsync(key, value).thenAccept(consumer);
     }
     /**
      * Retrieves a document from the collection based on the specified key-value pair.
+     * If the near cache is enabled, the document is served from it when possible.
      *
      * @param key   the key to match against
      * @param value the value to match against
@@ -77,7 +388,60 @@ public class DatabaseCollection implements ICollection {
      */
     @Override
     public Document getDocument(String key, Object value) {
-        return collection.find(eq(key, value)).first();
+        return timed("getDocument", () -> {
+            NearCache cache = this.nearCache;
+            if (cache == null) {
+                return findFirst(key, value);
+            }
+            Document cached = cache.get(key, value);
+            return cached != null ? cached : load(cache, key, value);
+        });
+    }
+
+    /**
+     * Loads a document that missed the near cache and caches it, unless an invalidation happened meanwhile.
+     */
+    private Document load(NearCache cache, String key, Object value) {
+        long stamp = cache.stamp();
+        Document document = findFirst(key, value);
+        cache.put(key, value, document, stamp);
+        return document;
+    }
+
+    private Document findFirst(String key, Object value) {
+        Bson filter = eq(key, value);
+        observe("getDocument(" + key + ")", filter, null);
+        return collection.find(filter).first();
+    }
+    /**
+     * Retrieves a document from the collection asynchronously based on the specified key-value pair.
+     *
+     * @param key   the key to match against
+     * @param value the value to match against
+     * @return a future completed with the matched document, or null if no document was found
+     */
+    @Override
+    public CompletableFuture<Document> getDocumentAsync(String key, Object value) {
+        NearCache cache = this.nearCache;
+        if (cache != null) {
+            Document cached = cache.get(key, value);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        LookupBatcher batcher = this.lookupBatcher;
+        if (batcher == null) {
+            return async(() -> timed("getDocument", () -> cache == null ? findFirst(key, value) : load(cache, key, value)));
+        }
+        observe("getDocument(" + key + ")", eq(key, value), null);
+        if (cache == null) {
+            return batcher.load(key, value);
+        }
+        long stamp = cache.stamp();
+        return batcher.load(key, value).thenApply(document -> {
+            cache.put(key, value, document, stamp);
+            return document;
+        });
     }
     /**
      * Retrieves a document from the collection asynchronously based on the specified key-value pair,
@@ -89,31 +453,246 @@ public class DatabaseCollection implements ICollection {
      */
     @Override
     public void getDocumentAsync(String key, Object value, Consumer<Document> consumer) {
-        this.service.submit(() -> consumer.accept(getDocument(key, value)));
+        getDocumentAsync(key, value).thenAccept(consumer);
+    }
+
+    /**
+     * Retrieves the projected fields of a document from the collection based on the specified key-value pair.
+     * Projected lookups always query MongoDB, since the near cache only holds whole documents.
+     *
+     * @param key        the key to match against
+     * @param value      the value to match against
+     * @param projection the projection applied to the document, or null for the whole document
+     * @return the projected document, or null if no document was found
+     */
+    @Override
+    public Document getDocument(String key, Object value, Bson projection) {
+        if (projection == null) {
+            return getDocument(key, value);
+        }
+        return timed("getDocument", () -> {
+            Bson filter = eq(key, value);
+            observe("getDocument(" + key + ")", filter, null);
+            return collection.find(filter).projection(projection).first();
+        });
     }
 
     /**
-     * Retrieves two documents from the collection based on the specified key-value pairs.
+     * Retrieves the projected fields of a document from the collection asynchronously based on the specified key-value pair.
+     *
+     * @param key        the key to match against
+     * @param value      the value to match against
+     * @param projection the projection applied to the document, or null for the whole document
+     * @return a future completed with the projected document, or null if no document was found
+     */
+    @Override
+    public CompletableFuture<Document> getDocumentAsync(String key, Object value, Bson projection) {
+        if (projection == null) {
+            return getDocumentAsync(key, value);
+        }
+        return async(() -> getDocument(key, value, projection));
+    }
+
+    /**
+     * Retrieves two documents from the collection based on the specified key-value pairs with a single query.
+     * Each key-value pair is expected to identify one document.
      *
      * @param firstKey    the key to match against for the first document
      * @param firstValue  the value to match against for the first document
      * @param secondKey   the key to match against for the second document
      * @param secondValue the value to match against for the second document
-     * @return a Pair of the matched documents, or null if either document was not found
+     * @return a Pair of the matched documents, each being null if it was not found
      */
     @Override
     public Pair<Document, Document> getDocuments(String firstKey, Object firstValue, String secondKey, Object secondValue) {
-        return new Pair<>(getDocument(firstKey, firstValue), getDocument(secondKey, secondValue));
+        return timed("getDocuments", () -> {
+            Bson filter = firstKey.equals(secondKey)
+                    ? in(firstKey, firstValue, secondValue)
+                    : or(eq(firstKey, firstValue), eq(secondKey, secondValue));
+            Document first = null;
+            Document second = null;
+            for (Document document : collection.find(filter)) {
+                if (first == null && DocumentValues.matches(document, firstKey, firstValue)) {
+                    first = document;
+                }
+                if (second == null && DocumentValues.matches(document, secondKey, secondValue)) {
+                    second = document;
+                }
+            }
+            return new Pair<>(first, second);
+        });
+    }
+
+    /**
+     * Retrieves two documents from the collection asynchronously based on the specified key-value pairs.
+     *
+     * @param firstKey    the key to match against for the first document
+     * @param firstValue  the value to match against for the first document
+     * @param secondKey   the key to match against for the second document
+     * @param secondValue the value to match against for the second document
+     * @return a future completed with a Pair of the matched documents
+     */
+    @Override
+    public CompletableFuture<Pair<Document, Document>> getDocumentsAsync(String firstKey, Object firstValue, String secondKey, Object secondValue) {
+        return async(() -> getDocuments(firstKey, firstValue, secondKey, secondValue));
+    }
+
+    /**
+     * Retrieves all documents whose key matches one of the specified values with a single {@code $in} query.
+     *
+     * @param key    the key to match against
+     * @param values the values to match against
+     * @return a List containing the matched documents
+     */
+    @Override
+    public List<Document> getDocuments(String key, Collection<?> values) {
+        return timed("getDocuments", () -> {
+            if (values.isEmpty()) {
+                return new ArrayList<>();
+            }
+            Bson filter = in(key, values);
+            observe("getDocuments(" + key + ")", filter, null);
+            return collection.find(filter).into(new ArrayList<>());
+        });
+    }
+
+    /**
+     * Retrieves all documents whose key matches one of the specified values asynchronously.
+     *
+     * @param key    the key to match against
+     * @param values the values to match against
+     * @return a future completed with a List containing the matched documents
+     */
+    @Override
+    public CompletableFuture<List<Document>> getDocumentsAsync(String key, Collection<?> values) {
+        return async(() -> getDocuments(key, values));
     }
 
     /**
      * Retrieves all documents in the collection.
+     * This loads the whole collection onto the heap; prefer {@link #stream()} for large collections.
      *
      * @return a List containing all the documents in the collection
      */
     @Override
     public List<Document> collection() {
-        return collection.find().into(new ArrayList<>());
+        return timed("collection", () -> collection.find().into(new ArrayList<>()));
+    }
+
+    /**
+     * Retrieves all documents in the collection asynchronously.
+     *
+     * @return a future completed with a List containing all the documents in the collection
+     */
+    @Override
+    public CompletableFuture<List<Document>> collectionAsync() {
+        return async(this::collection);
+    }
+
+    /**
+     * Retrieves the projected fields of all documents in the collection.
+     *
+     * @param projection the projection applied to every document, or null for whole documents
+     * @return a List containing all projected documents in the collection
+     */
+    @Override
+    public List<Document> collection(Bson projection) {
+        return timed("collection", () -> collection.find().projection(projection).into(new ArrayList<>()));
+    }
+
+    /**
+     * Retrieves the projected fields of all documents in the collection asynchronously.
+     *
+     * @param projection the projection applied to every document, or null for whole documents
+     * @return a future completed with a List containing all projected documents in the collection
+     */
+    @Override
+    public CompletableFuture<List<Document>> collectionAsync(Bson projection) {
+        return async(() -> collection(projection));
+    }
+
+    /**
+     * Streams all documents in the collection through a driver cursor.
+     *
+     * @return a Stream of all documents, which must be closed to release the cursor
+     */
+    @Override
+    public Stream<Document> stream() {
+        return stream(null, null, 0);
+    }
+
+    /**
+     * Streams the matching documents through a driver cursor, fetching them in batches of the specified size.
+     *
+     * @param filter     the filter the documents have to match, or null for all documents
+     * @param projection the projection applied to every document, or null for whole documents
+     * @param batchSize  the number of documents fetched per round trip, or 0 for the server default
+     * @return a Stream of the matching documents, which must be closed to release the cursor
+     */
+    @Override
+    public Stream<Document> stream(Bson filter, Bson projection, int batchSize) {
+        return stream(filter, projection, batchSize, List.of(), null, false);
+    }
+
+    /**
+     * Streams the matching documents in parallel. The collection is split into {@code _id} ranges of roughly
+     * equal size, and every range is read through its own cursor once a worker reaches it.
+     * <p>
+     * The bounds of the ranges are taken from a {@code $sample} of the {@code _id} values, which costs one small
+     * aggregation instead of a scan per range. The ranges cover the whole {@code _id} space, so documents inserted
+     * while streaming can only shift the balance of the ranges, not be read twice or skipped for being out of range.
+     * Comparison filters only match values of the same BSON type, so the bounds all share the most sampled
+     * {@code _id} type and documents with an {@code _id} of another type are read through one additional range.
+     *
+     * @param filter     the filter the documents have to match, or null for all documents
+     * @param projection the projection applied to every document, or null for whole documents
+     * @param batchSize  the number of documents fetched per round trip, or 0 for the server default
+     * @param chunks     the number of {@code _id} ranges the collection is split into
+     * @return a parallel Stream of the matching documents, which must be closed to release the cursors
+     */
+    @Override
+    public Stream<Document> parallelStream(Bson filter, Bson projection, int batchSize, int chunks) {
+        if (chunks < 2) {
+            return stream(filter, projection, batchSize, List.of(), null, true);
+        }
+        // the server sorts the sample, so the bounds follow the BSON order of the _id values
+        List<Object> sampled = new ArrayList<>();
+        for (Document document : collection.aggregate(Arrays.asList(
+                Aggregates.sample(chunks * SAMPLES_PER_CHUNK),
+                Aggregates.project(include("_id")),
+                Aggregates.sort(Sorts.ascending("_id"))))) {
+            sampled.add(document.get("_id"));
+        }
+        String idType = DocumentSpliterator.dominantType(sampled);
+        if (idType == null) {
+            return stream(filter, projection, batchSize, List.of(), null, true);
+        }
+        List<Object> typed = new ArrayList<>();
+        for (Object id : sampled) {
+            if (idType.equals(DocumentSpliterator.typeOf(id))) {
+                typed.add(id);
+            }
+        }
+        List<Object> bounds = new ArrayList<>();
+        for (int index = 1; index < chunks; index++) {
+            Object bound = typed.get(typed.size() * index / chunks);
+            if (bounds.isEmpty() || !bounds.get(bounds.size() - 1).equals(bound)) {
+                bounds.add(bound);
+            }
+        }
+        return stream(filter, projection, batchSize, bounds, idType, true);
+    }
+
+    private Stream<Document> stream(Bson filter, Bson projection, int batchSize, List<Object> bounds, String idType, boolean parallel) {
+        Queue<MongoCursor<Document>> cursors = new ConcurrentLinkedQueue<>();
+        DocumentSpliterator spliterator = new DocumentSpliterator(collection, filter != null ? filter : new BsonDocument(),
+                projection, batchSize, bounds, idType, cursors);
+        return StreamSupport.stream(spliterator, parallel).onClose(() -> {
+            MongoCursor<Document> cursor;
+            while ((cursor = cursors.poll()) != null) {
+                cursor.close();
+            }
+        });
     }
 
     /**
@@ -135,12 +714,47 @@ public class DatabaseCollection implements ICollection {
      */
     @Override
     public void updateDocument(String key, Object value, Document document) {
-        this.collection.replaceOne(eq(key, value), document);
+        timedRun("updateDocument", () -> {
+            flushUpdates();
+            this.collection.replaceOne(eq(key, value), document);
+            listeners.forEach(listener -> listener.replaced(key, value, document));
+        });
+    }
+
+    /**
+     * Updates a document in the collection asynchronously based on the specified key-value pair.
+     *
+     * @param key      the key to match against
+     * @param value    the value to match against
+     * @param document the new document to replace the matched document
+     * @return a future completed with true if the update succeeded, false otherwise
+     */
+    @Override
+    public CompletableFuture<Boolean> updateDocumentAsync(String key, Object value, Document document) {
+        return write(new ReplaceOneModel<>(eq(key, value), document), () -> {
+            updateDocument(key, value, document);
+            return true;
+        }, () -> listeners.forEach(listener -> listener.replaced(key, value, document)));
+    }
+
+    /**
+     * Updates a document in the collection asynchronously based on the specified key-value pair
+     * and reports whether the update succeeded.
+     *
+     * @param key      the key to match against
+     * @param value    the value to match against
+     * @param document the new document to replace the matched document
+     * @param consumer the consumer to accept the result of the update
+     */
+    @Override
+    public void updateDocumentAsync(String key, Object value, Document document, Consumer<Boolean> consumer) {
+        updateDocumentAsync(key, value, document).thenAccept(consumer);
     }
 
     /**
      * Updates an element within a document in the collection based on the specified key-value pair,
-     * and the key-value pair of the element to be updated.
+     * and the key-value pair of the element to be updated. The update is sent as a plain {@code updateOne},
+     * unless a materialized view needs the previous document to derive its delta.
      *
      * @param key         the key to match against
      * @param value       the value to match against
@@ -149,49 +763,204 @@ public class DatabaseCollection implements ICollection {
      */
     @Override
     public void updateElement(String key, Object value, String updateKey, Object updateValue) {
-        this.collection.findOneAndUpdate(eq(key, value),
-                new BasicDBObject().append("$set", new BasicDBObject().append(updateKey, updateValue)));
+        timedRun("updateElement", () -> {
+            flushUpdates();
+            Bson update = Updates.set(updateKey, updateValue);
+            if (listeners.stream().anyMatch(listener -> listener.needsPrevious(updateKey))) {
+                Document previous = this.collection.findOneAndUpdate(eq(key, value), update);
+                if (previous != null) {
+                    listeners.forEach(listener -> listener.elementUpdated(key, value, updateKey, updateValue, previous));
+                }
+            } else if (this.collection.updateOne(eq(key, value), update).getMatchedCount() > 0) {
+                listeners.forEach(listener -> listener.elementUpdated(key, value, updateKey, updateValue, null));
+            }
+        });
+    }
 
+    /**
+     * Updates an element within a document in the collection asynchronously.
+     *
+     * @param key         the key to match against
+     * @param value       the value to match against
+     * @param updateKey   the key of the element to be updated
+     * @param updateValue the new value for the element
+     * @return a future completed with true if the update succeeded, false otherwise
+     */
+    @Override
+    public CompletableFuture<Boolean> updateElementAsync(String key, Object value, String updateKey, Object updateValue) {
+        UpdateAccumulator accumulator = this.updateAccumulator;
+        if (accumulator != null) {
+            return accumulator.set(key, value, updateKey, updateValue);
+        }
+        return write(new UpdateOneModel<>(eq(key, value), Updates.set(updateKey, updateValue)), () -> {
+            updateElement(key, value, updateKey, updateValue);
+            return true;
+        }, () -> listeners.forEach(listener -> listener.elementUpdated(key, value, updateKey, updateValue, null)));
+    }
+
+    /**
+     * Updates an element within a document in the collection asynchronously and reports whether the update succeeded.
+     *
+     * @param key         the key to match against
+     * @param value       the value to match against
+     * @param updateKey   the key of the element to be updated
+     * @param updateValue the new value for the element
+     * @param consumer    the consumer to accept the result of the update
+     */
+    @Override
+    public void updateElementAsync(String key, Object value, String updateKey, Object updateValue, Consumer<Boolean> consumer) {
+        updateElementAsync(key, value, updateKey, updateValue).thenAccept(consumer);
+    }
+
+    /**
+     * Atomically increments a numeric element within a document in the collection based on the specified key-value pair.
+     * A missing element is created with the delta as its value.
+     *
+     * @param key       the key to match against
+     * @param value     the value to match against
+     * @param updateKey the key of the element to be incremented
+     * @param delta     the amount to add, which may be negative
+     * @return true if a document was matched, false otherwise
+     */
+    @Override
+    public boolean increment(String key, Object value, String updateKey, Number delta) {
+        return timed("increment", () -> {
+            flushUpdates();
+            boolean matched = this.collection.updateOne(eq(key, value), Updates.inc(updateKey, delta)).getMatchedCount() > 0;
+            if (matched) {
+                listeners.forEach(listener -> listener.incremented(key, value, updateKey, delta));
+            }
+            return matched;
+        });
+    }
+
+    /**
+     * Atomically increments a numeric element within a document in the collection asynchronously.
+     *
+     * @param key       the key to match against
+     * @param value     the value to match against
+     * @param updateKey the key of the element to be incremented
+     * @param delta     the amount to add, which may be negative
+     * @return a future completed with true if the update succeeded, false otherwise
+     */
+    @Override
+    public CompletableFuture<Boolean> incrementAsync(String key, Object value, String updateKey, Number delta) {
+        UpdateAccumulator accumulator = this.updateAccumulator;
+        if (accumulator != null) {
+            return accumulator.increment(key, value, updateKey, delta);
+        }
+        return write(new UpdateOneModel<>(eq(key, value), Updates.inc(updateKey, delta)),
+                () -> increment(key, value, updateKey, delta),
+                () -> listeners.forEach(listener -> listener.incremented(key, value, updateKey, delta)));
+    }
+
+    /**
+     * Atomically increments a numeric element within a document in the collection asynchronously
+     * and reports whether the update succeeded.
+     *
+     * @param key       the key to match against
+     * @param value     the value to match against
+     * @param updateKey the key of the element to be incremented
+     * @param delta     the amount to add, which may be negative
+     * @param consumer  the consumer to accept the result of the update
+     */
+    @Override
+    public void incrementAsync(String key, Object value, String updateKey, Number delta, Consumer<Boolean> consumer) {
+        incrementAsync(key, value, updateKey, delta).thenAccept(consumer);
     }
 
     /**
      * Calculates the sum of integer values in the specified field across all documents in the collection.
+     * If the sum is materialized through {@link #materializeTotal(String, long, TimeUnit, boolean)} it is answered from memory.
      *
      * @param field the field to calculate the sum for
      * @return the sum of integer values, or -1 if no documents were found
      */
     @Override
     public int sumTotalInt(String field) {
-        List<Bson> pipeline = List.of(group(null, sum("total", eq("$toInt", "$" + field))));
-        AggregateIterable<Document> result = collection.aggregate(pipeline);
-        Document document = result.first();
-        if(document != null) {
-            return document.getInteger("total");
-        }
-        return -1;
+        return timed("sumTotal", () -> {
+            RunningTotal total = runningTotals.get(field);
+            if (total != null) {
+                return (int) total.get();
+            }
+            Number result = aggregateTotal(field, "$toInt");
+            if (result != null) {
+                return result.intValue();
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * Calculates the sum of integer values in the specified field asynchronously.
+     *
+     * @param field the field to calculate the sum for
+     * @return a future completed with the sum of integer values, or -1 if no documents were found
+     */
+    @Override
+    public CompletableFuture<Integer> sumTotalIntAsync(String field) {
+        return async(() -> sumTotalInt(field));
     }
 
     /**
      * Calculates the sum of long values in the specified field across all documents in the collection.
+     * If the sum is materialized through {@link #materializeTotal(String, long, TimeUnit, boolean)} it is answered from memory.
      *
      * @param field the field to calculate the sum for
      * @return the sum of long values, or -1 if no documents were found
      */
     @Override
     public long sumTotalLong(String field) {
-        List<Bson> pipeline = List.of(group(null, sum("total", eq("$toLong", "$" + field))));
+        return timed("sumTotal", () -> {
+            RunningTotal total = runningTotals.get(field);
+            if (total != null) {
+                return total.get();
+            }
+            Number result = aggregateTotal(field, "$toLong");
+            if (result != null) {
+                return result.longValue();
+            }
+            return -1L;
+        });
+    }
+
+    /**
+     * Sums the specified field across all documents after converting every value with the specified operator.
+     *
+     * @param field      the field to sum
+     * @param conversion the conversion operator, such as {@code $toInt} or {@code $toLong}
+     * @return the sum, or null if no documents were found
+     */
+    private Number aggregateTotal(String field, String conversion) {
+        List<Bson> pipeline = List.of(group(null, sum("total", eq(conversion, "$" + field))));
         AggregateIterable<Document> result = collection.aggregate(pipeline);
         Document document = result.first();
-        if(document != null) {
-            return document.getLong("total");
+        if (document != null) {
+            return (Number) document.get("total");
         }
-        return -1;
+        return null;
+    }
+
+    /**
+     * Calculates the sum of long values in the specified field asynchronously.
+     *
+     * @param field the field to calculate the sum for
+     * @return a future completed with the sum of long values, or -1 if no documents were found
+     */
+    @Override
+    public CompletableFuture<Long> sumTotalLongAsync(String field) {
+        return async(() -> sumTotalLong(field));
     }
 
     /**
      * Retrieves the rank of a document based on the specified field and unique identifier.
      * The rank represents the position of the document when sorted in descending order of the field.
-     * The rank starts from 1 for the highest value and increases for lower values.
+     * The rank starts from 1 for the highest value and increases for lower values; documents sharing a value share a rank.
+     * <p>
+     * If the field is tracked through {@link #trackRank(String)} the rank is answered from memory. Otherwise the score
+     * of the document is looked up and the documents above it are counted. Both queries need indexes, which have to be
+     * declared through {@link #ensureIndexes(IndexModel...)}, for example {@code new IndexModel(Indexes.ascending("uniqueId"))}
+     * and {@code new IndexModel(Indexes.descending(field))}; without them the query advisor reports both as collection scans.
      *
      * @param field     the field to rank against
      * @param uniqueId  the unique identifier of the document to rank
@@ -199,29 +968,45 @@ public class DatabaseCollection implements ICollection {
      */
     @Override
     public int rank(String field, UUID uniqueId) {
-        List<Bson> pipeline = List.of(
-                Aggregates.sort(Sorts.descending(field)),
-                Aggregates.group(null, Accumulators.push("documents", "$$ROOT")),
-                Aggregates.project(Projections.computed("rank", new Document("$indexOfArray", List.of("$documents.uniqueId", uniqueId)))),
-                Aggregates.match(Filters.gte("rank", 0))
-        );
-
-        AggregateIterable<Document> result = collection.aggregate(pipeline);
-        List<Document> resultList = new ArrayList<>();
-        result.into(resultList);
-
-        if (!resultList.isEmpty()) {
-            Document rankDocument = resultList.get(0);
-            int rank = rankDocument.getInteger("rank");
-            return rank + 1;
-        }
+        return timed("rank", () -> {
+            RankTracker tracker = rankTrackers.get(field);
+            if (tracker != null) {
+                return tracker.rank(uniqueId);
+            }
+            Bson lookup = eq(RankTracker.UNIQUE_ID, uniqueId);
+            observe("rank(" + field + ").lookup", lookup, null);
+            Document document = collection.find(lookup)
+                    .projection(fields(include(field), excludeId()))
+                    .first();
+            if (document == null) {
+                return -1;
+            }
+            Object score = document.get(field);
+            // documents without the field sort below every document that has it
+            Bson above = score == null ? exists(field) : gt(field, score);
+            observe("rank(" + field + ").count", above, null);
+            return (int) collection.countDocuments(above) + 1;
+        });
+    }
 
-        return -1;
+    /**
+     * Retrieves the rank of a document asynchronously.
+     *
+     * @param field    the field to rank against
+     * @param uniqueId the unique identifier of the document to rank
+     * @return a future completed with the rank of the document, or -1 if the document was not found
+     */
+    @Override
+    public CompletableFuture<Integer> rankAsync(String field, UUID uniqueId) {
+        return async(() -> rank(field, uniqueId));
     }
 
     /**
      * Retrieves the top documents from the collection based on the specified field and limit.
      * The documents are sorted in ascending order of the field.
+     * <p>
+     * If the combination of field and limit is cached through {@link #cacheTopWall(String, int, long, TimeUnit)},
+     * the documents are served from memory and the returned list is unmodifiable.
      *
      * @param field the field to sort and retrieve the top documents
      * @param limit the maximum number of documents to retrieve
@@ -229,6 +1014,17 @@ public class DatabaseCollection implements ICollection {
      */
     @Override
     public List<Document> topWall(String field, int limit) {
+        return timed("topWall", () -> {
+            Leaderboard leaderboard = leaderboards.get(new Pair<>(field, limit));
+            if (leaderboard != null) {
+                return leaderboard.get();
+            }
+            return queryTopWall(field, limit);
+        });
+    }
+
+    private List<Document> queryTopWall(String field, int limit) {
+        observe("topWall(" + field + ")", new BsonDocument(), Sorts.descending(field));
         List<Bson> pipeline = Arrays.asList(
                 Aggregates.sort(Sorts.descending(field)),
                 Aggregates.limit(limit)
@@ -238,4 +1034,196 @@ public class DatabaseCollection implements ICollection {
         iterable.into(resultList);
         return resultList;
     }
+
+    /**
+     * Retrieves the top documents from the collection asynchronously.
+     *
+     * @param field the field to sort and retrieve the top documents
+     * @param limit the maximum number of documents to retrieve
+     * @return a future completed with a List containing the top documents
+     */
+    @Override
+    public CompletableFuture<List<Document>> topWallAsync(String field, int limit) {
+        return async(() -> topWall(field, limit));
+    }
+
+    /**
+     * Retrieves the projected fields of the top documents from the collection. Projected reads always query
+     * MongoDB, since the cached leaderboards only hold whole documents.
+     *
+     * @param field      the field to sort and retrieve the top documents
+     * @param limit      the maximum number of documents to retrieve
+     * @param projection the projection applied to every document, or null for whole documents
+     * @return a List containing the projected top documents
+     */
+    @Override
+    public List<Document> topWall(String field, int limit, Bson projection) {
+        if (projection == null) {
+            return topWall(field, limit);
+        }
+        return timed("topWall", () -> {
+            Bson sort = Sorts.descending(field);
+            observe("topWall(" + field + ")", new BsonDocument(), sort);
+            return collection.find().sort(sort).limit(limit).projection(projection).into(new ArrayList<>());
+        });
+    }
+
+    /**
+     * Retrieves the projected fields of the top documents from the collection asynchronously.
+     *
+     * @param field      the field to sort and retrieve the top documents
+     * @param limit      the maximum number of documents to retrieve
+     * @param projection the projection applied to every document, or null for whole documents
+     * @return a future completed with a List containing the projected top documents
+     */
+    @Override
+    public CompletableFuture<List<Document>> topWallAsync(String field, int limit, Bson projection) {
+        return async(() -> topWall(field, limit, projection));
+    }
+
+    /**
+     * Reports a query to the query advisor, if the diagnostic mode is enabled.
+     *
+     * @param shape  the shape of the query
+     * @param filter the filter of the query
+     * @param sort   the sort of the query, or null if it is unsorted
+     */
+    void observe(String shape, Bson filter, Bson sort) {
+        QueryAdvisor advisor = this.queryAdvisor;
+        if (advisor != null) {
+            advisor.observe(shape, filter, sort);
+        }
+    }
+
+    /**
+     * Registers a listener for the writes made through this collection, the changes seen by the change feed, or both.
+     *
+     * @param listener the listener to register
+     * @param local    whether the listener receives the writes made through this collection
+     * @param feed     whether the listener receives the changes seen by the change feed
+     */
+    private void register(CollectionListener listener, boolean local, boolean feed) {
+        if (local) {
+            listeners.add(listener);
+        }
+        if (feed) {
+            feedListeners.add(listener);
+        }
+    }
+
+    /**
+     * Writes the pending coalesced updates, so that a synchronous write is applied after them.
+     */
+    /**
+     * Tells whether asynchronous writes go through the write-behind queue.
+     *
+     * @return true if write-behind mode is enabled, false otherwise
+     */
+    boolean writesBehind() {
+        return writeBehind != null;
+    }
+
+    /**
+     * Runs an insert that a typed view encodes itself, recorded and announced like {@link #createDocument(Document)}.
+     *
+     * @param insert   the insert of the typed view
+     * @param document supplies the inserted document, only called if a listener is registered
+     */
+    void createDocument(Runnable insert, Supplier<Document> document) {
+        timedRun("createDocument", () -> {
+            insert.run();
+            if (!listeners.isEmpty()) {
+                Document inserted = document.get();
+                listeners.forEach(listener -> listener.inserted(inserted));
+            }
+        });
+    }
+
+    /**
+     * Runs a replacement that a typed view encodes itself, recorded and announced like
+     * {@link #updateDocument(String, Object, Document)}.
+     *
+     * @param key      the key that is matched against
+     * @param value    the value that is matched against
+     * @param replace  the replacement of the typed view
+     * @param document supplies the new document, only called if a listener is registered
+     */
+    void updateDocument(String key, Object value, Runnable replace, Supplier<Document> document) {
+        timedRun("updateDocument", () -> {
+            flushUpdates();
+            replace.run();
+            if (!listeners.isEmpty()) {
+                Document replaced = document.get();
+                listeners.forEach(listener -> listener.replaced(key, value, replaced));
+            }
+        });
+    }
+
+    private void flushUpdates() {
+        UpdateAccumulator accumulator = this.updateAccumulator;
+        if (accumulator != null) {
+            accumulator.flush();
+        }
+    }
+
+    /**
+     * Runs an operation, recording its latency if metrics are enabled.
+     *
+     * @param operation the name of the operation
+     * @param action    the operation to run
+     * @param <T>       the result type of the operation
+     * @return the result of the operation
+     */
+    <T> T timed(String operation, Supplier<T> action) {
+        DatabaseMetrics registry = this.metrics;
+        if (registry == null) {
+            return action.get();
+        }
+        return registry.time(collection.getNamespace().getFullName(), operation, action);
+    }
+
+    /**
+     * Runs an operation without a result, recording its latency if metrics are enabled.
+     *
+     * @param operation the name of the operation
+     * @param action    the operation to run
+     */
+    private void timedRun(String operation, Runnable action) {
+        timed(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs an operation on the shared executor of the database.
+     *
+     * @param operation the operation to run
+     * @param <T>       the result type of the operation
+     * @return a future completed with the result of the operation
+     */
+    <T> CompletableFuture<T> async(Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(operation, executor);
+    }
+
+    /**
+     * Runs an asynchronous write either through the write-behind queue or directly on the executor.
+     *
+     * @param model   the bulk write model used in write-behind mode
+     * @param direct  the write executed when write-behind mode is disabled
+     * @param applied the notification of the listeners once a write-behind write succeeded
+     * @return a future completed with true if the write succeeded, false otherwise
+     */
+    private CompletableFuture<Boolean> write(WriteModel<Document> model, Supplier<Boolean> direct, Runnable applied) {
+        WriteBehindQueue queue = this.writeBehind;
+        if (queue != null) {
+            return queue.enqueue(model).thenApply(success -> {
+                if (success) {
+                    applied.run();
+                }
+                return success;
+            });
+        }
+        return async(direct).exceptionally(throwable -> false);
+    }
 }
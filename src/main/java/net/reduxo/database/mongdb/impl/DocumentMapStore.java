@@ -0,0 +1,302 @@
+package de.rubymc.mongodb.impl;
+
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastJsonValue;
+import com.hazelcast.map.MapLoaderLifecycleSupport;
+import com.hazelcast.map.MapStore;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Projections.excludeId;
+import static com.mongodb.client.model.Projections.fields;
+import static com.mongodb.client.model.Projections.include;
+
+/**
+ * Backs a Hazelcast map with a {@link DatabaseCollection}, so that the members owning the entries load missing
+ * entries from MongoDB and write changed entries back, instead of every server writing the same documents itself.
+ * Entries are keyed by the value of one document field and hold the document as MongoDB extended JSON, which keeps
+ * the BSON types of its fields. Clients read and write such maps through a {@link DocumentValueCodec}, registered with
+ * {@code ServerOptions.codec(map, DocumentValueCodec.create())}; the default {@code JsonValueCodec} cannot decode the
+ * type wrappers of extended JSON. Stored values have to be documents or extended JSON; the key field of the written
+ * document is always set to the typed map key, so that the upsert finds the document again.
+ * With write-behind, Hazelcast hands the changed entries over in batches, which are written with one {@code bulkWrite}.
+ * <p>
+ * Members create the store from the properties of {@link #config}; the class has to be on their classpath.
+ */
+public class DocumentMapStore implements MapStore<Object, Object>, MapLoaderLifecycleSupport {
+
+    public static final String ADDRESS = "address";
+    public static final String PORT = "port";
+    public static final String USERNAME = "username";
+    public static final String PASSWORD = "password";
+    public static final String DATABASE = "database";
+    public static final String COLLECTION = "collection";
+    public static final String KEY_FIELD = "keyField";
+    public static final String QUERYABLE = "queryable";
+    public static final String LOAD_ALL_KEYS = "loadAllKeys";
+
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder().outputMode(JsonMode.RELAXED).build();
+    private static final ReplaceOptions UPSERT = new ReplaceOptions().upsert(true);
+
+    private DatabaseCollection collection;
+    private String keyField;
+    private boolean queryable;
+    private boolean loadAllKeys;
+    private Database database;
+
+    /**
+     * Constructs a new DocumentMapStore configured through the properties passed to {@link #init}.
+     */
+    public DocumentMapStore() {
+    }
+
+    /**
+     * Constructs a new DocumentMapStore on an existing collection, for members embedded in an application that is already connected.
+     *
+     * @param collection the collection backing the map
+     * @param keyField   the document field holding the map key
+     * @param queryable  whether entries are loaded as {@link HazelcastJsonValue} rather than as JSON strings
+     */
+    public DocumentMapStore(DatabaseCollection collection, String keyField, boolean queryable) {
+        this.collection = collection;
+        this.keyField = keyField;
+        this.queryable = queryable;
+    }
+
+    /**
+     * Creates a MapStoreConfig making members create a DocumentMapStore connected to the specified collection.
+     * The config writes behind with a delay of one second, batches of up to 500 entries and coalescing, so that only
+     * the latest value of an entry changed several times within the delay is written, and loads entries lazily.
+     * All of these can be changed on the returned config, for example with {@code setWriteDelaySeconds(0)} for write-through
+     * or {@code setInitialLoadMode(InitialLoadMode.EAGER)} together with the {@link #LOAD_ALL_KEYS} property.
+     *
+     * @param address    the address of the MongoDB server
+     * @param port       the port number of the MongoDB server
+     * @param username   the username for authentication
+     * @param password   the password for authentication
+     * @param database   the name of the database
+     * @param table      the name of the collection
+     * @param keyField   the document field holding the map key
+     * @return the created MapStoreConfig
+     */
+    public static MapStoreConfig config(String address, int port, String username, String password, String database, String table, String keyField) {
+        Properties properties = new Properties();
+        properties.setProperty(ADDRESS, address);
+        properties.setProperty(PORT, String.valueOf(port));
+        properties.setProperty(USERNAME, username);
+        properties.setProperty(PASSWORD, password);
+        properties.setProperty(DATABASE, database);
+        properties.setProperty(COLLECTION, table);
+        properties.setProperty(KEY_FIELD, keyField);
+        return new MapStoreConfig()
+                .setEnabled(true)
+                .setClassName(DocumentMapStore.class.getName())
+                .setProperties(properties)
+                .setWriteDelaySeconds(1)
+                .setWriteBatchSize(500)
+                .setWriteCoalescing(true)
+                .setInitialLoadMode(MapStoreConfig.InitialLoadMode.LAZY);
+    }
+
+    /**
+     * Connects to the collection named in the properties, unless the store was constructed on an existing collection.
+     *
+     * @param hazelcastInstance the member the store belongs to
+     * @param properties        the properties of the map store config
+     * @param mapName           the name of the map
+     */
+    @Override
+    public void init(HazelcastInstance hazelcastInstance, Properties properties, String mapName) {
+        this.queryable = this.queryable || Boolean.parseBoolean(properties.getProperty(QUERYABLE));
+        this.loadAllKeys = Boolean.parseBoolean(properties.getProperty(LOAD_ALL_KEYS));
+        if (collection != null) {
+            return;
+        }
+        this.keyField = properties.getProperty(KEY_FIELD);
+        this.database = Database.create(properties.getProperty(ADDRESS), Integer.parseInt(properties.getProperty(PORT)),
+                properties.getProperty(USERNAME), properties.getProperty(PASSWORD), properties.getProperty(DATABASE));
+        this.database.connect();
+        this.collection = database.createDatabaseCollection(properties.getProperty(COLLECTION));
+    }
+
+    /**
+     * Disconnects from MongoDB if the store connected itself.
+     */
+    @Override
+    public void destroy() {
+        if (database != null) {
+            database.disconnect();
+        }
+    }
+
+    /**
+     * Loads the document of a key.
+     *
+     * @param key the map key
+     * @return the document as extended JSON, or null if no document has the key
+     */
+    @Override
+    public Object load(Object key) {
+        Document document = collection.getDocument(keyField, key);
+        return document == null ? null : toValue(document, queryable);
+    }
+
+    /**
+     * Loads the documents of several keys with a single {@code $in} query.
+     *
+     * @param keys the map keys
+     * @return the documents as extended JSON by the requested key, without the keys that have no document
+     */
+    @Override
+    public Map<Object, Object> loadAll(Collection<Object> keys) {
+        Map<Object, Object> values = new HashMap<>();
+        byRequestedKey(keyField, keys, collection.getDocuments(keyField, keys))
+                .forEach((key, document) -> values.put(key, toValue(document, queryable)));
+        return values;
+    }
+
+    /**
+     * Retrieves the keys of all documents to preload, if the {@link #LOAD_ALL_KEYS} property is set. The keys have
+     * the types the MongoDB driver decodes them into, for example an {@code Integer} for a 64-bit key small enough
+     * to have been stored as a 32-bit integer, so maps preloading their keys should use keys of those types.
+     *
+     * @return the keys of all documents, or null to load entries only when they are read
+     */
+    @Override
+    public Iterable<Object> loadAllKeys() {
+        if (!loadAllKeys) {
+            return null;
+        }
+        List<Object> keys = new ArrayList<>();
+        for (Document document : collection.mongoCollection().find().projection(fields(include(keyField), excludeId()))) {
+            Object key = document.get(keyField);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Writes an entry, replacing the document of its key or inserting it.
+     *
+     * @param key   the map key
+     * @param value the document or its extended JSON
+     */
+    @Override
+    public void store(Object key, Object value) {
+        collection.mongoCollection().replaceOne(eq(keyField, key), toDocument(keyField, key, value), UPSERT);
+    }
+
+    /**
+     * Writes a batch of entries with a single unordered {@code bulkWrite}.
+     *
+     * @param values the documents or their extended JSON by key
+     */
+    @Override
+    public void storeAll(Map<Object, Object> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        List<WriteModel<Document>> models = new ArrayList<>(values.size());
+        values.forEach((key, value) -> models.add(new ReplaceOneModel<>(eq(keyField, key), toDocument(keyField, key, value), UPSERT)));
+        collection.mongoCollection().bulkWrite(models, new BulkWriteOptions().ordered(false));
+    }
+
+    /**
+     * Deletes the document of a key.
+     *
+     * @param key the map key
+     */
+    @Override
+    public void delete(Object key) {
+        collection.deleteDocument(keyField, key);
+    }
+
+    /**
+     * Deletes the documents of several keys with a single {@code $in} query.
+     *
+     * @param keys the map keys
+     */
+    @Override
+    public void deleteAll(Collection<Object> keys) {
+        if (!keys.isEmpty()) {
+            collection.mongoCollection().deleteMany(in(keyField, keys));
+        }
+    }
+
+    /**
+     * Assigns loaded documents to the keys they were requested by. The key field of a loaded document has the type
+     * the driver decoded it into, which may differ from the requested key, so both are compared normalized.
+     *
+     * @param keyField  the document field holding the map key
+     * @param keys      the requested map keys
+     * @param documents the loaded documents
+     * @return the documents by requested key, without the documents matching none of them
+     */
+    static Map<Object, Document> byRequestedKey(String keyField, Collection<Object> keys, Iterable<Document> documents) {
+        Map<Object, Object> requested = new HashMap<>();
+        for (Object key : keys) {
+            requested.put(DocumentValues.normalize(key), key);
+        }
+        Map<Object, Document> found = new HashMap<>();
+        for (Document document : documents) {
+            Object key = requested.get(DocumentValues.normalize(document.get(keyField)));
+            if (key != null) {
+                found.put(key, document);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Converts a document into the value stored in the map.
+     *
+     * @param document  the document
+     * @param queryable whether the value is stored as {@link HazelcastJsonValue} rather than as a string
+     * @return the document as extended JSON
+     */
+    static Object toValue(Document document, boolean queryable) {
+        String json = document.toJson(JSON);
+        return queryable ? new HazelcastJsonValue(json) : json;
+    }
+
+    /**
+     * Converts a stored value back into a document. Extended JSON is parsed into the BSON types it describes, and the
+     * key field is set to the typed map key, so that an upsert finds the document again even if the value carried the
+     * key in another form, such as a UUID written as a plain string. The JSON is relaxed, so 64-bit integers small
+     * enough for 32 bits are parsed back as 32-bit integers, which MongoDB compares and sorts as equal.
+     *
+     * @param keyField the document field holding the map key
+     * @param key      the map key
+     * @param value    the document or its extended JSON
+     * @return the document to write
+     */
+    static Document toDocument(String keyField, Object key, Object value) {
+        Document document;
+        if (value instanceof Document) {
+            document = new Document((Document) value);
+        } else if (value instanceof String || value instanceof HazelcastJsonValue) {
+            document = Document.parse(value.toString());
+        } else {
+            throw new IllegalArgumentException("Value of " + key + " is neither a document nor extended JSON: " + value.getClass().getName());
+        }
+        document.put(keyField, key);
+        return document;
+    }
+}
@@ -0,0 +1,185 @@
+package de.rubymc.mongodb.impl;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.gte;
+import static com.mongodb.client.model.Filters.lt;
+import static com.mongodb.client.model.Filters.not;
+import static com.mongodb.client.model.Filters.type;
+
+/**
+ * A {@link Spliterator} over the documents of a collection that is split into {@code _id} ranges.
+ * Each range is read through its own driver cursor in batches, and only when it is reached, so a
+ * parallel stream reads the ranges concurrently without holding the collection on the heap.
+ * Every cursor opened is registered with the stream's close queue, so closing the stream releases them.
+ * <p>
+ * Range filters only match {@code _id} values of the BSON type of their bounds, so documents whose
+ * {@code _id} has another type are read through one additional range selecting them by type.
+ */
+final class DocumentSpliterator implements Spliterator<Document> {
+
+    private static final String ID = "_id";
+
+    private final MongoCollection<Document> collection;
+    private final Bson filter;
+    private final Bson projection;
+    private final int batchSize;
+    private final List<Object> bounds;
+    private final String idType;
+    private final Queue<MongoCursor<Document>> cursors;
+    private int chunk;
+    private int end;
+    private MongoCursor<Document> cursor;
+
+    /**
+     * Constructs a new DocumentSpliterator over the ranges between the specified {@code _id} bounds.
+     * {@code n} bounds yield {@code n + 1} ranges, the first and the last being open-ended, plus the range
+     * of the other {@code _id} types if the bounds have a type.
+     *
+     * @param collection the collection to read
+     * @param filter     the filter applied to every range
+     * @param projection the projection applied to every document, or null for whole documents
+     * @param batchSize  the number of documents fetched per round trip
+     * @param bounds     the ascending {@code _id} values separating the ranges, all of the same type
+     * @param idType     the {@code $type} alias of the bounds, or null if there are no bounds
+     * @param cursors    the queue collecting the opened cursors so that the stream can close them
+     */
+    DocumentSpliterator(MongoCollection<Document> collection, Bson filter, Bson projection, int batchSize,
+                        List<Object> bounds, String idType, Queue<MongoCursor<Document>> cursors) {
+        this(collection, filter, projection, batchSize, bounds, idType, cursors, 0,
+                bounds.isEmpty() ? 1 : bounds.size() + 2);
+    }
+
+    private DocumentSpliterator(MongoCollection<Document> collection, Bson filter, Bson projection, int batchSize,
+                                List<Object> bounds, String idType, Queue<MongoCursor<Document>> cursors, int chunk, int end) {
+        this.collection = collection;
+        this.filter = filter;
+        this.projection = projection;
+        this.batchSize = batchSize;
+        this.bounds = bounds;
+        this.idType = idType;
+        this.cursors = cursors;
+        this.chunk = chunk;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Document> action) {
+        while (true) {
+            if (cursor == null) {
+                if (chunk >= end) {
+                    return false;
+                }
+                cursor = open(chunk++);
+            }
+            if (cursor.hasNext()) {
+                action.accept(cursor.next());
+                return true;
+            }
+            cursor.close();
+            cursors.remove(cursor);
+            cursor = null;
+        }
+    }
+
+    @Override
+    public Spliterator<Document> trySplit() {
+        if (cursor != null || end - chunk < 2) {
+            return null;
+        }
+        int middle = chunk + (end - chunk) / 2;
+        DocumentSpliterator prefix = new DocumentSpliterator(collection, filter, projection, batchSize, bounds, idType, cursors, chunk, middle);
+        this.chunk = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * Retrieves the {@code $type} alias of an {@code _id} value that range bounds can be taken from.
+     *
+     * @param id the {@code _id} value
+     * @return the type alias, or null if values of the type are not split into ranges
+     */
+    static String typeOf(Object id) {
+        if (id instanceof ObjectId) {
+            return "objectId";
+        }
+        if (id instanceof String) {
+            return "string";
+        }
+        if (id instanceof Number) {
+            // MongoDB compares all numeric types with each other
+            return "number";
+        }
+        if (id instanceof Date) {
+            return "date";
+        }
+        if (id instanceof UUID || id instanceof Binary) {
+            return "binData";
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the type alias shared by most of the sampled {@code _id} values.
+     *
+     * @param sampled the sampled {@code _id} values
+     * @return the most frequent type alias, or null if no value has a type that can be split
+     */
+    static String dominantType(List<?> sampled) {
+        Map<String, Integer> counts = new HashMap<>();
+        String dominant = null;
+        for (Object id : sampled) {
+            String type = typeOf(id);
+            if (type != null && counts.merge(type, 1, Integer::sum) > counts.getOrDefault(dominant, 0)) {
+                dominant = type;
+            }
+        }
+        return dominant;
+    }
+
+    private MongoCursor<Document> open(int index) {
+        List<Bson> filters = new ArrayList<>(3);
+        filters.add(filter);
+        if (index > bounds.size()) {
+            filters.add(not(type(ID, idType)));
+        } else if (index > 0) {
+            filters.add(gte(ID, bounds.get(index - 1)));
+        }
+        if (index < bounds.size()) {
+            filters.add(lt(ID, bounds.get(index)));
+        }
+        MongoCursor<Document> opened = collection.find(and(filters))
+                .projection(projection)
+                .batchSize(batchSize)
+                .iterator();
+        cursors.add(opened);
+        return opened;
+    }
+}
@@ -0,0 +1,189 @@
+package de.rubymc.mongodb.impl;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.hazelcast.core.HazelcastJsonValue;
+import de.rubymc.hazelcast.ValueCodec;
+import org.bson.Document;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The codec of maps backed by a {@link DocumentMapStore}. Values are stored as MongoDB extended JSON, the form the
+ * store loads documents in and parses them back from, so ObjectIds, UUIDs, dates and other BSON types survive a round
+ * trip through the map. Documents are decoded as they are. Other classes are decoded with Gson from a plain view of
+ * the JSON, in which ObjectIds and UUIDs are strings, dates ISO-8601 strings, binary data Base64 strings and 64-bit
+ * and decimal numbers plain numbers, and are encoded with Gson, so their fields are stored with plain JSON types.
+ */
+public class DocumentValueCodec implements ValueCodec {
+
+    private static final String BINARY = "$binary";
+
+    private final Gson gson;
+    private final boolean queryable;
+
+    /**
+     * Constructs a new DocumentValueCodec.
+     *
+     * @param gson      the Gson instance mapping classes other than {@link Document}
+     * @param queryable whether the JSON is stored as {@link HazelcastJsonValue} rather than as a string, which has to
+     *                  match the {@link DocumentMapStore#QUERYABLE} property of the store
+     */
+    public DocumentValueCodec(Gson gson, boolean queryable) {
+        this.gson = gson;
+        this.queryable = queryable;
+    }
+
+    /**
+     * Creates a new DocumentValueCodec with a default Gson instance storing JSON strings.
+     *
+     * @return the created DocumentValueCodec
+     */
+    public static DocumentValueCodec create() {
+        return new DocumentValueCodec(new Gson(), false);
+    }
+
+    /**
+     * Creates a new DocumentValueCodec with a default Gson instance storing {@link HazelcastJsonValue}s.
+     *
+     * @return the created DocumentValueCodec
+     */
+    public static DocumentValueCodec queryable() {
+        return new DocumentValueCodec(new Gson(), true);
+    }
+
+    @Override
+    public Object encode(Object value) {
+        if (value instanceof Document) {
+            return DocumentMapStore.toValue((Document) value, queryable);
+        }
+        String json = gson.toJson(value);
+        return queryable ? new HazelcastJsonValue(json) : json;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T decode(Object stored, Class<T> type) {
+        if (stored == null || type == null) {
+            return (T) stored;
+        }
+        // HazelcastJsonValue#toString returns the JSON itself
+        String json = String.valueOf(stored);
+        if (type == Document.class) {
+            return (T) Document.parse(json);
+        }
+        return gson.fromJson(plain(JsonParser.parseString(json)), type);
+    }
+
+    /**
+     * Replaces the type wrappers of extended JSON, such as {@code {"$oid": ...}}, with the plain values Gson maps.
+     *
+     * @param element the parsed extended JSON
+     * @return the plain JSON
+     */
+    static JsonElement plain(JsonElement element) {
+        if (element.isJsonArray()) {
+            JsonArray array = new JsonArray();
+            element.getAsJsonArray().forEach(item -> array.add(plain(item)));
+            return array;
+        }
+        if (!element.isJsonObject()) {
+            return element;
+        }
+        JsonObject object = element.getAsJsonObject();
+        JsonElement unwrapped = unwrap(object);
+        if (unwrapped != null) {
+            return unwrapped;
+        }
+        JsonObject copy = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+            copy.add(entry.getKey(), plain(entry.getValue()));
+        }
+        return copy;
+    }
+
+    /**
+     * Converts a type wrapper into its plain value.
+     *
+     * @return the plain value, or null if the object is not a type wrapper this codec maps
+     */
+    private static JsonElement unwrap(JsonObject object) {
+        if (object.has(BINARY)) {
+            return binary(object);
+        }
+        if (object.size() != 1) {
+            return null;
+        }
+        Map.Entry<String, JsonElement> wrapper = object.entrySet().iterator().next();
+        JsonElement value = wrapper.getValue();
+        switch (wrapper.getKey()) {
+            case "$oid":
+            case "$uuid":
+            case "$symbol":
+                return value;
+            case "$numberInt":
+            case "$numberLong":
+                return new JsonPrimitive(Long.parseLong(value.getAsString()));
+            case "$numberDouble":
+                return new JsonPrimitive(Double.parseDouble(value.getAsString()));
+            case "$numberDecimal":
+                return new JsonPrimitive(new BigDecimal(value.getAsString()));
+            case "$date":
+                if (value.isJsonPrimitive() && value.getAsJsonPrimitive().isString()) {
+                    return value;
+                }
+                long millis = value.isJsonObject() ? plain(value).getAsLong() : value.getAsLong();
+                return new JsonPrimitive(Instant.ofEpochMilli(millis).toString());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Converts binary data into a UUID string if it holds one, or into a Base64 string otherwise. Both the current
+     * {@code {"$binary": {"base64": ..., "subType": ...}}} and the legacy {@code {"$binary": ..., "$type": ...}} form are read.
+     */
+    private static JsonElement binary(JsonObject object) {
+        JsonElement binary = object.get(BINARY);
+        String base64;
+        String subType;
+        if (binary.isJsonObject()) {
+            base64 = binary.getAsJsonObject().get("base64").getAsString();
+            subType = binary.getAsJsonObject().get("subType").getAsString();
+        } else if (object.has("$type")) {
+            base64 = binary.getAsString();
+            subType = object.get("$type").getAsString();
+        } else {
+            return null;
+        }
+        byte[] bytes = Base64.getDecoder().decode(base64);
+        int type = Integer.parseInt(subType, 16);
+        if (bytes.length == 16 && (type == 3 || type == 4)) {
+            if (type == 3) {
+                // the legacy Java driver wrote each half of the UUID in little-endian order
+                reverse(bytes, 0, 8);
+                reverse(bytes, 8, 16);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new JsonPrimitive(new UUID(buffer.getLong(), buffer.getLong()).toString());
+        }
+        return new JsonPrimitive(base64);
+    }
+
+    private static void reverse(byte[] bytes, int from, int to) {
+        for (int left = from, right = to - 1; left < right; left++, right--) {
+            byte swapped = bytes[left];
+            bytes[left] = bytes[right];
+            bytes[right] = swapped;
+        }
+    }
+}
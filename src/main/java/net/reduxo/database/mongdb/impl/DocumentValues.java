@@ -0,0 +1,76 @@
+package de.rubymc.mongodb.impl;
+
+import org.bson.Document;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Helpers for matching values of decoded documents against the values used in {@code eq} filters.
+ */
+final class DocumentValues {
+
+    private DocumentValues() {
+    }
+
+    /**
+     * Retrieves the value at the specified key, following dotted paths into embedded documents.
+     *
+     * @param document the document to read
+     * @param key      the key or dotted path
+     * @return the value at the key, or null if it is not present
+     */
+    static Object get(Document document, String key) {
+        if (key.indexOf('.') < 0) {
+            return document.get(key);
+        }
+        Object current = document;
+        for (String part : key.split("\\.")) {
+            if (!(current instanceof Document)) {
+                return null;
+            }
+            current = ((Document) current).get(part);
+        }
+        return current;
+    }
+
+    /**
+     * Normalizes a value so that values MongoDB considers equal compare equal in Java, for example an
+     * {@code Integer} decoded from the collection and a {@code Long} used in the filter. Numbers outside the range
+     * of a {@code long} are kept as they are, so that they do not collapse into the same value.
+     *
+     * @param value the value to normalize
+     * @return the normalized value
+     */
+    static Object normalize(Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof BigInteger) {
+            return ((BigInteger) value).bitLength() < Long.SIZE ? (Object) ((BigInteger) value).longValue() : value;
+        }
+        if (value instanceof BigDecimal) {
+            return value;
+        }
+        if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            // 0x1p63 is the first double above Long.MAX_VALUE, the conversion would saturate from there on
+            boolean integral = number == Math.rint(number) && number >= -0x1p63 && number < 0x1p63;
+            return integral ? (Object) (long) number : (Object) number;
+        }
+        return value;
+    }
+
+    /**
+     * Checks whether the value at the key of a document equals the specified value.
+     *
+     * @param document the document to read
+     * @param key      the key or dotted path
+     * @param value    the value to compare with
+     * @return true if the values are equal after normalization, false otherwise
+     */
+    static boolean matches(Document document, String key, Object value) {
+        Object stored = get(document, key);
+        return stored != null && normalize(stored).equals(normalize(value));
+    }
+}
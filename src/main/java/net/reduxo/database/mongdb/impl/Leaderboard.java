@@ -0,0 +1,200 @@
+package de.rubymc.mongodb.impl;
+
+import org.bson.Document;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * An in-memory view of the top documents of one {@code (field, limit)} combination. Reads are served from the
+ * last loaded snapshot. Writes that may affect the view, because they touch a document in it or one that could
+ * enter it, mark it dirty and trigger a single background reload, and no snapshot older than the staleness bound
+ * is ever returned.
+ */
+final class Leaderboard implements CollectionListener {
+
+    private final String field;
+    private final int limit;
+    private final Supplier<List<Document>> loader;
+    private final Executor executor;
+    private final long maxStalenessNanos;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile List<Document> snapshot;
+    private volatile long loadedAt;
+    private volatile boolean dirty;
+
+    /**
+     * Constructs a new Leaderboard.
+     *
+     * @param field        the field the documents are sorted by
+     * @param limit        the number of documents the loader returns at most
+     * @param loader       the query loading the top documents
+     * @param executor     the executor running the background reloads
+     * @param maxStaleness the maximum age of a returned snapshot
+     * @param unit         the time unit of the maximum age
+     */
+    Leaderboard(String field, int limit, Supplier<List<Document>> loader, Executor executor, long maxStaleness, TimeUnit unit) {
+        this.field = field;
+        this.limit = limit;
+        this.loader = loader;
+        this.executor = executor;
+        this.maxStalenessNanos = unit.toNanos(maxStaleness);
+    }
+
+    /**
+     * Retrieves the top documents. Only the first call and calls after the staleness bound has passed without any
+     * read query MongoDB on the calling thread; every other call returns the current snapshot.
+     *
+     * @return an unmodifiable list of the top documents
+     */
+    List<Document> get() {
+        List<Document> current = snapshot;
+        long age = System.nanoTime() - loadedAt;
+        if (current == null || age > maxStalenessNanos) {
+            return load();
+        }
+        // reload ahead of the bound so that steady readers never wait for it
+        if (dirty || age > maxStalenessNanos / 2) {
+            refreshAsync();
+        }
+        return current;
+    }
+
+    @Override
+    public void changed() {
+        markDirty();
+    }
+
+    @Override
+    public void inserted(Document document) {
+        if (document.containsKey(field) && mayEnter(document)) {
+            markDirty();
+        }
+    }
+
+    @Override
+    public void replaced(String key, Object value, Document document) {
+        if (contains(key, value) || mayEnter(document)) {
+            markDirty();
+        }
+    }
+
+    @Override
+    public void elementUpdated(String key, Object value, String updateKey, Object updateValue, Document previous) {
+        if (updateKey.equals(field) || contains(key, value)) {
+            markDirty();
+        }
+    }
+
+    @Override
+    public void incremented(String key, Object value, String updateKey, Number delta) {
+        if (updateKey.equals(field) || contains(key, value)) {
+            markDirty();
+        }
+    }
+
+    @Override
+    public void deleted(String key, Object value) {
+        markDirty();
+    }
+
+    private void markDirty() {
+        dirty = true;
+        if (snapshot != null) {
+            refreshAsync();
+        }
+    }
+
+    private boolean contains(String key, Object value) {
+        List<Document> current = snapshot;
+        if (current == null) {
+            return false;
+        }
+        for (Document document : current) {
+            if (DocumentValues.matches(document, key, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether a document that is not in the view may belong into it, because the view is not full or the
+     * document does not sort below its last entry.
+     */
+    private boolean mayEnter(Document document) {
+        List<Document> current = snapshot;
+        if (current == null || current.size() < limit) {
+            return true;
+        }
+        Object score = DocumentValues.get(document, field);
+        Object last = DocumentValues.get(current.get(current.size() - 1), field);
+        if (score == null) {
+            // missing values sort below every other value
+            return last == null;
+        }
+        if (!(score instanceof Number) || last == null) {
+            return true;
+        }
+        if (!(last instanceof Number)) {
+            // strings, documents and the other types MongoDB sorts above numbers
+            return false;
+        }
+        // ties are ordered by MongoDB, so a document with the same score may still displace the last entry
+        return compare((Number) score, (Number) last) >= 0;
+    }
+
+    private static int compare(Number left, Number right) {
+        if (isIntegral(left) && isIntegral(right)) {
+            return Long.compare(left.longValue(), right.longValue());
+        }
+        return Double.compare(left.doubleValue(), right.doubleValue());
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+    }
+
+    private synchronized List<Document> load() {
+        List<Document> current = snapshot;
+        if (current != null && System.nanoTime() - loadedAt <= maxStalenessNanos) {
+            return current;
+        }
+        return reload();
+    }
+
+    private void refreshAsync() {
+        if (refreshing.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    synchronized (this) {
+                        reload();
+                    }
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+    }
+
+    private List<Document> reload() {
+        // cleared before the query, so that writes arriving while it runs leave the view dirty
+        dirty = false;
+        long startedAt = System.nanoTime();
+        List<Document> documents;
+        try {
+            documents = Collections.unmodifiableList(loader.get());
+        } catch (RuntimeException exception) {
+            dirty = true;
+            throw exception;
+        }
+        snapshot = documents;
+        loadedAt = startedAt;
+        return documents;
+    }
+}
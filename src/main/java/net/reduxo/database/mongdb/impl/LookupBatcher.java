@@ -0,0 +1,120 @@
+package de.rubymc.mongodb.impl;
+
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.mongodb.client.model.Filters.in;
+
+/**
+ * Coalesces single-document lookups on the same key that arrive within a short window into one
+ * {@code $in} query, in the manner of a DataLoader, and hands every caller the document matching its value.
+ */
+final class LookupBatcher {
+
+    private final MongoCollection<Document> collection;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Map<String, Batch> batches = new HashMap<>();
+
+    /**
+     * Constructs a new LookupBatcher.
+     *
+     * @param collection   the collection the lookups are run against
+     * @param executor     the executor running the batched queries
+     * @param scheduler    the scheduler closing the batches once their window has elapsed
+     * @param window       the time lookups are collected before the query is sent
+     * @param unit         the time unit of the window
+     * @param maxBatchSize the number of distinct values that sends the query before the window has elapsed
+     */
+    LookupBatcher(MongoCollection<Document> collection, Executor executor, ScheduledExecutorService scheduler,
+                  long window, TimeUnit unit, int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        this.collection = collection;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.windowNanos = unit.toNanos(window);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Queues a lookup for the document matching the key-value pair.
+     *
+     * @param key   the key to match against
+     * @param value the value to match against
+     * @return a future completed with the matched document, or null if no document was found
+     */
+    CompletableFuture<Document> load(String key, Object value) {
+        CompletableFuture<Document> future = new CompletableFuture<>();
+        Batch full = null;
+        synchronized (batches) {
+            Batch batch = batches.get(key);
+            if (batch == null) {
+                Batch created = new Batch(key);
+                batches.put(key, created);
+                scheduler.schedule(() -> close(created), windowNanos, TimeUnit.NANOSECONDS);
+                batch = created;
+            }
+            batch.waiters.computeIfAbsent(DocumentValues.normalize(value), normalized -> new ArrayList<>()).add(future);
+            batch.values.putIfAbsent(DocumentValues.normalize(value), value);
+            if (batch.waiters.size() >= maxBatchSize) {
+                batches.remove(key);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    private void close(Batch batch) {
+        synchronized (batches) {
+            if (!batches.remove(batch.key, batch)) {
+                return;
+            }
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch batch) {
+        executor.execute(() -> {
+            try {
+                for (Document document : collection.find(in(batch.key, batch.values.values()))) {
+                    Object stored = DocumentValues.get(document, batch.key);
+                    List<CompletableFuture<Document>> waiters = stored != null ? batch.waiters.remove(DocumentValues.normalize(stored)) : null;
+                    if (waiters != null) {
+                        waiters.forEach(waiter -> waiter.complete(document));
+                    }
+                }
+                batch.waiters.values().forEach(waiters -> waiters.forEach(waiter -> waiter.complete(null)));
+            } catch (RuntimeException exception) {
+                batch.waiters.values().forEach(waiters -> waiters.forEach(waiter -> waiter.completeExceptionally(exception)));
+            }
+        });
+    }
+
+    private static final class Batch {
+
+        private final String key;
+        private final Map<Object, List<CompletableFuture<Document>>> waiters = new HashMap<>();
+        private final Map<Object, Object> values = new LinkedHashMap<>();
+
+        private Batch(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package de.rubymc.mongodb.impl;
+
+import com.hazelcast.topic.ITopic;
+import de.rubymc.mongodb.Pair;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A size- and TTL-bounded LRU cache of the documents read through {@link DatabaseCollection#getDocument(String, Object)},
+ * keyed by the key-value pair of the lookup. Writes through the collection invalidate every cached document they may
+ * have changed, and the invalidations can be shared with other servers through a Hazelcast topic. The cached documents
+ * are indexed by the values of the keys used for lookups and invalidations, so that an invalidation only touches the
+ * documents it applies to. Loads racing an invalidation of the same document are not cached, while loads of other
+ * documents are.
+ */
+public class NearCache implements CollectionListener {
+
+    private static final Logger LOGGER = Logger.getLogger(NearCache.class.getName());
+    private static final String ORIGIN = "origin";
+    private static final String KEY = "key";
+    private static final String VALUE = "value";
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<BiConsumer<String, Object>> publishers = new CopyOnWriteArrayList<>();
+    private final Map<Pair<String, Object>, Entry> entries;
+    private final Map<Pair<String, Object>, Set<Pair<String, Object>>> index = new HashMap<>();
+    private final Set<String> indexedKeys = new HashSet<>();
+    private final Map<Pair<String, Object>, Long> invalidatedAt = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private long forgottenBefore;
+
+    /**
+     * Constructs a new NearCache.
+     *
+     * @param maxSize the maximum number of cached documents
+     * @param ttl     the time a document stays cached
+     * @param unit    the time unit of the ttl
+     */
+    NearCache(int maxSize, long ttl, TimeUnit unit) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Pair<String, Object>, Entry> eldest) {
+                if (size() > NearCache.this.maxSize) {
+                    evictions++;
+                    unindex(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Shares the invalidations of this cache with the near caches of other servers through the specified topic,
+     * for example one registered through {@code HazelServer.topicRegister}, and applies theirs to this cache.
+     * Servers that follow the change stream of the collection already see the writes of each other and do not need this.
+     *
+     * @param topic the topic the invalidations are published on
+     * @return the registration id of the topic listener
+     */
+    public UUID bind(ITopic<String> topic) {
+        publishers.add((key, value) -> topic.publish(new Document(ORIGIN, nodeId).append(KEY, key).append(VALUE, value).toJson()));
+        return topic.addMessageListener(message -> {
+            Document invalidation = Document.parse(message.getMessageObject());
+            if (!nodeId.equals(invalidation.getString(ORIGIN))) {
+                invalidateLocally(invalidation.getString(KEY), invalidation.get(VALUE));
+            }
+        });
+    }
+
+    /**
+     * Retrieves the number of lookups answered from the cache.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Retrieves the number of lookups that had to query the collection.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Retrieves the number of documents evicted because the cache was full.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Retrieves the share of lookups answered from the cache.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if there were no lookups yet
+     */
+    public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Retrieves the number of cached documents, including expired ones that were not looked up since.
+     *
+     * @return the number of cached documents
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes all documents from the cache.
+     */
+    public synchronized void clear() {
+        forget();
+        entries.clear();
+        index.clear();
+    }
+
+    /**
+     * Retrieves a cached document. The returned document is a shallow copy, so changing its top-level fields
+     * does not affect the cache.
+     *
+     * @param key   the key of the lookup
+     * @param value the value of the lookup
+     * @return the cached document, or null if it is not cached or expired
+     */
+    synchronized Document get(String key, Object value) {
+        Pair<String, Object> cacheKey = new Pair<>(key, DocumentValues.normalize(value));
+        Entry entry = entries.get(cacheKey);
+        if (entry == null || System.nanoTime() - entry.cachedAt > ttlNanos) {
+            if (entry != null) {
+                remove(cacheKey);
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+        return new Document(entry.document);
+    }
+
+    /**
+     * Retrieves a stamp to pass to {@link #put(String, Object, Document, long)} after the document was loaded.
+     *
+     * @return the current stamp
+     */
+    synchronized long stamp() {
+        return invalidations;
+    }
+
+    /**
+     * Caches a loaded document, unless the lookup or a key-value pair the document contains was invalidated since
+     * the stamp was taken, in which case the document may already be outdated.
+     *
+     * @param key      the key of the lookup
+     * @param value    the value of the lookup
+     * @param document the loaded document
+     * @param stamp    the stamp taken before the document was loaded
+     */
+    synchronized void put(String key, Object value, Document document, long stamp) {
+        if (document == null || stamp < forgottenBefore) {
+            return;
+        }
+        Pair<String, Object> cacheKey = new Pair<>(key, DocumentValues.normalize(value));
+        if (invalidatedSince(cacheKey, stamp)) {
+            return;
+        }
+        // every invalidated key is indexed, so this covers invalidations under other lookups of the document
+        for (String indexedKey : indexedKeys) {
+            Object indexedValue = DocumentValues.get(document, indexedKey);
+            if (indexedValue != null && invalidatedSince(new Pair<>(indexedKey, DocumentValues.normalize(indexedValue)), stamp)) {
+                return;
+            }
+        }
+        remove(cacheKey);
+        indexKey(key);
+        Entry entry = new Entry(new Document(document), System.nanoTime());
+        for (String indexedKey : indexedKeys) {
+            index(cacheKey, entry, indexedKey);
+        }
+        entries.put(cacheKey, entry);
+    }
+
+    @Override
+    public void changed() {
+        clear();
+    }
+
+    @Override
+    public void replaced(String key, Object value, Document document) {
+        invalidate(key, value);
+    }
+
+    @Override
+    public void elementUpdated(String key, Object value, String updateKey, Object updateValue, Document previous) {
+        invalidate(key, value);
+    }
+
+    @Override
+    public void incremented(String key, Object value, String updateKey, Number delta) {
+        invalidate(key, value);
+    }
+
+    @Override
+    public void deleted(String key, Object value) {
+        invalidate(key, value);
+    }
+
+    private void invalidate(String key, Object value) {
+        invalidateLocally(key, value);
+        for (BiConsumer<String, Object> publisher : publishers) {
+            try {
+                publisher.accept(key, value);
+            } catch (RuntimeException exception) {
+                LOGGER.log(Level.WARNING, "Could not publish the near cache invalidation of " + key, exception);
+            }
+        }
+    }
+
+    /**
+     * Removes every document cached under the key-value pair or containing it, since a document may be cached
+     * under several lookups.
+     */
+    private synchronized void invalidateLocally(String key, Object value) {
+        Pair<String, Object> pair = new Pair<>(key, DocumentValues.normalize(value));
+        if (invalidatedAt.size() >= maxSize) {
+            forget();
+        }
+        invalidatedAt.put(pair, ++invalidations);
+        remove(pair);
+        indexKey(key);
+        Set<Pair<String, Object>> cacheKeys = index.get(pair);
+        if (cacheKeys != null) {
+            for (Pair<String, Object> cacheKey : new ArrayList<>(cacheKeys)) {
+                remove(cacheKey);
+            }
+        }
+    }
+
+    private boolean invalidatedSince(Pair<String, Object> pair, long stamp) {
+        Long invalidation = invalidatedAt.get(pair);
+        return invalidation != null && invalidation > stamp;
+    }
+
+    /**
+     * Forgets which pairs were invalidated, which keeps that record as small as the cache. Loads stamped before
+     * are no longer cached, since it is unknown which documents they may have missed an invalidation of.
+     */
+    private void forget() {
+        invalidatedAt.clear();
+        forgottenBefore = ++invalidations;
+    }
+
+    /**
+     * Starts indexing the cached documents by the specified key. The documents cached so far are indexed once,
+     * later ones as they are put.
+     */
+    private void indexKey(String key) {
+        if (indexedKeys.add(key)) {
+            entries.forEach((cacheKey, entry) -> index(cacheKey, entry, key));
+        }
+    }
+
+    private void index(Pair<String, Object> cacheKey, Entry entry, String key) {
+        Object value = DocumentValues.get(entry.document, key);
+        if (value == null) {
+            return;
+        }
+        Pair<String, Object> indexKey = new Pair<>(key, DocumentValues.normalize(value));
+        index.computeIfAbsent(indexKey, ignored -> new HashSet<>()).add(cacheKey);
+        entry.indexKeys.add(indexKey);
+    }
+
+    private void remove(Pair<String, Object> cacheKey) {
+        Entry entry = entries.remove(cacheKey);
+        if (entry != null) {
+            unindex(cacheKey, entry);
+        }
+    }
+
+    private void unindex(Pair<String, Object> cacheKey, Entry entry) {
+        for (Pair<String, Object> indexKey : entry.indexKeys) {
+            Set<Pair<String, Object>> cacheKeys = index.get(indexKey);
+            if (cacheKeys != null && cacheKeys.remove(cacheKey) && cacheKeys.isEmpty()) {
+                index.remove(indexKey);
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final Document document;
+        private final long cachedAt;
+        private final List<Pair<String, Object>> indexKeys = new ArrayList<>();
+
+        private Entry(Document document, long cachedAt) {
+            this.document = document;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
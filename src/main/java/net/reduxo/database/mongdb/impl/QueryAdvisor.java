@@ -0,0 +1,133 @@
+package de.rubymc.mongodb.impl;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Explains the query shapes a {@link DatabaseCollection} actually runs and reports those that MongoDB answers
+ * with a collection scan. Every shape is explained once, in the background, when it is first seen; later
+ * executions of a shape known to scan the collection are counted.
+ */
+public class QueryAdvisor {
+
+    private static final Logger LOGGER = Logger.getLogger(QueryAdvisor.class.getName());
+    private static final String COLLECTION_SCAN = "COLLSCAN";
+
+    private final MongoDatabase database;
+    private final MongoCollection<Document> collection;
+    private final Executor executor;
+    private final Map<String, Boolean> shapes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> collectionScans = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new QueryAdvisor.
+     *
+     * @param database   the database the explain commands are run against
+     * @param collection the observed collection
+     * @param executor   the executor running the explain commands
+     */
+    QueryAdvisor(MongoDatabase database, MongoCollection<Document> collection, Executor executor) {
+        this.database = database;
+        this.collection = collection;
+        this.executor = executor;
+    }
+
+    /**
+     * Retrieves the query shapes that were found to scan the whole collection, with the number of times each was run.
+     *
+     * @return an unmodifiable map from query shape to execution count
+     */
+    public Map<String, Long> getCollectionScans() {
+        Map<String, Long> counts = new ConcurrentHashMap<>();
+        collectionScans.forEach((shape, count) -> counts.put(shape, count.get()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Retrieves all query shapes explained so far.
+     *
+     * @return an unmodifiable set of the query shapes
+     */
+    public Set<String> getShapes() {
+        return Collections.unmodifiableSet(shapes.keySet());
+    }
+
+    /**
+     * Records the execution of a query.
+     *
+     * @param shape  the shape of the query, naming the operation and the fields it filters and sorts on
+     * @param filter the filter of the query
+     * @param sort   the sort of the query, or null if it is unsorted
+     */
+    void observe(String shape, Bson filter, Bson sort) {
+        AtomicLong scans = collectionScans.get(shape);
+        if (scans != null) {
+            scans.incrementAndGet();
+            return;
+        }
+        if (shapes.putIfAbsent(shape, Boolean.FALSE) == null) {
+            executor.execute(() -> explain(shape, filter, sort));
+        }
+    }
+
+    private void explain(String shape, Bson filter, Bson sort) {
+        Document find = new Document("find", collection.getNamespace().getCollectionName())
+                .append("filter", toBson(filter));
+        if (sort != null) {
+            find.append("sort", toBson(sort));
+        }
+        try {
+            Document explanation = database.runCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+            if (containsCollectionScan(explanation.get("queryPlanner"))) {
+                shapes.put(shape, Boolean.TRUE);
+                collectionScans.computeIfAbsent(shape, key -> new AtomicLong()).incrementAndGet();
+                LOGGER.warning("Query " + shape + " on " + collection.getNamespace()
+                        + " scans the whole collection, declare an index for it");
+            }
+        } catch (RuntimeException exception) {
+            LOGGER.log(Level.FINE, "Could not explain query " + shape + " on " + collection.getNamespace(), exception);
+        }
+    }
+
+    private BsonDocument toBson(Bson bson) {
+        return bson.toBsonDocument(Document.class, collection.getCodecRegistry());
+    }
+
+    /**
+     * Searches an explain output for a {@code COLLSCAN} stage. The search is recursive because the winning plan
+     * nests its input stages and sharded clusters nest one plan per shard.
+     */
+    private static boolean containsCollectionScan(Object node) {
+        if (node instanceof Document) {
+            Document document = (Document) node;
+            if (COLLECTION_SCAN.equals(document.get("stage"))) {
+                return true;
+            }
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                if (!"rejectedPlans".equals(entry.getKey()) && containsCollectionScan(entry.getValue())) {
+                    return true;
+                }
+            }
+        } else if (node instanceof List) {
+            for (Object element : (List<?>) node) {
+                if (containsCollectionScan(element)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
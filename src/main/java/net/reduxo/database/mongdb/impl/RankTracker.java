@@ -0,0 +1,182 @@
+package de.rubymc.mongodb.impl;
+
+import com.mongodb.client.MongoCollection;
+import de.rubymc.mongodb.OrderStatisticTree;
+import org.bson.Document;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.mongodb.client.model.Filters.exists;
+import static com.mongodb.client.model.Projections.excludeId;
+import static com.mongodb.client.model.Projections.fields;
+import static com.mongodb.client.model.Projections.include;
+
+/**
+ * Keeps the scores of one field in an {@link OrderStatisticTree} so that ranks are answered in O(log N)
+ * from memory. The tree is loaded lazily and kept up to date with the writes made through the owning
+ * {@link DatabaseCollection}; writes whose effect on the scores cannot be derived mark it stale, which
+ * makes the next rank query reload it.
+ */
+final class RankTracker implements CollectionListener {
+
+    static final String UNIQUE_ID = "uniqueId";
+
+    private static final UUID LOWEST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    private static final Comparator<Score> ORDER = Comparator.comparingDouble((Score score) -> score.value).reversed()
+            .thenComparing(score -> score.uniqueId);
+
+    private final MongoCollection<Document> collection;
+    private final String field;
+    private final Map<UUID, Score> scores = new HashMap<>();
+    private final OrderStatisticTree<Score> tree = new OrderStatisticTree<>(ORDER);
+    private boolean stale = true;
+
+    /**
+     * Constructs a new RankTracker for the specified field.
+     *
+     * @param collection the collection the scores are loaded from
+     * @param field      the field holding the scores
+     */
+    RankTracker(MongoCollection<Document> collection, String field) {
+        this.collection = collection;
+        this.field = field;
+    }
+
+    /**
+     * Retrieves the rank of a document. Documents sharing a score share a rank.
+     *
+     * @param uniqueId the unique identifier of the document
+     * @return the rank of the document, or -1 if the document is not known
+     */
+    synchronized int rank(UUID uniqueId) {
+        if (stale) {
+            load();
+        }
+        Score score = scores.get(uniqueId);
+        if (score == null) {
+            return -1;
+        }
+        return tree.countLessThan(new Score(score.value, LOWEST_ID)) + 1;
+    }
+
+    /**
+     * Marks the tracker as stale, so that the next rank query reloads the scores.
+     */
+    synchronized void invalidate() {
+        stale = true;
+    }
+
+    @Override
+    public void changed() {
+        invalidate();
+    }
+
+    @Override
+    public void inserted(Document document) {
+        if (document.get(UNIQUE_ID) instanceof UUID) {
+            update((UUID) document.get(UNIQUE_ID), document.get(field));
+        }
+    }
+
+    @Override
+    public void replaced(String key, Object value, Document document) {
+        inserted(document);
+    }
+
+    @Override
+    public void elementUpdated(String key, Object value, String updateKey, Object updateValue, Document previous) {
+        if (updateKey.equals(field) && UNIQUE_ID.equals(key) && value instanceof UUID) {
+            update((UUID) value, updateValue);
+        } else if (updateKey.equals(field) || updateKey.equals(UNIQUE_ID)) {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void incremented(String key, Object value, String updateKey, Number delta) {
+        if (updateKey.equals(field) && UNIQUE_ID.equals(key) && value instanceof UUID) {
+            synchronized (this) {
+                Score score = scores.get(value);
+                if (score != null) {
+                    update((UUID) value, score.value + delta.doubleValue());
+                }
+            }
+        } else if (updateKey.equals(field) || updateKey.equals(UNIQUE_ID)) {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void deleted(String key, Object value) {
+        if (UNIQUE_ID.equals(key) && value instanceof UUID) {
+            synchronized (this) {
+                Score score = scores.remove(value);
+                if (score != null) {
+                    tree.remove(score);
+                }
+            }
+        } else {
+            invalidate();
+        }
+    }
+
+    private synchronized void update(UUID uniqueId, Object value) {
+        if (stale) {
+            return;
+        }
+        Score previous = scores.remove(uniqueId);
+        if (previous != null) {
+            tree.remove(previous);
+        }
+        Score score = new Score(toScore(value), uniqueId);
+        scores.put(uniqueId, score);
+        tree.add(score);
+    }
+
+    private void load() {
+        scores.clear();
+        tree.clear();
+        for (Document document : collection.find(exists(UNIQUE_ID))
+                .projection(fields(include(UNIQUE_ID, field), excludeId()))) {
+            Object uniqueId = document.get(UNIQUE_ID);
+            if (uniqueId instanceof UUID) {
+                Score score = new Score(toScore(document.get(field)), (UUID) uniqueId);
+                scores.put(score.uniqueId, score);
+                tree.add(score);
+            }
+        }
+        stale = false;
+    }
+
+    /**
+     * Converts a stored value into a score. Values that are neither numbers nor numeric strings rank last,
+     * like documents without the field do in a descending sort.
+     */
+    private static double toScore(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException ignored) {
+                return Double.NEGATIVE_INFINITY;
+            }
+        }
+        return Double.NEGATIVE_INFINITY;
+    }
+
+    private static final class Score {
+
+        private final double value;
+        private final UUID uniqueId;
+
+        private Score(double value, UUID uniqueId) {
+            this.value = value;
+            this.uniqueId = uniqueId;
+        }
+    }
+}
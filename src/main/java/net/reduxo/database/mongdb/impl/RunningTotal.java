@@ -0,0 +1,191 @@
+package de.rubymc.mongodb.impl;
+
+import org.bson.Document;
+
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * A materialized sum of one field. The sum is aggregated once and then kept current with the deltas of the
+ * writes it is notified of. Writes touching the field whose delta is unknown, such as replacements, deletions and
+ * updates observed without the previous document, mark the sum dirty and schedule one aggregation for all of them.
+ * Updates of other fields are ignored. Deltas arriving while an aggregation runs are buffered and applied to its
+ * result, so the recomputation does not lose them.
+ */
+final class RunningTotal implements CollectionListener {
+
+    private final String field;
+    private final Supplier<Number> aggregation;
+    private final Executor executor;
+    private final Object recomputeLock = new Object();
+
+    private long total;
+    private boolean present;
+    private boolean loaded;
+    private boolean scheduled;
+    private boolean buffering;
+    private long bufferedDelta;
+    private boolean bufferedInsert;
+
+    /**
+     * Constructs a new RunningTotal.
+     *
+     * @param field       the summed field
+     * @param aggregation the aggregation computing the sum, returning null if the collection is empty
+     * @param executor    the executor running recomputations requested by collection-wide changes
+     */
+    RunningTotal(String field, Supplier<Number> aggregation, Executor executor) {
+        this.field = field;
+        this.aggregation = aggregation;
+        this.executor = executor;
+    }
+
+    /**
+     * Retrieves the sum, aggregating it first if it was never computed.
+     *
+     * @return the sum, or -1 if the collection has no documents
+     */
+    long get() {
+        synchronized (this) {
+            if (loaded) {
+                return present ? total : -1;
+            }
+        }
+        recompute();
+        synchronized (this) {
+            return present ? total : -1;
+        }
+    }
+
+    /**
+     * Aggregates the sum again and replaces the materialized value with it, plus the deltas that arrived
+     * during the aggregation. Aggregations run one at a time.
+     */
+    void recompute() {
+        synchronized (recomputeLock) {
+            synchronized (this) {
+                scheduled = false;
+                buffering = true;
+                bufferedDelta = 0;
+                bufferedInsert = false;
+            }
+            Number result;
+            try {
+                result = aggregation.get();
+            } catch (RuntimeException exception) {
+                synchronized (this) {
+                    buffering = false;
+                }
+                throw exception;
+            }
+            synchronized (this) {
+                total = (result != null ? result.longValue() : 0) + bufferedDelta;
+                present = result != null || bufferedInsert;
+                loaded = true;
+                buffering = false;
+            }
+        }
+    }
+
+    @Override
+    public void changed() {
+        markDirty();
+    }
+
+    @Override
+    public void replaced(String key, Object value, Document document) {
+        markDirty();
+    }
+
+    @Override
+    public void updated(String key, Object value, Document document, Collection<String> fields) {
+        // the stream carries no previous value, so only the paths tell whether the sum may have changed
+        if (fields.stream().anyMatch(this::touches)) {
+            markDirty();
+        }
+    }
+
+    @Override
+    public void deleted(String key, Object value) {
+        markDirty();
+    }
+
+    @Override
+    public void inserted(Document document) {
+        add(toLong(DocumentValues.get(document, field)), true);
+    }
+
+    @Override
+    public void elementUpdated(String key, Object value, String updateKey, Object updateValue, Document previous) {
+        if (previous != null && updateKey.equals(field)) {
+            add(toLong(updateValue) - toLong(DocumentValues.get(previous, field)), false);
+        } else if (touches(updateKey)) {
+            markDirty();
+        }
+    }
+
+    @Override
+    public void incremented(String key, Object value, String updateKey, Number delta) {
+        if (updateKey.equals(field)) {
+            add(toLong(delta), false);
+        }
+    }
+
+    @Override
+    public boolean needsPrevious(String updateKey) {
+        return updateKey.equals(field);
+    }
+
+    /**
+     * Schedules an aggregation, unless one is already scheduled and has not started yet.
+     */
+    private void markDirty() {
+        synchronized (this) {
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        executor.execute(this::recompute);
+    }
+
+    /**
+     * Tells whether a write of the specified path may change the summed field, either because it is the field,
+     * one of the documents containing it or one of its subfields.
+     */
+    private boolean touches(String path) {
+        return path.equals(field) || field.startsWith(path + ".") || path.startsWith(field + ".");
+    }
+
+    private synchronized void add(long delta, boolean inserted) {
+        if (loaded) {
+            total += delta;
+            present |= inserted;
+        }
+        if (buffering) {
+            bufferedDelta += delta;
+            bufferedInsert |= inserted;
+        }
+    }
+
+    /**
+     * Converts a value like {@code $toLong} does; missing values count as zero like they do in {@code $sum}.
+     */
+    private static long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Long.parseLong(((String) value).trim());
+            } catch (NumberFormatException ignored) {
+                return 0;
+            }
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,550 @@
+package de.rubymc.mongodb.impl;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Sorts;
+import de.rubymc.mongodb.ITypedCollection;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWrapper;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
+
+/**
+ * A view of a {@link DatabaseCollection} whose reads decode BSON directly into objects of a mapped class
+ * through a codec registry, skipping the intermediate {@link Document}. Writes encode the object once through the
+ * same registry and are announced through the untyped collection, so listeners and the materialized views keep
+ * working; they are only converted into documents if a listener is registered, or queued as documents in
+ * write-behind mode. Reads always query MongoDB and bypass the near cache and the cached leaderboards, which hold
+ * documents.
+ * Reads are timed under the same operation names as those of the untyped collection when metrics are enabled.
+ *
+ * @param <T> the class the documents are mapped to
+ */
+public class TypedDatabaseCollection<T> implements ITypedCollection<T> {
+
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    private final DatabaseCollection documents;
+    private final MongoCollection<T> collection;
+    private final Codec<T> codec;
+    private final Codec<Document> documentCodec;
+
+    /**
+     * Constructs a new TypedDatabaseCollection.
+     *
+     * @param documents     the untyped collection
+     * @param type          the class the documents are mapped to
+     * @param codecRegistry the codec registry providing the codec of the class
+     */
+    public TypedDatabaseCollection(DatabaseCollection documents, Class<T> type, CodecRegistry codecRegistry) {
+        this.documents = documents;
+        this.collection = documents.mongoCollection().withDocumentClass(type).withCodecRegistry(codecRegistry);
+        this.codec = codecRegistry.get(type);
+        this.documentCodec = codecRegistry.get(Document.class);
+    }
+
+    /**
+     * Inserts a document into the collection.
+     *
+     * @param value the object to be stored
+     */
+    @Override
+    public void createDocument(T value) {
+        documents.createDocument(() -> collection.insertOne(value), () -> toDocument(value));
+    }
+
+    /**
+     * Inserts a document into the collection asynchronously.
+     *
+     * @param value the object to be stored
+     * @return a future completed with true if the insert succeeded, false otherwise
+     */
+    @Override
+    public CompletableFuture<Boolean> createDocumentAsync(T value) {
+        if (documents.writesBehind()) {
+            return documents.createDocumentAsync(toDocument(value));
+        }
+        return write(() -> createDocument(value));
+    }
+
+    /**
+     * Deletes a document from the collection based on the specified key-value pair.
+     *
+     * @param key   the key to match against
+     * @param value the value to match against
+     * @return true if the deletion was acknowledged, false otherwise
+     */
+    @Override
+    public boolean deleteDocument(String key, Object value) {
+        return documents.deleteDocument(key, value);
+    }
+
+    /**
+     * Deletes a document from the collection asynchronously based on the specified key-value pair.
+     *
+     * @param key   the key to match against
+     * @param value the value to match against
+     * @return a future completed with true if the deletion succeeded, false otherwise
+     */
+    @Override
+    public CompletableFuture<Boolean> deleteDocumentAsync(String key, Object value) {
+        return documents.deleteDocumentAsync(key, value);
+    }
+
+    /**
+     * Retrieves a document from the collection based on the specified key-value pair.
+     *
+     * @param key   the key to match against
+     * @param value the value to match against
+     * @return the decoded document, or null if no document was found
+     */
+    @Override
+    public T getDocument(String key, Object value) {
+        return getDocument(key, value, null);
+    }
+
+    /**
+     * Retrieves a document from the collection asynchronously based on the specified key-value pair.
+     *
+     * @param key   the key to match against
+     * @param value the value to match against
+     * @return a future completed with the decoded document, or null if no document was found
+     */
+    @Override
+    public CompletableFuture<T> getDocumentAsync(String key, Object value) {
+        return documents.async(() -> getDocument(key, value));
+    }
+
+    /**
+     * Retrieves the projected fields of a document from the collection based on the specified key-value pair.
+     * Fields left out by the projection keep the defaults of the mapped class.
+     *
+     * @param key        the key to match against
+     * @param value      the value to match against
+     * @param projection the projection of the fields to retrieve, or null for all fields
+     * @return the decoded document, or null if no document was found
+     */
+    @Override
+    public T getDocument(String key, Object value, Bson projection) {
+        return documents.timed("getDocument", () -> {
+            Bson filter = eq(key, value);
+            documents.observe("getDocument(" + key + ")", filter, null);
+            return collection.find(filter).projection(projection).first();
+        });
+    }
+
+    /**
+     * Retrieves the projected fields of a document from the collection asynchronously.
+     *
+     * @param key        the key to match against
+     * @param value      the value to match against
+     * @param projection the projection of the fields to retrieve, or null for all fields
+     * @return a future completed with the decoded document, or null if no document was found
+     */
+    @Override
+    public CompletableFuture<T> getDocumentAsync(String key, Object value, Bson projection) {
+        return documents.async(() -> getDocument(key, value, projection));
+    }
+
+    /**
+     * Retrieves all documents whose key matches one of the specified values with a single query.
+     *
+     * @param key    the key to match against
+     * @param values the values to match against
+     * @return a List of the decoded documents
+     */
+    @Override
+    public List<T> getDocuments(String key, Collection<?> values) {
+        if (values.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return documents.timed("getDocuments", () -> {
+            Bson filter = in(key, values);
+            documents.observe("getDocuments(" + key + ")", filter, null);
+            return collection.find(filter).into(new ArrayList<>());
+        });
+    }
+
+    /**
+     * Retrieves all documents whose key matches one of the specified values with a single query asynchronously.
+     *
+     * @param key    the key to match against
+     * @param values the values to match against
+     * @return a future completed with a List of the decoded documents
+     */
+    @Override
+    public CompletableFuture<List<T>> getDocumentsAsync(String key, Collection<?> values) {
+        return documents.async(() -> getDocuments(key, values));
+    }
+
+    /**
+     * Retrieves all documents in the collection.
+     *
+     * @return a List containing all decoded documents in the collection
+     */
+    @Override
+    public List<T> collection() {
+        return collection(null);
+    }
+
+    /**
+     * Retrieves all documents in the collection asynchronously.
+     *
+     * @return a future completed with a List containing all decoded documents in the collection
+     */
+    @Override
+    public CompletableFuture<List<T>> collectionAsync() {
+        return documents.async(this::collection);
+    }
+
+    /**
+     * Retrieves the projected fields of all documents in the collection.
+     *
+     * @param projection the projection of the fields to retrieve, or null for all fields
+     * @return a List containing all decoded documents in the collection
+     */
+    @Override
+    public List<T> collection(Bson projection) {
+        return documents.timed("collection", () -> collection.find().projection(projection).into(new ArrayList<>()));
+    }
+
+    /**
+     * Retrieves the projected fields of all documents in the collection asynchronously.
+     *
+     * @param projection the projection of the fields to retrieve, or null for all fields
+     * @return a future completed with a List containing all decoded documents in the collection
+     */
+    @Override
+    public CompletableFuture<List<T>> collectionAsync(Bson projection) {
+        return documents.async(() -> collection(projection));
+    }
+
+    /**
+     * Streams all documents in the collection through a driver cursor.
+     *
+     * @return a Stream of the decoded documents, which must be closed to release the cursor
+     */
+    @Override
+    public Stream<T> stream() {
+        return stream(null, null, 0);
+    }
+
+    /**
+     * Streams the matching documents through a driver cursor, fetching them in batches of the specified size.
+     * The cursor is opened lazily, when the first document is requested.
+     *
+     * @param filter    the filter the documents have to match, or null for all documents
+     * @param batchSize the number of documents fetched per round trip, or 0 for the server default
+     * @return a Stream of the decoded documents, which must be closed to release the cursor
+     */
+    @Override
+    public Stream<T> stream(Bson filter, int batchSize) {
+        return stream(filter, null, batchSize);
+    }
+
+    /**
+     * Streams the projected fields of the matching documents through a driver cursor, fetching them in batches of
+     * the specified size. Fields left out by the projection keep the defaults of the mapped class.
+     *
+     * @param filter     the filter the documents have to match, or null for all documents
+     * @param projection the projection of the fields to retrieve, or null for all fields
+     * @param batchSize  the number of documents fetched per round trip, or 0 for the server default
+     * @return a Stream of the decoded documents, which must be closed to release the cursor
+     */
+    @Override
+    public Stream<T> stream(Bson filter, Bson projection, int batchSize) {
+        AtomicReference<MongoCursor<T>> cursor = new AtomicReference<>();
+        return StreamSupport.stream(() -> {
+            cursor.set(collection.find(filter != null ? filter : new BsonDocument()).projection(projection).batchSize(batchSize).iterator());
+            return Spliterators.spliteratorUnknownSize(cursor.get(), Spliterator.ORDERED | Spliterator.NONNULL);
+        }, Spliterator.ORDERED | Spliterator.NONNULL, false).onClose(() -> {
+            MongoCursor<T> opened = cursor.get();
+            if (opened != null) {
+                opened.close();
+            }
+        });
+    }
+
+    /**
+     * Replaces a document in the collection based on the specified key-value pair.
+     *
+     * @param key      the key to match against
+     * @param value    the value to match against
+     * @param document the object replacing the matched document
+     */
+    @Override
+    public void updateDocument(String key, Object value, T document) {
+        documents.updateDocument(key, value, () -> collection.replaceOne(eq(key, value), document), () -> toDocument(document));
+    }
+
+    /**
+     * Replaces a document in the collection asynchronously based on the specified key-value pair.
+     *
+     * @param key      the key to match against
+     * @param value    the value to match against
+     * @param document the object replacing the matched document
+     * @return a future completed with true if the update succeeded, false otherwise
+     */
+    @Override
+    public CompletableFuture<Boolean> updateDocumentAsync(String key, Object value, T document) {
+        if (documents.writesBehind()) {
+            return documents.updateDocumentAsync(key, value, toDocument(document));
+        }
+        return write(() -> updateDocument(key, value, document));
+    }
+
+    /**
+     * Updates an element within a document in the collection based on the specified key-value pair.
+     *
+     * @param key         the key to match against
+     * @param value       the value to match against
+     * @param updateKey   the key of the element to be updated
+     * @param updateValue the new value for the element
+     */
+    @Override
+    public void updateElement(String key, Object value, String updateKey, Object updateValue) {
+        documents.updateElement(key, value, updateKey, updateValue);
+    }
+
+    /**
+     * Updates an element within a document in the collection asynchronously.
+     *
+     * @param key         the key to match against
+     * @param value       the value to match against
+     * @param updateKey   the key of the element to be updated
+     * @param updateValue the new value for the element
+     * @return a future completed with true if the update succeeded, false otherwise
+     */
+    @Override
+    public CompletableFuture<Boolean> updateElementAsync(String key, Object value, String updateKey, Object updateValue) {
+        return documents.updateElementAsync(key, value, updateKey, updateValue);
+    }
+
+    /**
+     * Atomically increments a numeric element within a document in the collection.
+     *
+     * @param key       the key to match against
+     * @param value     the value to match against
+     * @param updateKey the key of the element to be incremented
+     * @param delta     the amount to add, which may be negative
+     * @return true if a document was matched, false otherwise
+     */
+    @Override
+    public boolean increment(String key, Object value, String updateKey, Number delta) {
+        return documents.increment(key, value, updateKey, delta);
+    }
+
+    /**
+     * Atomically increments a numeric element within a document in the collection asynchronously.
+     *
+     * @param key       the key to match against
+     * @param value     the value to match against
+     * @param updateKey the key of the element to be incremented
+     * @param delta     the amount to add, which may be negative
+     * @return a future completed with true if the update succeeded, false otherwise
+     */
+    @Override
+    public CompletableFuture<Boolean> incrementAsync(String key, Object value, String updateKey, Number delta) {
+        return documents.incrementAsync(key, value, updateKey, delta);
+    }
+
+    /**
+     * Calculates the sum of integer values in the specified field across all documents in the collection.
+     *
+     * @param field the field to calculate the sum for
+     * @return the sum of integer values, or -1 if no documents were found
+     */
+    @Override
+    public int sumTotalInt(String field) {
+        return documents.sumTotalInt(field);
+    }
+
+    /**
+     * Calculates the sum of long values in the specified field across all documents in the collection.
+     *
+     * @param field the field to calculate the sum for
+     * @return the sum of long values, or -1 if no documents were found
+     */
+    @Override
+    public long sumTotalLong(String field) {
+        return documents.sumTotalLong(field);
+    }
+
+    /**
+     * Calculates the sum of integer values in the specified field asynchronously.
+     *
+     * @param field the field to calculate the sum for
+     * @return a future completed with the sum of integer values, or -1 if no documents were found
+     */
+    @Override
+    public CompletableFuture<Integer> sumTotalIntAsync(String field) {
+        return documents.sumTotalIntAsync(field);
+    }
+
+    /**
+     * Calculates the sum of long values in the specified field asynchronously.
+     *
+     * @param field the field to calculate the sum for
+     * @return a future completed with the sum of long values, or -1 if no documents were found
+     */
+    @Override
+    public CompletableFuture<Long> sumTotalLongAsync(String field) {
+        return documents.sumTotalLongAsync(field);
+    }
+
+    /**
+     * Retrieves the rank of a document based on the specified field and unique id.
+     *
+     * @param field    the field to rank by
+     * @param uniqueId the unique id of the document
+     * @return the rank of the document
+     */
+    @Override
+    public int rank(String field, UUID uniqueId) {
+        return documents.rank(field, uniqueId);
+    }
+
+    /**
+     * Retrieves the rank of a document asynchronously.
+     *
+     * @param field    the field to rank by
+     * @param uniqueId the unique id of the document
+     * @return a future completed with the rank of the document
+     */
+    @Override
+    public CompletableFuture<Integer> rankAsync(String field, UUID uniqueId) {
+        return documents.rankAsync(field, uniqueId);
+    }
+
+    /**
+     * Retrieves the top documents from the collection based on the specified field and limit.
+     *
+     * @param field the field to sort and retrieve the top documents
+     * @param limit the maximum number of documents to retrieve
+     * @return a List containing the decoded top documents
+     */
+    @Override
+    public List<T> topWall(String field, int limit) {
+        return topWall(field, limit, null);
+    }
+
+    /**
+     * Retrieves the top documents from the collection asynchronously.
+     *
+     * @param field the field to sort and retrieve the top documents
+     * @param limit the maximum number of documents to retrieve
+     * @return a future completed with a List containing the decoded top documents
+     */
+    @Override
+    public CompletableFuture<List<T>> topWallAsync(String field, int limit) {
+        return documents.async(() -> topWall(field, limit));
+    }
+
+    /**
+     * Retrieves the projected fields of the top documents from the collection.
+     *
+     * @param field      the field to sort and retrieve the top documents
+     * @param limit      the maximum number of documents to retrieve
+     * @param projection the projection of the fields to retrieve, or null for all fields
+     * @return a List containing the decoded top documents
+     */
+    @Override
+    public List<T> topWall(String field, int limit, Bson projection) {
+        return documents.timed("topWall", () -> {
+            documents.observe("topWall(" + field + ")", new BsonDocument(), Sorts.descending(field));
+            List<Bson> pipeline = new ArrayList<>(Arrays.asList(Aggregates.sort(Sorts.descending(field)), Aggregates.limit(limit)));
+            if (projection != null) {
+                pipeline.add(Aggregates.project(projection));
+            }
+            return collection.aggregate(pipeline).into(new ArrayList<>());
+        });
+    }
+
+    /**
+     * Retrieves the projected fields of the top documents from the collection asynchronously.
+     *
+     * @param field      the field to sort and retrieve the top documents
+     * @param limit      the maximum number of documents to retrieve
+     * @param projection the projection of the fields to retrieve, or null for all fields
+     * @return a future completed with a List containing the decoded top documents
+     */
+    @Override
+    public CompletableFuture<List<T>> topWallAsync(String field, int limit, Bson projection) {
+        return documents.async(() -> topWall(field, limit, projection));
+    }
+
+    /**
+     * Creates the specified indexes on the collection.
+     *
+     * @param indexes the indexes to create
+     */
+    @Override
+    public void ensureIndexes(IndexModel... indexes) {
+        documents.ensureIndexes(indexes);
+    }
+
+    /**
+     * Retrieves the untyped collection this collection is a view of.
+     *
+     * @return the untyped collection
+     */
+    @Override
+    public DatabaseCollection documents() {
+        return documents;
+    }
+
+    /**
+     * Retrieves the underlying typed MongoCollection object.
+     *
+     * @return the typed MongoCollection object
+     */
+    @Override
+    public MongoCollection<T> mongoCollection() {
+        return collection;
+    }
+
+    /**
+     * Runs a direct write on the executor of the database.
+     *
+     * @param write the write to run
+     * @return a future completed with true if the write succeeded, false otherwise
+     */
+    private CompletableFuture<Boolean> write(Runnable write) {
+        return documents.async(() -> {
+            write.run();
+            return true;
+        }).exceptionally(throwable -> false);
+    }
+
+    /**
+     * Encodes an object into a document through its codec.
+     *
+     * @param value the object to encode
+     * @return the encoded document
+     */
+    private Document toDocument(T value) {
+        BsonDocument encoded = new BsonDocumentWrapper<>(value, codec);
+        return documentCodec.decode(new BsonDocumentReader(encoded), DECODER_CONTEXT);
+    }
+}
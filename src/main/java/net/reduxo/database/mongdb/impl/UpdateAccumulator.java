@@ -0,0 +1,358 @@
+package de.rubymc.mongodb.impl;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import de.rubymc.mongodb.Pair;
+import org.bson.Document;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Projections.include;
+
+/**
+ * Merges the asynchronous element updates and increments of a {@link DatabaseCollection} per matched document
+ * into one {@code $set}/{@code $inc} update, and sends all pending updates as one {@code bulkWrite} per interval.
+ * Later sets of a field replace earlier ones, increments of a field are summed, and an increment of a field
+ * that is already set to a number in the same update is folded into the set value. The futures of the merged
+ * updates report whether the document they target was matched, and only matched updates are passed to the listeners.
+ */
+final class UpdateAccumulator {
+
+    private static final String SET = "$set";
+    private static final String INC = "$inc";
+
+    private final MongoCollection<Document> collection;
+    private final List<CollectionListener> listeners;
+    private final Executor executor;
+    private final int maxPending;
+    private final ScheduledFuture<?> timer;
+    private final Object lock = new Object();
+
+    private List<PendingUpdate> pending = new ArrayList<>();
+    private Map<Pair<String, Object>, PendingUpdate> latest = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * Constructs a new UpdateAccumulator for the specified collection.
+     *
+     * @param collection    the collection the updates are written to
+     * @param listeners     the listeners notified of the applied updates
+     * @param executor      the executor the updates are written on
+     * @param scheduler     the scheduler triggering the interval flushes
+     * @param maxPending    the number of pending documents that triggers a flush
+     * @param flushInterval the maximum time an update stays pending
+     * @param unit          the time unit of the flush interval
+     */
+    UpdateAccumulator(MongoCollection<Document> collection, List<CollectionListener> listeners, Executor executor,
+                      ScheduledExecutorService scheduler, int maxPending, long flushInterval, TimeUnit unit) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be at least 1");
+        }
+        this.collection = collection;
+        this.listeners = listeners;
+        this.executor = executor;
+        this.maxPending = maxPending;
+        this.timer = scheduler.scheduleWithFixedDelay(() -> executor.execute(this::flush), flushInterval, flushInterval, unit);
+    }
+
+    /**
+     * Sets an element of the document matching the key-value pair with the next flush.
+     *
+     * @param key         the key to match against
+     * @param value       the value to match against
+     * @param updateKey   the key of the element to set
+     * @param updateValue the new value of the element
+     * @return a future completed with true once the update was applied, or false if no document matched or it failed
+     */
+    CompletableFuture<Boolean> set(String key, Object value, String updateKey, Object updateValue) {
+        return add(key, value, updateKey, false, update -> update.set(updateKey, updateValue));
+    }
+
+    /**
+     * Increments an element of the document matching the key-value pair with the next flush.
+     *
+     * @param key       the key to match against
+     * @param value     the value to match against
+     * @param updateKey the key of the element to increment
+     * @param delta     the amount to add
+     * @return a future completed with true once the update was applied, or false if no document matched or it failed
+     */
+    CompletableFuture<Boolean> increment(String key, Object value, String updateKey, Number delta) {
+        return add(key, value, updateKey, true, update -> update.increment(updateKey, delta));
+    }
+
+    /**
+     * Writes all pending updates to MongoDB, blocking until they have been acknowledged.
+     * Flushes are serialised so that updates of the same document are applied in the order they were made.
+     */
+    synchronized void flush() {
+        List<PendingUpdate> batch;
+        boolean split;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            split = batch.size() != latest.size();
+            pending = new ArrayList<>();
+            latest = new HashMap<>();
+        }
+        write(batch, split);
+    }
+
+    /**
+     * Retrieves the number of pending updates, counting merged updates of one document once.
+     *
+     * @return the number of pending updates
+     */
+    int size() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Rejects further updates, flushes the pending ones and stops the flush timer.
+     */
+    void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        timer.cancel(false);
+        flush();
+    }
+
+    private CompletableFuture<Boolean> add(String key, Object value, String updateKey, boolean increment, Consumer<PendingUpdate> merge) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        boolean full;
+        synchronized (lock) {
+            if (closed) {
+                result.complete(false);
+                return result;
+            }
+            Pair<String, Object> target = new Pair<>(key, DocumentValues.normalize(value));
+            PendingUpdate update = latest.get(target);
+            // MongoDB rejects updates touching a field and one of its sub-fields, so those start a new update
+            if (update == null || update.conflicts(updateKey, increment)) {
+                update = new PendingUpdate(key, value, target);
+                pending.add(update);
+                latest.put(target, update);
+            }
+            merge.accept(update);
+            update.results.add(result);
+            full = pending.size() >= maxPending;
+        }
+        if (full) {
+            executor.execute(this::flush);
+        }
+        return result;
+    }
+
+    private void write(List<PendingUpdate> batch, boolean ordered) {
+        if (batch.size() == 1) {
+            PendingUpdate update = batch.get(0);
+            try {
+                boolean matched = collection.updateOne(eq(update.key, update.value), update.toBson()).getMatchedCount() > 0;
+                if (matched) {
+                    update.notifyListeners(listeners);
+                }
+                update.complete(matched);
+            } catch (RuntimeException exception) {
+                update.complete(false);
+            }
+            return;
+        }
+        List<WriteModel<Document>> models = new ArrayList<>(batch.size());
+        for (PendingUpdate update : batch) {
+            models.add(new UpdateOneModel<>(eq(update.key, update.value), update.toBson()));
+        }
+        try {
+            BulkWriteResult result = collection.bulkWrite(models, new BulkWriteOptions().ordered(ordered));
+            completeApplied(batch, result.getMatchedCount());
+        } catch (MongoBulkWriteException exception) {
+            if (exception.getWriteConcernError() != null) {
+                // whether the updates were applied is unknown, so derived state starts over
+                listeners.forEach(CollectionListener::changed);
+                batch.forEach(update -> update.complete(false));
+                return;
+            }
+            Set<Integer> failed = new HashSet<>();
+            int firstFailure = batch.size();
+            for (BulkWriteError error : exception.getWriteErrors()) {
+                failed.add(error.getIndex());
+                firstFailure = Math.min(firstFailure, error.getIndex());
+            }
+            List<PendingUpdate> applied = new ArrayList<>();
+            for (int index = 0; index < batch.size(); index++) {
+                // an ordered bulk write stops at its first error, so everything after it was never applied
+                boolean success = ordered ? index < firstFailure : !failed.contains(index);
+                if (success) {
+                    applied.add(batch.get(index));
+                } else {
+                    batch.get(index).complete(false);
+                }
+            }
+            completeApplied(applied, exception.getWriteResult().getMatchedCount());
+        } catch (RuntimeException exception) {
+            batch.forEach(update -> update.complete(false));
+        }
+    }
+
+    /**
+     * Completes the updates a bulk write applied and notifies the listeners of those that matched a document.
+     *
+     * @param applied the updates that were written without an error
+     * @param matched the number of updates that matched a document
+     */
+    private void completeApplied(List<PendingUpdate> applied, int matched) {
+        if (matched == applied.size()) {
+            applied.forEach(update -> update.notifyListeners(listeners));
+            applied.forEach(update -> update.complete(true));
+        } else {
+            completeMatched(applied);
+        }
+    }
+
+    /**
+     * Completes the updates of a batch in which not every update matched a document. Which ones did is not part of
+     * the bulk result, so the targeted documents are looked up with one {@code $in} query per key afterwards.
+     */
+    private void completeMatched(List<PendingUpdate> batch) {
+        Map<String, Set<Object>> values = new LinkedHashMap<>();
+        for (PendingUpdate update : batch) {
+            values.computeIfAbsent(update.key, ignored -> new LinkedHashSet<>()).add(update.value);
+        }
+        Set<Pair<String, Object>> existing = new HashSet<>();
+        try {
+            values.forEach((key, keyValues) -> {
+                for (Document document : collection.find(in(key, keyValues)).projection(include(key)).into(new ArrayList<>())) {
+                    existing.add(new Pair<>(key, DocumentValues.normalize(DocumentValues.get(document, key))));
+                }
+            });
+        } catch (RuntimeException exception) {
+            // the updates were acknowledged, only their matches are unknown, so derived state starts over
+            listeners.forEach(CollectionListener::changed);
+            batch.forEach(update -> update.complete(true));
+            return;
+        }
+        for (PendingUpdate update : batch) {
+            boolean matched = existing.contains(update.target);
+            if (matched) {
+                update.notifyListeners(listeners);
+            }
+            update.complete(matched);
+        }
+    }
+
+    /**
+     * Adds two numbers, keeping the narrowest type that holds the exact sum like {@code $inc} does.
+     */
+    static Number add(Number first, Number second) {
+        if (first instanceof BigDecimal || second instanceof BigDecimal) {
+            return new BigDecimal(first.toString()).add(new BigDecimal(second.toString()));
+        }
+        if (first instanceof Double || first instanceof Float || second instanceof Double || second instanceof Float) {
+            return first.doubleValue() + second.doubleValue();
+        }
+        if (first instanceof Integer && second instanceof Integer) {
+            long sum = (long) first.intValue() + second.intValue();
+            if (sum == (int) sum) {
+                return (int) sum;
+            }
+            return sum;
+        }
+        return first.longValue() + second.longValue();
+    }
+
+    private static final class PendingUpdate {
+
+        private final String key;
+        private final Object value;
+        private final Pair<String, Object> target;
+        private final Map<String, Object> set = new LinkedHashMap<>();
+        private final Map<String, Number> increments = new LinkedHashMap<>();
+        private final List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+        private PendingUpdate(String key, Object value, Pair<String, Object> target) {
+            this.key = key;
+            this.value = value;
+            this.target = target;
+        }
+
+        private void set(String field, Object newValue) {
+            increments.remove(field);
+            set.put(field, newValue);
+        }
+
+        private void increment(String field, Number delta) {
+            Object current = set.get(field);
+            if (current instanceof Number) {
+                set.put(field, add((Number) current, delta));
+            } else {
+                increments.merge(field, delta, UpdateAccumulator::add);
+            }
+        }
+
+        /**
+         * Checks whether a field overlaps a different field of this update, which MongoDB would reject as a conflict,
+         * or is an increment of a field this update sets to something other than a number, which cannot be folded
+         * into the set value and would otherwise be sent as a {@code $set} and an {@code $inc} of the same field.
+         */
+        private boolean conflicts(String field, boolean increment) {
+            if (increment && set.containsKey(field) && !(set.get(field) instanceof Number)) {
+                return true;
+            }
+            return conflicts(field, set.keySet()) || conflicts(field, increments.keySet());
+        }
+
+        private static boolean conflicts(String field, Set<String> fields) {
+            for (String other : fields) {
+                if (!other.equals(field) && (other.startsWith(field + ".") || field.startsWith(other + "."))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Document toBson() {
+            Document update = new Document();
+            if (!set.isEmpty()) {
+                update.append(SET, new Document(set));
+            }
+            if (!increments.isEmpty()) {
+                update.append(INC, new Document(new LinkedHashMap<>(increments)));
+            }
+            return update;
+        }
+
+        private void notifyListeners(List<CollectionListener> listeners) {
+            set.forEach((field, newValue) -> listeners.forEach(listener -> listener.elementUpdated(key, value, field, newValue, null)));
+            increments.forEach((field, delta) -> listeners.forEach(listener -> listener.incremented(key, value, field, delta)));
+        }
+
+        private void complete(boolean success) {
+            results.forEach(result -> result.complete(success));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package de.rubymc.mongodb.impl;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the asynchronous writes of a {@link DatabaseCollection} and sends them to MongoDB as
+ * {@code bulkWrite} batches. A batch is flushed once it reaches the configured size, once the
+ * flush interval has elapsed or when {@link #flush()} is called explicitly.
+ */
+final class WriteBehindQueue {
+
+    private final MongoCollection<Document> collection;
+    private final int batchSize;
+    private final boolean ordered;
+    private final BulkWriteOptions options;
+    private final Executor executor;
+    private final ScheduledFuture<?> timer;
+    private final Object lock = new Object();
+
+    private List<PendingWrite> pending = new ArrayList<>();
+    private boolean closed;
+
+    /**
+     * Constructs a new WriteBehindQueue for the specified collection.
+     *
+     * @param collection    the collection the batches are written to
+     * @param executor      the executor the batches are written on
+     * @param scheduler     the scheduler triggering the interval flushes
+     * @param batchSize     the number of pending writes that triggers a flush
+     * @param flushInterval the maximum time a write stays queued
+     * @param unit          the time unit of the flush interval
+     * @param ordered       whether the batches are executed as ordered bulk writes
+     */
+    WriteBehindQueue(MongoCollection<Document> collection, Executor executor, ScheduledExecutorService scheduler, int batchSize, long flushInterval, TimeUnit unit, boolean ordered) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.collection = collection;
+        this.batchSize = batchSize;
+        this.ordered = ordered;
+        this.options = new BulkWriteOptions().ordered(ordered);
+        this.executor = executor;
+        this.timer = scheduler.scheduleWithFixedDelay(() -> executor.execute(this::flush), flushInterval, flushInterval, unit);
+    }
+
+    /**
+     * Queues a write for the next batch.
+     *
+     * @param model the write to queue
+     * @return a future completed with true once the write succeeded, or false if it failed
+     */
+    CompletableFuture<Boolean> enqueue(WriteModel<Document> model) {
+        PendingWrite write = new PendingWrite(model);
+        boolean full;
+        synchronized (lock) {
+            if (closed) {
+                write.result.complete(false);
+                return write.result;
+            }
+            pending.add(write);
+            full = pending.size() >= batchSize;
+        }
+        if (full) {
+            executor.execute(this::flush);
+        }
+        return write.result;
+    }
+
+    /**
+     * Writes all pending operations to MongoDB, blocking until every batch has been acknowledged.
+     * Flushes are serialised so that batches reach the server in the order they were queued.
+     */
+    synchronized void flush() {
+        List<PendingWrite> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            write(batch.subList(from, Math.min(batch.size(), from + batchSize)));
+        }
+    }
+
+    /**
+     * Retrieves the number of pending writes.
+     *
+     * @return the number of pending writes
+     */
+    int size() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Rejects further writes, flushes the remaining ones and stops the flush timer.
+     */
+    void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        timer.cancel(false);
+        flush();
+    }
+
+    private void write(List<PendingWrite> batch) {
+        List<WriteModel<Document>> models = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            models.add(write.model);
+        }
+        try {
+            collection.bulkWrite(models, options);
+            batch.forEach(write -> write.result.complete(true));
+        } catch (MongoBulkWriteException exception) {
+            if (exception.getWriteConcernError() != null) {
+                batch.forEach(write -> write.result.complete(false));
+                return;
+            }
+            Set<Integer> failed = new HashSet<>();
+            int firstFailure = batch.size();
+            for (BulkWriteError error : exception.getWriteErrors()) {
+                failed.add(error.getIndex());
+                firstFailure = Math.min(firstFailure, error.getIndex());
+            }
+            for (int index = 0; index < batch.size(); index++) {
+                // an ordered bulk write stops at its first error, so everything after it was never applied
+                boolean success = ordered ? index < firstFailure : !failed.contains(index);
+                batch.get(index).result.complete(success);
+            }
+        } catch (RuntimeException exception) {
+            batch.forEach(write -> write.result.complete(false));
+        }
+    }
+
+    private static final class PendingWrite {
+
+        private final WriteModel<Document> model;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private PendingWrite(WriteModel<Document> model) {
+            this.model = model;
+        }
+    }
+}
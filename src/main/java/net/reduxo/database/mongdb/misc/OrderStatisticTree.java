@@ -0,0 +1,212 @@
+package de.rubymc.mongodb;
+
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A sorted set that additionally answers positional queries in O(log N).
+ * It is implemented as a treap whose nodes track the size of their subtree.
+ * This class is not thread-safe.
+ *
+ * @param <T> the type of the elements
+ */
+public class OrderStatisticTree<T> {
+
+    private final Comparator<? super T> comparator;
+    private Node<T> root;
+
+    /**
+     * Constructs a new empty OrderStatisticTree.
+     *
+     * @param comparator the comparator defining the order of the elements
+     */
+    public OrderStatisticTree(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Adds an element to the tree.
+     *
+     * @param value the element to add
+     * @return true if the element was added, false if an equal element was already present
+     */
+    public boolean add(T value) {
+        if (contains(value)) {
+            return false;
+        }
+        Node<T> node = new Node<>(value);
+        Node<T>[] parts = split(root, value);
+        root = merge(merge(parts[0], node), parts[1]);
+        return true;
+    }
+
+    /**
+     * Removes an element from the tree.
+     *
+     * @param value the element to remove
+     * @return true if the element was removed, false if it was not present
+     */
+    public boolean remove(T value) {
+        if (!contains(value)) {
+            return false;
+        }
+        root = remove(root, value);
+        return true;
+    }
+
+    /**
+     * Checks whether an element is present in the tree.
+     *
+     * @param value the element to look for
+     * @return true if the element is present, false otherwise
+     */
+    public boolean contains(T value) {
+        Node<T> node = root;
+        while (node != null) {
+            int compare = comparator.compare(value, node.value);
+            if (compare == 0) {
+                return true;
+            }
+            node = compare < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Counts the elements ordered before the specified value. The value itself does not have to be present.
+     *
+     * @param value the value to compare against
+     * @return the number of elements strictly less than the value
+     */
+    public int countLessThan(T value) {
+        int count = 0;
+        Node<T> node = root;
+        while (node != null) {
+            if (comparator.compare(value, node.value) <= 0) {
+                node = node.left;
+            } else {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the element at the specified position in the order of the tree.
+     *
+     * @param index the zero-based position of the element
+     * @return the element at the position
+     * @throws IndexOutOfBoundsException if the index is negative or not less than the size of the tree
+     */
+    public T get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.value;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of elements in the tree.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Removes all elements from the tree.
+     */
+    public void clear() {
+        root = null;
+    }
+
+    private Node<T> remove(Node<T> node, T value) {
+        int compare = comparator.compare(value, node.value);
+        if (compare == 0) {
+            return merge(node.left, node.right);
+        }
+        if (compare < 0) {
+            node.left = remove(node.left, value);
+        } else {
+            node.right = remove(node.right, value);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Splits a subtree into the elements less than the value and the elements greater than or equal to it.
+     */
+    @SuppressWarnings("unchecked")
+    private Node<T>[] split(Node<T> node, T value) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (comparator.compare(node.value, value) < 0) {
+            Node<T>[] parts = split(node.right, value);
+            node.right = parts[0];
+            node.update();
+            parts[0] = node;
+            return parts;
+        }
+        Node<T>[] parts = split(node.left, value);
+        node.left = parts[1];
+        node.update();
+        parts[1] = node;
+        return parts;
+    }
+
+    /**
+     * Merges two subtrees, all elements of the left one being less than those of the right one.
+     */
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node<T> {
+
+        private final T value;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private Node<T> left;
+        private Node<T> right;
+        private int size = 1;
+
+        private Node(T value) {
+            this.value = value;
+        }
+
+        private void update() {
+            size = 1 + size(left) + size(right);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package de.rubymc.hazelcast.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryValueCodecTest {
+
+    private final BinaryValueCodec codec = BinaryValueCodec.create();
+
+    @Test
+    void returnsStoredObjectsAsTheyAre() {
+        Map<String, Integer> value = Collections.singletonMap("coins", 5);
+        assertSame(value, codec.decode(codec.encode(value), Map.class));
+        assertEquals("alice", codec.decode(codec.encode("alice"), String.class));
+    }
+
+    @Test
+    void decodesLegacyJsonStrings() {
+        JsonValueCodec json = JsonValueCodec.create();
+        assertEquals("alice", codec.decode(json.encode("alice"), String.class));
+        assertEquals(Integer.valueOf(5), codec.decode(json.encode(5), Integer.class));
+        assertEquals(Boolean.TRUE, codec.decode(json.encode(true), Boolean.class));
+    }
+
+    @Test
+    void rejectsValuesOfAnotherType() {
+        assertThrows(ClassCastException.class, () -> codec.decode(5L, Boolean.class));
+    }
+}
@@ -0,0 +1,63 @@
+package de.rubymc.hazelcast.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressingValueCodecTest {
+
+    private final CompressingValueCodec codec = CompressingValueCodec.create(JsonValueCodec.create(), 64);
+
+    @Test
+    void roundTripsCompressedValues() {
+        List<String> value = new ArrayList<>(Collections.nCopies(100, "diamond_sword"));
+
+        byte[] stored = assertInstanceOf(byte[].class, codec.encode(value));
+
+        assertEquals(CompressingValueCodec.DEFLATE, stored[0]);
+        assertEquals(value, codec.decode(stored, List.class));
+        assertEquals(1, codec.getCompressedValues());
+        assertTrue(codec.getCompressionRatio() > 1);
+    }
+
+    @Test
+    void keepsSmallValuesAsStrings() {
+        Object stored = codec.encode("alice");
+
+        assertEquals("\"alice\"", stored);
+        assertEquals("alice", codec.decode(stored, String.class));
+    }
+
+    @Test
+    void storesValuesThatDoNotShrinkAsStrings() {
+        // short random text gains less from Deflate than its framing and the header cost
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        Random random = new Random(1);
+        StringBuilder value = new StringBuilder();
+        for (int index = 0; index < 80; index++) {
+            value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+
+        assertInstanceOf(String.class, codec.encode(value.toString()));
+        assertEquals(1, codec.getSkippedValues());
+    }
+
+    @Test
+    void decodesUncompressedValuesBehindTheRawMarker() {
+        byte[] json = "\"alice\"".getBytes(StandardCharsets.UTF_8);
+        byte[] stored = new byte[json.length + 5];
+        stored[0] = CompressingValueCodec.RAW;
+        stored[4] = (byte) json.length;
+        System.arraycopy(json, 0, stored, 5, json.length);
+
+        assertEquals("alice", codec.decode(stored, String.class));
+    }
+}
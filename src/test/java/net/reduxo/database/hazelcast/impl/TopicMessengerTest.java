@@ -0,0 +1,86 @@
+package de.rubymc.hazelcast.impl;
+
+import com.hazelcast.topic.ITopic;
+import de.rubymc.hazelcast.MessengerOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TopicMessengerTest {
+
+    private ITopic<Object> topic;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        topic = mock(ITopic.class);
+        when(topic.getName()).thenReturn("scores");
+        when(topic.publishAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(topic.publishAllAsync(anyCollection())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void sendsAFullBatchAtOnce() {
+        TopicMessenger<String> messenger = messenger(2);
+
+        messenger.publish("a");
+        messenger.publish("b");
+
+        verify(topic, timeout(1000)).publishAllAsync(Arrays.asList("a", "b"));
+        messenger.close();
+    }
+
+    @Test
+    void flushesPendingMessagesOnClose() throws Exception {
+        TopicMessenger<String> messenger = messenger(10);
+        CompletableFuture<Void> first = messenger.publishAsync("a").toCompletableFuture();
+        CompletableFuture<Void> second = messenger.publishAsync("b").toCompletableFuture();
+
+        messenger.close();
+
+        verify(topic).publishAllAsync(Arrays.asList("a", "b"));
+        assertNull(first.get(1, TimeUnit.SECONDS));
+        assertNull(second.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void sendsTheLastBatchOnceWhenClosedTwice() {
+        TopicMessenger<String> messenger = messenger(10);
+        messenger.publish("a");
+
+        messenger.close();
+        messenger.close();
+
+        verify(topic).publishAsync("a");
+    }
+
+    @Test
+    void failsMessagesPublishedAfterClose() {
+        TopicMessenger<String> messenger = messenger(1);
+        messenger.close();
+
+        CompletableFuture<Void> result = messenger.publishAsync("a").toCompletableFuture();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+
+    private TopicMessenger<String> messenger(int maxBatch) {
+        MessengerOptions options = MessengerOptions.create().batch(maxBatch, 1, TimeUnit.HOURS);
+        return new TopicMessenger<>(topic, String.class, options, Runnable::run);
+    }
+}
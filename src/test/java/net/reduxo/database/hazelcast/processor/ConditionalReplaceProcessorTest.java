@@ -0,0 +1,56 @@
+package de.rubymc.hazelcast.processor;
+
+import com.hazelcast.core.HazelcastJsonValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConditionalReplaceProcessorTest {
+
+    @Test
+    void comparesJsonRegardlessOfAttributeOrderAndFormatting() {
+        Map.Entry<String, Object> entry = new AbstractMap.SimpleEntry<>("a", "{\"name\":\"alice\",\"coins\":5}");
+
+        assertTrue(ConditionalReplaceProcessor.<String>create("{ \"coins\": 5, \"name\": \"alice\" }", "{\"coins\":6}").process(entry));
+        assertEquals("{\"coins\":6}", entry.getValue());
+    }
+
+    @Test
+    void comparesJsonStoredAsHazelcastJsonValue() {
+        Map.Entry<String, Object> entry = new AbstractMap.SimpleEntry<>("a", new HazelcastJsonValue("{\"coins\":5}"));
+
+        assertTrue(ConditionalReplaceProcessor.<String>create(new HazelcastJsonValue("{\"coins\": 5}"), null).process(entry));
+        assertNull(entry.getValue());
+    }
+
+    @Test
+    void keepsTheValueWhenItChanged() {
+        Map.Entry<String, Object> entry = new AbstractMap.SimpleEntry<>("a", "{\"coins\":7}");
+
+        assertFalse(ConditionalReplaceProcessor.<String>create("{\"coins\":5}", "{\"coins\":6}").process(entry));
+        assertEquals("{\"coins\":7}", entry.getValue());
+    }
+
+    @Test
+    void comparesValuesNotStoredAsJsonAsTheyAre() {
+        Map.Entry<String, Object> entry = new AbstractMap.SimpleEntry<>("a", 5L);
+
+        assertFalse(ConditionalReplaceProcessor.<String>create(5, 6L).process(entry));
+        assertTrue(ConditionalReplaceProcessor.<String>create(5L, 6L).process(entry));
+        assertEquals(6L, entry.getValue());
+    }
+
+    @Test
+    void createsAbsentEntriesOnly() {
+        Map.Entry<String, Object> entry = new AbstractMap.SimpleEntry<>("a", null);
+
+        assertTrue(ConditionalReplaceProcessor.<String>create(null, "{}").process(entry));
+        assertFalse(ConditionalReplaceProcessor.<String>create(null, "{}").process(entry));
+    }
+}
@@ -0,0 +1,63 @@
+package de.rubymc.hazelcast.processor;
+
+import com.google.gson.JsonParser;
+import com.hazelcast.core.HazelcastJsonValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IncrementProcessorTest {
+
+    @Test
+    void incrementsNumbersStoredAsThemselves() {
+        Map.Entry<String, Object> entry = new AbstractMap.SimpleEntry<>("a", 5);
+
+        assertEquals(Integer.valueOf(8), IncrementProcessor.<String>create(3).process(entry));
+        assertEquals(8, entry.getValue());
+    }
+
+    @Test
+    void widensIntegersOnlyWhenTheSumOverflows() {
+        Map.Entry<String, Object> entry = new AbstractMap.SimpleEntry<>("a", Integer.MAX_VALUE);
+
+        assertEquals(Long.valueOf(Integer.MAX_VALUE + 1L), IncrementProcessor.<String>create(1).process(entry));
+    }
+
+    @Test
+    void incrementsAttributesOfJsonStrings() {
+        Map.Entry<String, Object> entry = new AbstractMap.SimpleEntry<>("a", "{\"name\":\"alice\",\"stats\":{\"kills\":2}}");
+
+        assertEquals(5L, IncrementProcessor.<String>create("stats.kills", 3).process(entry));
+        assertEquals(JsonParser.parseString("{\"name\":\"alice\",\"stats\":{\"kills\":5}}"), JsonParser.parseString((String) entry.getValue()));
+    }
+
+    @Test
+    void countsMissingAttributesAsZero() {
+        Map.Entry<String, Object> entry = new AbstractMap.SimpleEntry<>("a", new HazelcastJsonValue("{}"));
+
+        assertEquals(1.5, IncrementProcessor.<String>create("stats.ratio", 1.5).process(entry));
+        HazelcastJsonValue stored = assertInstanceOf(HazelcastJsonValue.class, entry.getValue());
+        assertEquals(JsonParser.parseString("{\"stats\":{\"ratio\":1.5}}"), JsonParser.parseString(stored.toString()));
+    }
+
+    @Test
+    void skipsMissingEntries() {
+        Map.Entry<String, Object> entry = new AbstractMap.SimpleEntry<>("a", null);
+
+        assertNull(IncrementProcessor.<String>create("coins", 1).process(entry));
+        assertNull(entry.getValue());
+    }
+
+    @Test
+    void rejectsNonNumericAttributes() {
+        Map.Entry<String, Object> entry = new AbstractMap.SimpleEntry<>("a", "{\"coins\":\"many\"}");
+
+        assertThrows(IllegalStateException.class, () -> IncrementProcessor.<String>create("coins", 1).process(entry));
+    }
+}
@@ -0,0 +1,72 @@
+package de.rubymc.mongodb.impl;
+
+import com.hazelcast.core.HazelcastJsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DocumentMapStoreTest {
+
+    @Test
+    void roundTripsDocumentsWithUuidKeys() {
+        UUID key = UUID.randomUUID();
+        Document document = new Document("_id", new ObjectId())
+                .append("uniqueId", key)
+                .append("coins", 5_000_000_000L)
+                .append("kills", 3)
+                .append("joined", new Date(1_600_000_000_000L))
+                .append("stats", new Document("ratio", 1.5));
+
+        Object stored = DocumentMapStore.toValue(document, true);
+
+        assertInstanceOf(HazelcastJsonValue.class, stored);
+        assertEquals(document, DocumentMapStore.toDocument("uniqueId", key, stored));
+    }
+
+    @Test
+    void alwaysWritesTheTypedKey() {
+        UUID key = UUID.randomUUID();
+
+        Document written = DocumentMapStore.toDocument("uniqueId", key, "{\"uniqueId\": \"" + key + "\", \"coins\": 5}");
+
+        assertEquals(key, written.get("uniqueId"));
+        assertEquals(5, written.get("coins"));
+    }
+
+    @Test
+    void leavesTheWrittenDocumentUntouched() {
+        Document value = new Document("coins", 5);
+
+        DocumentMapStore.toDocument("uniqueId", "a", value);
+
+        assertEquals(new Document("coins", 5), value);
+    }
+
+    @Test
+    void returnsLoadedDocumentsUnderTheRequestedKeys() {
+        Document first = new Document("coins", 1).append("uniqueId", 1);
+        Document second = new Document("coins", 2).append("uniqueId", 2);
+
+        Map<Object, Document> found = DocumentMapStore.byRequestedKey("uniqueId", Arrays.asList(1L, 2L, 3L), Arrays.asList(first, second));
+
+        assertEquals(2, found.size());
+        assertEquals(first, found.get(1L));
+        assertEquals(second, found.get(2L));
+        assertEquals(Collections.emptyMap(), DocumentMapStore.byRequestedKey("uniqueId", Collections.singletonList(4L), Arrays.asList(first, second)));
+    }
+
+    @Test
+    void rejectsValuesThatAreNotDocuments() {
+        assertThrows(IllegalArgumentException.class, () -> DocumentMapStore.toDocument("uniqueId", "a", 5));
+    }
+}
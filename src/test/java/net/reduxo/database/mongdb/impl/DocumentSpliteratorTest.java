@@ -0,0 +1,37 @@
+package de.rubymc.mongodb.impl;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DocumentSpliteratorTest {
+
+    @Test
+    void groupsNumericIdsIntoOneType() {
+        assertEquals("number", DocumentSpliterator.typeOf(1));
+        assertEquals("number", DocumentSpliterator.typeOf(2L));
+        assertEquals("number", DocumentSpliterator.typeOf(2.5));
+    }
+
+    @Test
+    void mapsIdsToTheirTypeAliases() {
+        assertEquals("objectId", DocumentSpliterator.typeOf(new ObjectId()));
+        assertEquals("string", DocumentSpliterator.typeOf("name"));
+        assertEquals("date", DocumentSpliterator.typeOf(new Date()));
+        assertEquals("binData", DocumentSpliterator.typeOf(UUID.randomUUID()));
+        assertNull(DocumentSpliterator.typeOf(Collections.emptyList()));
+    }
+
+    @Test
+    void picksTheMostSampledType() {
+        assertEquals("objectId", DocumentSpliterator.dominantType(Arrays.asList(1, new ObjectId(), new ObjectId(), "a")));
+        assertNull(DocumentSpliterator.dominantType(Collections.emptyList()));
+    }
+}
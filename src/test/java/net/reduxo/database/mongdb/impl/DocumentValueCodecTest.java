@@ -0,0 +1,63 @@
+package de.rubymc.mongodb.impl;
+
+import com.google.gson.JsonParser;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DocumentValueCodecTest {
+
+    private final DocumentValueCodec codec = DocumentValueCodec.create();
+
+    @Test
+    void decodesStoredDocumentsIntoClasses() {
+        UUID uniqueId = UUID.randomUUID();
+        ObjectId id = new ObjectId();
+        Date joined = new Date(1_600_000_000_000L);
+        Object stored = DocumentMapStore.toValue(new Document("_id", id)
+                .append("uniqueId", uniqueId)
+                .append("coins", 5_000_000_000L)
+                .append("joined", joined), false);
+
+        Profile profile = codec.decode(stored, Profile.class);
+
+        assertEquals(id.toHexString(), profile._id);
+        assertEquals(uniqueId, profile.uniqueId);
+        assertEquals(5_000_000_000L, profile.coins);
+        assertEquals(joined, profile.joined);
+    }
+
+    @Test
+    void decodesStoredDocumentsAsDocuments() {
+        UUID uniqueId = UUID.randomUUID();
+        Document document = new Document("uniqueId", uniqueId).append("coins", 5);
+
+        assertEquals(document, codec.decode(codec.encode(document), Document.class));
+    }
+
+    @Test
+    void unwrapsTheTypeWrappersOfExtendedJson() {
+        assertEquals(JsonParser.parseString("{\"id\":\"5f5e100000000000000000aa\",\"coins\":5,\"price\":1.25,"
+                        + "\"uuid\":\"00112233-4455-6677-8899-aabbccddeeff\",\"legacy\":\"00112233-4455-6677-8899-aabbccddeeff\","
+                        + "\"joined\":\"2020-09-13T12:26:40Z\",\"list\":[\"AAE=\"]}"),
+                DocumentValueCodec.plain(JsonParser.parseString("{\"id\":{\"$oid\":\"5f5e100000000000000000aa\"},"
+                        + "\"coins\":{\"$numberLong\":\"5\"},\"price\":{\"$numberDecimal\":\"1.25\"},"
+                        + "\"uuid\":{\"$binary\":{\"base64\":\"ABEiM0RVZneImaq7zN3u/w==\",\"subType\":\"04\"}},"
+                        + "\"legacy\":{\"$binary\":\"d2ZVRDMiEQD/7t3Mu6qZiA==\",\"$type\":\"03\"},"
+                        + "\"joined\":{\"$date\":{\"$numberLong\":\"1600000000000\"}},"
+                        + "\"list\":[{\"$binary\":{\"base64\":\"AAE=\",\"subType\":\"00\"}}]}")));
+    }
+
+    static final class Profile {
+
+        private String _id;
+        private UUID uniqueId;
+        private long coins;
+        private Date joined;
+    }
+}
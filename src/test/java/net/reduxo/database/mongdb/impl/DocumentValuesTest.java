@@ -0,0 +1,62 @@
+package de.rubymc.mongodb.impl;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentValuesTest {
+
+    @Test
+    void normalizesIntegralNumbersToLong() {
+        assertEquals(5L, DocumentValues.normalize(5));
+        assertEquals(5L, DocumentValues.normalize((short) 5));
+        assertEquals(5L, DocumentValues.normalize(BigInteger.valueOf(5)));
+        assertEquals(5L, DocumentValues.normalize(5.0));
+    }
+
+    @Test
+    void keepsFractionsDecimalsAndOtherValues() {
+        assertEquals(2.5, DocumentValues.normalize(2.5f));
+        assertEquals(new BigDecimal("5.0"), DocumentValues.normalize(new BigDecimal("5.0")));
+        assertEquals(Double.POSITIVE_INFINITY, DocumentValues.normalize(Double.POSITIVE_INFINITY));
+        assertEquals("5", DocumentValues.normalize("5"));
+        assertNull(DocumentValues.normalize(null));
+    }
+
+    @Test
+    void keepsNumbersOutsideTheLongRange() {
+        BigInteger huge = BigInteger.ONE.shiftLeft(64);
+        assertEquals(huge, DocumentValues.normalize(huge));
+        assertEquals(Long.MIN_VALUE, DocumentValues.normalize(BigInteger.valueOf(Long.MIN_VALUE)));
+        assertEquals(0x1p63, DocumentValues.normalize(0x1p63));
+        assertEquals(1e19, DocumentValues.normalize(1e19));
+        assertEquals(Long.MIN_VALUE, DocumentValues.normalize(-0x1p63));
+        assertFalse(DocumentValues.normalize(1e19).equals(DocumentValues.normalize(2e19)));
+    }
+
+    @Test
+    void followsDottedPaths() {
+        Document document = new Document("stats", new Document("kills", 3)).append("name", "alice");
+
+        assertEquals(3, DocumentValues.get(document, "stats.kills"));
+        assertNull(DocumentValues.get(document, "name.first"));
+        assertNull(DocumentValues.get(document, "stats.deaths"));
+    }
+
+    @Test
+    void matchesValuesAcrossNumericTypes() {
+        Document document = new Document("coins", 5).append("stats", new Document("kills", 3L));
+
+        assertTrue(DocumentValues.matches(document, "coins", 5L));
+        assertTrue(DocumentValues.matches(document, "stats.kills", 3));
+        assertFalse(DocumentValues.matches(document, "coins", 6));
+        assertFalse(DocumentValues.matches(document, "missing", null));
+    }
+}
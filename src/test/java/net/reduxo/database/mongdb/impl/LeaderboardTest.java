@@ -0,0 +1,58 @@
+package de.rubymc.mongodb.impl;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LeaderboardTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<Document> top = Arrays.asList(
+            new Document("uniqueId", "a").append("coins", 30),
+            new Document("uniqueId", "b").append("coins", 20));
+    private final Leaderboard leaderboard = new Leaderboard("coins", 2, () -> {
+        loads.incrementAndGet();
+        return top;
+    }, Runnable::run, 1, TimeUnit.HOURS);
+
+    @BeforeEach
+    void setUp() {
+        leaderboard.get();
+    }
+
+    @Test
+    void ignoresReplacementsBelowTheView() {
+        leaderboard.replaced("uniqueId", "c", new Document("uniqueId", "c").append("coins", 5));
+        leaderboard.replaced("uniqueId", "d", new Document("uniqueId", "d"));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void reloadsForReplacementsOfDocumentsInTheView() {
+        leaderboard.replaced("uniqueId", "b", new Document("uniqueId", "b").append("coins", 1));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void reloadsForReplacementsBeatingTheLastEntry() {
+        leaderboard.replaced("uniqueId", "c", new Document("uniqueId", "c").append("coins", 20L));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void ignoresInsertionsBelowTheView() {
+        leaderboard.inserted(new Document("uniqueId", "c").append("coins", 19.5));
+
+        assertEquals(1, loads.get());
+    }
+}
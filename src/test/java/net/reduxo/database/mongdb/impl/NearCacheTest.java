@@ -0,0 +1,95 @@
+package de.rubymc.mongodb.impl;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NearCacheTest {
+
+    private final NearCache cache = new NearCache(2, 1, TimeUnit.HOURS);
+
+    @Test
+    void countsOneMissPerLookup() {
+        assertNull(cache.get("uniqueId", "a"));
+        cache.put("uniqueId", "a", new Document("uniqueId", "a"), cache.stamp());
+        assertNotNull(cache.get("uniqueId", "a"));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void invalidatesByTheLookupKey() {
+        cache.put("uniqueId", "a", new Document("uniqueId", "a"), cache.stamp());
+        cache.deleted("uniqueId", "a");
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidatesDocumentsCachedUnderAnotherLookup() {
+        cache.put("uniqueId", "a", new Document("uniqueId", "a").append("name", "alice").append("coins", 1), cache.stamp());
+        cache.put("uniqueId", "b", new Document("uniqueId", "b").append("name", "bob"), cache.stamp());
+
+        cache.replaced("name", "alice", new Document("name", "alice"));
+        assertNull(cache.get("uniqueId", "a"));
+        assertNotNull(cache.get("uniqueId", "b"));
+
+        cache.put("uniqueId", "a", new Document("uniqueId", "a").append("coins", 1), cache.stamp());
+        cache.incremented("coins", 1L, "coins", 1);
+        assertNull(cache.get("uniqueId", "a"));
+    }
+
+    @Test
+    void ignoresLoadsOverlappingAnInvalidation() {
+        long stamp = cache.stamp();
+        cache.deleted("uniqueId", "a");
+        cache.put("uniqueId", "a", new Document("uniqueId", "a"), stamp);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void cachesLoadsOverlappingInvalidationsOfOtherDocuments() {
+        long stamp = cache.stamp();
+        cache.deleted("uniqueId", "b");
+        cache.put("uniqueId", "a", new Document("uniqueId", "a"), stamp);
+
+        assertNotNull(cache.get("uniqueId", "a"));
+    }
+
+    @Test
+    void ignoresLoadsOverlappingAnInvalidationUnderAnotherLookup() {
+        long stamp = cache.stamp();
+        cache.replaced("name", "alice", new Document("name", "alice"));
+        cache.put("uniqueId", "a", new Document("uniqueId", "a").append("name", "alice"), stamp);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void ignoresLoadsOverlappingAClear() {
+        long stamp = cache.stamp();
+        cache.clear();
+        cache.put("uniqueId", "a", new Document("uniqueId", "a"), stamp);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void dropsEvictedDocumentsFromTheIndex() {
+        cache.put("uniqueId", "a", new Document("uniqueId", "a").append("name", "alice"), cache.stamp());
+        cache.put("uniqueId", "b", new Document("uniqueId", "b").append("name", "bob"), cache.stamp());
+        cache.put("uniqueId", "c", new Document("uniqueId", "c").append("name", "alice"), cache.stamp());
+        assertEquals(1, cache.getEvictions());
+
+        cache.deleted("name", "alice");
+        assertEquals(1, cache.size());
+        assertNotNull(cache.get("uniqueId", "b"));
+    }
+}
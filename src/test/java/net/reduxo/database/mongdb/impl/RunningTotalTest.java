@@ -0,0 +1,109 @@
+package de.rubymc.mongodb.impl;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RunningTotalTest {
+
+    private final AtomicReference<Number> aggregate = new AtomicReference<>(10L);
+    private final AtomicInteger aggregations = new AtomicInteger();
+    private final RunningTotal total = new RunningTotal("coins", () -> {
+        aggregations.incrementAndGet();
+        return aggregate.get();
+    }, Runnable::run);
+
+    @Test
+    void appliesTheDeltasOfLocalWrites() {
+        assertEquals(10, total.get());
+
+        total.inserted(new Document("coins", 5));
+        total.incremented("uniqueId", "a", "coins", 3);
+        total.elementUpdated("uniqueId", "a", "coins", 1, new Document("coins", 8));
+
+        assertEquals(11, total.get());
+        assertEquals(1, aggregations.get());
+    }
+
+    @Test
+    void recomputesWhenTheFieldIsSetWithoutThePreviousDocument() {
+        assertEquals(10, total.get());
+
+        aggregate.set(25L);
+        total.elementUpdated("uniqueId", "a", "coins", 15, null);
+        total.elementUpdated("uniqueId", "a", "name", "alice", null);
+
+        assertEquals(25, total.get());
+        assertEquals(2, aggregations.get());
+    }
+
+    @Test
+    void recomputesWhenTheFeedReportsAnUpdateOfTheField() {
+        assertEquals(10, total.get());
+
+        aggregate.set(35L);
+        feed().dispatch(update(new BsonDocument("coins", new BsonInt32(25))));
+
+        assertEquals(35, total.get());
+        assertEquals(2, aggregations.get());
+    }
+
+    @Test
+    void ignoresFeedUpdatesOfOtherFields() {
+        assertEquals(10, total.get());
+
+        aggregate.set(35L);
+        feed().dispatch(update(new BsonDocument("kills", new BsonInt32(3))));
+
+        assertEquals(10, total.get());
+        assertEquals(1, aggregations.get());
+    }
+
+    @Test
+    void keepsDeltasArrivingDuringTheRecomputation() {
+        RunningTotal[] holder = new RunningTotal[1];
+        holder[0] = new RunningTotal("coins", () -> {
+            holder[0].incremented("uniqueId", "a", "coins", 4);
+            return 10L;
+        }, Runnable::run);
+
+        assertEquals(14, holder[0].get());
+    }
+
+    @Test
+    void reportsAnEmptyCollectionUntilSomethingIsInserted() {
+        aggregate.set(null);
+        assertEquals(-1, total.get());
+
+        total.inserted(new Document("coins", 2));
+
+        assertEquals(2, total.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ChangeFeed feed() {
+        return new ChangeFeed(mock(MongoCollection.class), Collections.singletonList(total));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeStreamDocument<Document> update(BsonDocument updatedFields) {
+        ChangeStreamDocument<Document> change = mock(ChangeStreamDocument.class);
+        when(change.getOperationType()).thenReturn(OperationType.UPDATE);
+        when(change.getFullDocument()).thenReturn(new Document("_id", 1).append("coins", 25));
+        when(change.getUpdateDescription()).thenReturn(new UpdateDescription(Collections.emptyList(), updatedFields));
+        return change;
+    }
+}
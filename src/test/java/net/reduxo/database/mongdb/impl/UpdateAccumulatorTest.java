@@ -0,0 +1,139 @@
+package de.rubymc.mongodb.impl;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UpdateAccumulatorTest {
+
+    private ScheduledExecutorService scheduler;
+    private MongoCollection<Document> collection;
+    private UpdateAccumulator accumulator;
+    private final List<String> notified = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        collection = mock(MongoCollection.class);
+        CollectionListener listener = new CollectionListener() {
+            @Override
+            public void incremented(String key, Object value, String updateKey, Number delta) {
+                notified.add(value + "." + updateKey);
+            }
+
+            @Override
+            public void changed() {
+                notified.add("changed");
+            }
+        };
+        accumulator = new UpdateAccumulator(collection, Collections.singletonList(listener), Runnable::run, scheduler, 100, 1, TimeUnit.HOURS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accumulator.close();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void mergesUpdatesOfOneDocument() {
+        when(collection.updateOne(any(Bson.class), any(Bson.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        accumulator.increment("uniqueId", "a", "coins", 2);
+        accumulator.increment("uniqueId", "a", "coins", 3);
+        accumulator.set("uniqueId", "a", "name", "alice");
+        assertEquals(1, accumulator.size());
+        accumulator.flush();
+
+        ArgumentCaptor<Bson> update = ArgumentCaptor.forClass(Bson.class);
+        verify(collection).updateOne(any(Bson.class), update.capture());
+        assertEquals(new Document("$set", new Document("name", "alice")).append("$inc", new Document("coins", 5)), update.getValue());
+    }
+
+    @Test
+    void foldsIncrementsIntoSetValues() {
+        when(collection.updateOne(any(Bson.class), any(Bson.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        accumulator.set("uniqueId", "a", "coins", 10);
+        accumulator.increment("uniqueId", "a", "coins", 5);
+        accumulator.flush();
+
+        ArgumentCaptor<Bson> update = ArgumentCaptor.forClass(Bson.class);
+        verify(collection).updateOne(any(Bson.class), update.capture());
+        assertEquals(new Document("$set", new Document("coins", 15)), update.getValue());
+    }
+
+    @Test
+    void keepsIncrementsOfNonNumericSetValuesApart() {
+        accumulator.set("uniqueId", "a", "coins", "none");
+        accumulator.increment("uniqueId", "a", "coins", 5);
+
+        assertEquals(2, accumulator.size());
+    }
+
+    @Test
+    void reportsUnmatchedSingleUpdates() {
+        when(collection.updateOne(any(Bson.class), any(Bson.class))).thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        CompletableFuture<Boolean> result = accumulator.increment("uniqueId", "missing", "coins", 1);
+        accumulator.flush();
+
+        assertFalse(result.join());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reportsWhichUpdatesOfABatchMatched() {
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class)))
+                .thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, Collections.emptyList()));
+        FindIterable<Document> found = mock(FindIterable.class);
+        when(collection.find(any(Bson.class))).thenReturn(found);
+        when(found.projection(any())).thenReturn(found);
+        when(found.into(any())).thenAnswer(invocation -> {
+            List<Document> target = invocation.getArgument(0);
+            target.add(new Document("uniqueId", "a"));
+            return target;
+        });
+
+        CompletableFuture<Boolean> matched = accumulator.increment("uniqueId", "a", "coins", 1);
+        CompletableFuture<Boolean> missing = accumulator.increment("uniqueId", "b", "coins", 1);
+        accumulator.flush();
+
+        assertTrue(matched.join());
+        assertFalse(missing.join());
+        assertEquals(Collections.singletonList("a.coins"), notified);
+    }
+
+    @Test
+    void keepsIntegerSumsNarrowWhileTheyFit() {
+        assertEquals(Integer.valueOf(5), UpdateAccumulator.add(2, 3));
+        assertEquals(Long.valueOf(Integer.MAX_VALUE + 1L), UpdateAccumulator.add(Integer.MAX_VALUE, 1));
+        assertEquals(Double.valueOf(2.5), UpdateAccumulator.add(2, 0.5));
+    }
+}
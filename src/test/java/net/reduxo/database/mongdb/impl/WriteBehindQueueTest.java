@@ -0,0 +1,117 @@
+package de.rubymc.mongodb.impl;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class WriteBehindQueueTest {
+
+    private ScheduledExecutorService scheduler;
+    private MongoCollection<Document> collection;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        collection = mock(MongoCollection.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void flushesOnceTheBatchIsFull() {
+        WriteBehindQueue queue = queue(2, true);
+        CompletableFuture<Boolean> first = queue.enqueue(insert(1));
+        assertEquals(1, queue.size());
+        verifyNoInteractions(collection);
+
+        CompletableFuture<Boolean> second = queue.enqueue(insert(2));
+
+        verify(collection).bulkWrite(argThat(models -> models.size() == 2), any(BulkWriteOptions.class));
+        assertTrue(first.join());
+        assertTrue(second.join());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void orderedBatchFailsEverythingFromTheFirstError() {
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenThrow(failure(1));
+        WriteBehindQueue queue = queue(10, true);
+        CompletableFuture<Boolean> first = queue.enqueue(insert(1));
+        CompletableFuture<Boolean> second = queue.enqueue(insert(2));
+        CompletableFuture<Boolean> third = queue.enqueue(insert(3));
+
+        queue.flush();
+
+        assertTrue(first.join());
+        assertFalse(second.join());
+        assertFalse(third.join());
+    }
+
+    @Test
+    void unorderedBatchOnlyFailsTheFailedWrites() {
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenThrow(failure(1));
+        WriteBehindQueue queue = queue(10, false);
+        CompletableFuture<Boolean> first = queue.enqueue(insert(1));
+        CompletableFuture<Boolean> second = queue.enqueue(insert(2));
+        CompletableFuture<Boolean> third = queue.enqueue(insert(3));
+
+        queue.flush();
+
+        assertTrue(first.join());
+        assertFalse(second.join());
+        assertTrue(third.join());
+    }
+
+    @Test
+    void rejectsWritesOnceClosed() {
+        WriteBehindQueue queue = queue(10, true);
+        queue.close();
+
+        assertFalse(queue.enqueue(insert(1)).join());
+        verifyNoInteractions(collection);
+    }
+
+    private WriteBehindQueue queue(int batchSize, boolean ordered) {
+        return new WriteBehindQueue(collection, Runnable::run, scheduler, batchSize, 1, TimeUnit.HOURS, ordered);
+    }
+
+    private static InsertOneModel<Document> insert(int id) {
+        return new InsertOneModel<>(new Document("id", id));
+    }
+
+    private static MongoBulkWriteException failure(int index) {
+        List<BulkWriteError> errors = Collections.singletonList(new BulkWriteError(11000, "duplicate key", new BsonDocument(), index));
+        return new MongoBulkWriteException(BulkWriteResult.acknowledged(0, 0, 0, 0, Collections.emptyList()), errors, null, new ServerAddress());
+    }
+}
@@ -0,0 +1,85 @@
+package de.rubymc.mongodb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatisticTreeTest {
+
+    @Test
+    void answersRankAndSelectInOrder() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        for (int value : new int[]{50, 10, 40, 20, 30}) {
+            assertTrue(tree.add(value));
+        }
+
+        assertEquals(5, tree.size());
+        assertEquals(10, tree.get(0));
+        assertEquals(30, tree.get(2));
+        assertEquals(50, tree.get(4));
+        assertEquals(0, tree.countLessThan(10));
+        assertEquals(2, tree.countLessThan(25));
+        assertEquals(5, tree.countLessThan(60));
+    }
+
+    @Test
+    void ignoresDuplicatesAndMissingRemovals() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        assertTrue(tree.add(1));
+        assertFalse(tree.add(1));
+        assertFalse(tree.remove(2));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    void rejectsPositionsOutsideTheTree() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        tree.add(1);
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(-1));
+    }
+
+    @Test
+    void matchesASortedSetUnderRandomInsertsAndDeletes() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.reverseOrder());
+        TreeSet<Integer> expected = new TreeSet<>(Comparator.reverseOrder());
+        Random random = new Random(42);
+        for (int step = 0; step < 5000; step++) {
+            int value = random.nextInt(500);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), tree.add(value));
+            } else {
+                assertEquals(expected.remove(value), tree.remove(value));
+            }
+        }
+
+        List<Integer> ordered = new ArrayList<>(expected);
+        assertEquals(ordered.size(), tree.size());
+        for (int index = 0; index < ordered.size(); index++) {
+            assertEquals(ordered.get(index), tree.get(index));
+            assertEquals(index, tree.countLessThan(ordered.get(index)));
+        }
+        assertEquals(Collections.emptyList(), drain(tree, ordered));
+    }
+
+    private static List<Integer> drain(OrderStatisticTree<Integer> tree, List<Integer> values) {
+        for (Integer value : values) {
+            assertTrue(tree.remove(value));
+        }
+        List<Integer> left = new ArrayList<>();
+        for (int index = 0; index < tree.size(); index++) {
+            left.add(tree.get(index));
+        }
+        return left;
+    }
+}